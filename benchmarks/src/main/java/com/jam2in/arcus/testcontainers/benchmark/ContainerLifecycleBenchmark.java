@@ -0,0 +1,73 @@
+package com.jam2in.arcus.testcontainers.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Measures how long it takes to start and to stop a standalone container and clusters of 1 to 8 nodes.
+ * Every invocation creates a fresh container, so each sample is a cold start against a warm image cache.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ContainerLifecycleBenchmark {
+
+  @State(Scope.Thread)
+  public static class Created {
+    @Param({"standalone", "cluster-1", "cluster-2", "cluster-4", "cluster-8"})
+    public String topology;
+
+    Startable container;
+
+    @Setup(Level.Invocation)
+    public void create() {
+      container = Topology.create(topology);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+      container.stop();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Started {
+    @Param({"standalone", "cluster-1", "cluster-2", "cluster-4", "cluster-8"})
+    public String topology;
+
+    Startable container;
+
+    @Setup(Level.Invocation)
+    public void start() {
+      container = Topology.create(topology);
+      container.start();
+    }
+  }
+
+  @Benchmark
+  public void start(Created state) {
+    state.container.start();
+  }
+
+  @Benchmark
+  public void stop(Started state) {
+    state.container.stop();
+  }
+}
@@ -0,0 +1,140 @@
+package com.jam2in.arcus.testcontainers.benchmark;
+
+import com.jam2in.arcus.testcontainers.ArcusBulkLoader;
+import com.jam2in.arcus.testcontainers.ArcusClusterContainer;
+import com.jam2in.arcus.testcontainers.ArcusContainer;
+import com.jam2in.arcus.testcontainers.ArcusItemGenerator;
+import com.jam2in.arcus.testcontainers.LoadReport;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.spy.memcached.ArcusClient;
+import net.spy.memcached.ArcusClientIF;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.DefaultConnectionFactory;
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.Element;
+import net.spy.memcached.collection.ElementFlagFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Measures get, set and b+tree throughput and latency percentiles against each topology.
+ * The key-value items are preloaded with {@link ArcusBulkLoader}, so every get is a hit.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationBenchmark {
+
+  private static final int KEY_COUNT = 100_000;
+  private static final String KEY_PREFIX = "bench:";
+  private static final String BTREE_KEY = "bench:btree";
+  private static final int BTREE_SIZE = 1_000;
+
+  @Param({"standalone", "cluster-1", "cluster-3", "cluster-8"})
+  public String topology;
+
+  @Param({"100"})
+  public int valueSize;
+
+  private Startable container;
+  private MemcachedClientIF client;
+  private ArcusClientIF arcusClient;
+  private byte[] value;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    container = Topology.create(topology);
+    container.start();
+
+    ArcusItemGenerator generator = ArcusItemGenerator.builder()
+            .keyCount(KEY_COUNT)
+            .keyPrefix(KEY_PREFIX)
+            .valueSize(valueSize, valueSize)
+            .build();
+    LoadReport report;
+    if (container instanceof ArcusContainer) {
+      ArcusContainer standalone = (ArcusContainer) container;
+      ArcusClient standaloneClient = new ArcusClient(new DefaultConnectionFactory(), Collections.singletonList(
+              new InetSocketAddress(standalone.getHost(), standalone.getFirstMappedPort())));
+      client = standaloneClient;
+      arcusClient = standaloneClient;
+      report = ArcusBulkLoader.forContainer(standalone).load(generator);
+    } else {
+      ArcusClusterContainer cluster = (ArcusClusterContainer) container;
+      ArcusClient clusterClient = ArcusClient.createArcusClient(cluster.getHostPorts(), "test",
+              new ConnectionFactoryBuilder());
+      client = clusterClient;
+      arcusClient = clusterClient;
+      report = ArcusBulkLoader.forCluster(cluster).load(generator);
+    }
+    if (report.getErrors() > 0) {
+      throw new IllegalStateException("Failed to preload items: " + report);
+    }
+
+    value = new byte[valueSize];
+    CollectionAttributes attributes = new CollectionAttributes();
+    attributes.setMaxCount(BTREE_SIZE * 2L);
+    for (long bkey = 0; bkey < BTREE_SIZE; bkey++) {
+      arcusClient.asyncBopInsert(BTREE_KEY, bkey, null, value, attributes).get();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    client.shutdown();
+    container.stop();
+  }
+
+  @Benchmark
+  public Object get() {
+    return client.get(randomKey());
+  }
+
+  @Benchmark
+  public Boolean set() throws ExecutionException, InterruptedException {
+    return client.set(randomKey(), 0, value).get();
+  }
+
+  @Benchmark
+  public Boolean bopUpsert() throws ExecutionException, InterruptedException {
+    long bkey = ThreadLocalRandom.current().nextLong(BTREE_SIZE);
+    return arcusClient.asyncBopUpsert(BTREE_KEY, bkey, null, value, null).get();
+  }
+
+  @Benchmark
+  public Map<Long, Element<Object>> bopGet() throws ExecutionException, InterruptedException {
+    long bkey = ThreadLocalRandom.current().nextLong(BTREE_SIZE);
+    return arcusClient.asyncBopGet(BTREE_KEY, bkey, ElementFlagFilter.DO_NOT_FILTER, false, false).get();
+  }
+
+  private static String randomKey() {
+    return KEY_PREFIX + ThreadLocalRandom.current().nextInt(KEY_COUNT);
+  }
+}
@@ -0,0 +1,32 @@
+package com.jam2in.arcus.testcontainers.benchmark;
+
+import com.jam2in.arcus.testcontainers.ArcusClusterContainer;
+import com.jam2in.arcus.testcontainers.ArcusContainer;
+import com.jam2in.arcus.testcontainers.ArcusContainerProps;
+
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Creates the container of a topology given as a benchmark parameter:
+ * {@code standalone} or {@code cluster-<clusterSize>}.
+ */
+final class Topology {
+
+  static final String STANDALONE = "standalone";
+  static final String CLUSTER_PREFIX = "cluster-";
+
+  private Topology() {
+  }
+
+  static Startable create(String topology) {
+    if (STANDALONE.equals(topology)) {
+      return ArcusContainer.create();
+    }
+    if (topology.startsWith(CLUSTER_PREFIX)) {
+      return ArcusClusterContainer.create(ArcusContainerProps.builder()
+              .clusterSize(Integer.parseInt(topology.substring(CLUSTER_PREFIX.length())))
+              .build());
+    }
+    throw new IllegalArgumentException("Unknown topology: " + topology);
+  }
+}
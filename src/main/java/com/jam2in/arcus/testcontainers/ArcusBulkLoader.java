@@ -0,0 +1,247 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Seeds an {@link ArcusContainer} or {@link ArcusClusterContainer} with items through pipelined storage commands.
+ *
+ * <p>
+ * Every item is routed to the cache node owning its key on the hash ring of the Arcus client,
+ * so a client reads the loaded items from the same nodes.
+ * Each node is fed through several connections, and each connection writes a batch of commands
+ * before reading their responses, so that the load is not bound by round trips.
+ * </p>
+ *
+ * <pre>{@code
+ * LoadReport report = ArcusBulkLoader.forCluster(cluster)
+ *                         .load(ArcusItemGenerator.builder().keyCount(1_000_000).build());
+ * }</pre>
+ */
+public final class ArcusBulkLoader {
+
+  private static final int MAX_ERROR_SAMPLES = 10;
+  private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(30);
+  private static final ArcusItem END_OF_ITEMS = ArcusItem.of("end-of-items", new byte[0]);
+
+  private final Map<String, InetSocketAddress> serversByNode;
+  private final KetamaNodeLocator locator;
+  private int connectionsPerNode = 2;
+  private int batchSize = 256;
+
+  private ArcusBulkLoader(Map<String, InetSocketAddress> serversByNode) {
+    this.serversByNode = serversByNode;
+    this.locator = new KetamaNodeLocator(serversByNode.keySet());
+  }
+
+  /**
+   * Creates a loader that shards the items over the cache nodes of a running cluster.
+   *
+   * @param cluster the running cluster to load.
+   * @return a new loader.
+   */
+  public static ArcusBulkLoader forCluster(ArcusClusterContainer cluster) {
+    return new ArcusBulkLoader(cluster.getNodeServersByRingAddress());
+  }
+
+  /**
+   * Creates a loader for a running standalone container.
+   *
+   * @param container the running container to load.
+   * @return a new loader.
+   */
+  public static ArcusBulkLoader forContainer(ArcusContainer container) {
+    InetSocketAddress server = InetSocketAddress.createUnresolved(container.getHost(),
+            container.getServerPort(container.getExposedPorts().get(0)));
+    return new ArcusBulkLoader(Collections.singletonMap("127.0.0.1:" + container.getFirstMappedPort(), server));
+  }
+
+  /**
+   * @param connectionsPerNode The number of connections to open to every node. Must be greater than 0.
+   * @return this loader.
+   * @throws IllegalArgumentException If the connectionsPerNode is smaller than or equal to 0.
+   */
+  public ArcusBulkLoader connectionsPerNode(int connectionsPerNode) {
+    if (connectionsPerNode <= 0) {
+      throw new IllegalArgumentException("Invalid connections per node.");
+    }
+    this.connectionsPerNode = connectionsPerNode;
+    return this;
+  }
+
+  /**
+   * @param batchSize The number of items written on a connection before their responses are read.
+   *                  Must be greater than 0.
+   * @return this loader.
+   * @throws IllegalArgumentException If the batchSize is smaller than or equal to 0.
+   */
+  public ArcusBulkLoader batchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size.");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  public LoadReport load(Iterable<ArcusItem> items) {
+    return load(items.iterator());
+  }
+
+  public LoadReport load(Stream<ArcusItem> items) {
+    return load(items.iterator());
+  }
+
+  /**
+   * Stores all items and waits until every response has been received.
+   * Failed commands are counted in the report instead of being thrown.
+   *
+   * @param items the items to store.
+   * @return the report of the run.
+   */
+  public LoadReport load(Iterator<ArcusItem> items) {
+    long start = System.nanoTime();
+    Run run = new Run();
+    Map<String, BlockingQueue<ArcusItem>> queues = new LinkedHashMap<>();
+    for (String node : serversByNode.keySet()) {
+      queues.put(node, new ArrayBlockingQueue<>(batchSize * connectionsPerNode * 2));
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(queues.size() * connectionsPerNode, r -> {
+      Thread thread = new Thread(r, "arcus-bulk-loader-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    List<Future<?>> workers = new ArrayList<>();
+    try {
+      for (Map.Entry<String, BlockingQueue<ArcusItem>> entry : queues.entrySet()) {
+        InetSocketAddress server = serversByNode.get(entry.getKey());
+        for (int i = 0; i < connectionsPerNode; i++) {
+          workers.add(executor.submit(() ->
+                  runWorker(server.getHostString(), server.getPort(), entry.getValue(), run)));
+        }
+      }
+
+      try {
+        while (items.hasNext()) {
+          ArcusItem item = items.next();
+          queues.get(locator.getPrimary(item.getKey())).put(item);
+          run.items.incrementAndGet();
+        }
+      } finally {
+        for (BlockingQueue<ArcusItem> queue : queues.values()) {
+          for (int i = 0; i < connectionsPerNode; i++) {
+            queue.put(END_OF_ITEMS);
+          }
+        }
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading items.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to load items.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return new LoadReport(run.items.get(), run.commands.get(), run.errors.get(),
+            Duration.ofNanos(System.nanoTime() - start), new ArrayList<>(run.errorSamples));
+  }
+
+  private void runWorker(String host, int port, BlockingQueue<ArcusItem> queue, Run run) {
+    AsciiConnection connection = null;
+    List<byte[]> batch = new ArrayList<>(batchSize);
+    boolean done = false;
+    try {
+      while (!done) {
+        batch.clear();
+        ArcusItem item = queue.take();
+        while (item != null) {
+          if (item == END_OF_ITEMS) {
+            done = true;
+            break;
+          }
+          try {
+            batch.addAll(item.toCommands());
+          } catch (RuntimeException e) {
+            run.error(item.getKey() + " " + e);
+          }
+          item = batch.size() < batchSize ? queue.poll() : null;
+        }
+        if (batch.isEmpty()) {
+          continue;
+        }
+
+        run.commands.addAndGet(batch.size());
+        int received = 0;
+        try {
+          if (connection == null) {
+            connection = AsciiConnection.open(host, port, COMMAND_TIMEOUT);
+          }
+          for (byte[] command : batch) {
+            connection.write(command);
+          }
+          connection.flush();
+          for (; received < batch.size(); received++) {
+            String response = connection.readLine();
+            if (!"STORED".equals(response) && !"CREATED_STORED".equals(response)) {
+              run.error(host + ":" + port + " " + response);
+            }
+          }
+        } catch (IOException | RuntimeException e) {
+          // the worker keeps draining its queue, so that the producer is never blocked by a full queue.
+          run.errors.addAndGet(batch.size() - received - 1);
+          run.error(host + ":" + port + " " + e);
+          connection = closeQuietly(connection);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeQuietly(connection);
+    }
+  }
+
+  private static AsciiConnection closeQuietly(AsciiConnection connection) {
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+    return null;
+  }
+
+  private static final class Run {
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final List<String> errorSamples = Collections.synchronizedList(new ArrayList<>());
+
+    private void error(String message) {
+      errors.incrementAndGet();
+      if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+        errorSamples.add(message);
+      }
+    }
+  }
+}
@@ -1,8 +1,42 @@
 package com.jam2in.arcus.testcontainers;
 
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateNetworkCmd;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.PortBinding;
+import com.github.dockerjava.api.model.Ports;
+
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import org.rnorth.ducttape.unreliables.Unreliables;
+import org.testcontainers.containers.Container;
 import org.testcontainers.containers.ContainerState;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
@@ -52,31 +86,194 @@ public class ArcusClusterContainer extends GenericContainer<ArcusClusterContaine
 
   private static final int DEFAULT_ZK_CONTAINER_PORT = 2181;
 
-  private static final String CREATE_CMD = "create";
-  private static final String ZK_CLI_PATH = "./bin/zkCli.sh";
+  /**
+   * The fault injection target naming the ZooKeeper server of the cluster, the first server of an ensemble.
+   */
+  public static final String ZOOKEEPER = "zoo1:" + DEFAULT_ZK_CONTAINER_PORT;
+
+  static final DockerImageName DEFAULT_ZK_IMAGE_NAME = DockerImageName.parse("zookeeper:3.5.9");
+
+  private static final Duration FAULT_TIMEOUT = Duration.ofSeconds(60);
+
   private static final String ZPATH_ARCUS = "/arcus";
   private static final String ZPATH_CACHE_LIST = ZPATH_ARCUS + "/cache_list";
   private static final String ZPATH_CLIENT_LIST = ZPATH_ARCUS + "/client_list";
   private static final String ZPATH_CACHE_SERVER_MAPPING = ZPATH_ARCUS + "/cache_server_mapping";
 
-  private final ZookeeperContainer zkContainer;
+  private static final String ZPATH_ARCUS_REPL = "/arcus_repl";
+  private static final String ZPATH_REPL_CACHE_LIST = ZPATH_ARCUS_REPL + "/cache_list";
+  private static final String ZPATH_REPL_CLIENT_LIST = ZPATH_ARCUS_REPL + "/client_list";
+  private static final String ZPATH_REPL_GROUP_LIST = ZPATH_ARCUS_REPL + "/group_list";
+  private static final String ZPATH_REPL_CACHE_SERVER_MAPPING = ZPATH_ARCUS_REPL + "/cache_server_mapping";
+
+  private static final int REPLICATION_PORT = 20125;
+
+  private static final String SINGLE_CONTAINER_HOST = "cache";
+
+  // the ZooKeeper servers and their log captures keyed by their address, such as zoo1:2181.
+  private final Map<String, ZookeeperContainer> zkContainers = new LinkedHashMap<>();
+  private final Map<String, LogCapture> zkLogCaptures = new LinkedHashMap<>();
+  private final int zkPort;
+  private final ArcusContainerProps props;
   private final String serviceCode;
+  private final int startupParallelism;
+  private final Duration readinessPollInterval;
+
+  private final DockerImageName imageName;
+  private final Network network;
+  private volatile Ipv4Subnet replicationSubnet;
+  private final String fingerprint;
+  // whether the containers of an earlier run were attached to, whose ZooKeeper already holds the znodes.
+  private final boolean reused;
+  private final Object resizeLock = new Object();
+  private final AtomicInteger nodeSequence = new AtomicInteger();
 
-  private final ArrayList<String> cacheNodes = new ArrayList<>();
-  private final ArrayList<ArcusContainer> containers = new ArrayList<>();
+  // copy on write, so that resizing a running cluster does not break the iterations of other threads.
+  private final List<String> cacheNodes = new CopyOnWriteArrayList<>();
+  private final List<ArcusContainer> containers = new CopyOnWriteArrayList<>();
+  private final Map<String, List<String>> extraServiceCodes = new ConcurrentHashMap<>();
+  private final Set<String> networkFaults = ConcurrentHashMap.newKeySet();
+  private final Map<String, NetworkProfile> networkProfiles = new ConcurrentHashMap<>();
+  private DockerImageName trafficControlImageName = TrafficControl.DEFAULT_IMAGE_NAME;
+
+  private Path snapshotDirectory;
+  private volatile StartupReport startupReport;
 
   private ArcusClusterContainer(DockerImageName imageName, ArcusContainerProps props) {
     super(imageName);
+    if (props.isReplicated() && imageName.getUnversionedPart()
+            .equals(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME.getUnversionedPart())) {
+      throw new IllegalArgumentException("Replication needs an arcus-memcached image built with replication enabled, "
+              + "which " + imageName + " is not.");
+    }
+
+    this.imageName = imageName;
+    this.fingerprint = ContainerReuse.isEnabled(props)
+            ? ContainerReuse.fingerprint("cluster", imageName, DEFAULT_ZK_IMAGE_NAME, props,
+                    ArcusContainer.buildContainerCommand(0, true, props))
+            : null;
+    List<String> reusedNodes = fingerprint != null ? findReusableNodes(fingerprint, props) : Collections.emptyList();
+    reusedNodes.forEach(address -> reservePort(ContainerReuse.port(address)));
+    this.reused = !reusedNodes.isEmpty();
+    this.zkPort = reusedNodes.isEmpty() ? getPort() : ContainerReuse.port(reusedNodes.remove(0));
 
-    final Network network = Network.newNetwork();
-    this.zkContainer = new ZookeeperContainer(network);
+    Consumer<CreateNetworkCmd> createNetworkCmdModifier = cmd -> { };
+    if (props.isReplicated()) {
+      // masters and slaves connect to each other by the address in their cache_server_mapping,
+      // so the nodes get fixed addresses from the lower half of a free subnet,
+      // and the addresses Docker assigns itself, such as to ZooKeeper, are kept to the upper half.
+      createNetworkCmdModifier = cmd -> {
+        Ipv4Subnet subnet = Ipv4Subnet.allocate();
+        cmd.withIpam(new com.github.dockerjava.api.model.Network.Ipam()
+                .withConfig(new com.github.dockerjava.api.model.Network.Ipam.Config()
+                        .withSubnet(subnet.toString())
+                        .withIpRange(subnet.upperHalf())));
+      };
+    }
+    if (fingerprint != null) {
+      this.network = new ContainerReuse.NamedNetwork(fingerprint, createNetworkCmdModifier);
+    } else if (props.isReplicated()) {
+      this.network = Network.builder().createNetworkCmdModifier(createNetworkCmdModifier).build();
+    } else {
+      this.network = Network.newNetwork();
+    }
+    List<String> zookeepers = zookeeperAddresses(props);
+    for (int i = 0; i < zookeepers.size(); i++) {
+      String address = zookeepers.get(i);
+      LogCapture logCapture = props.getLogCaptureSize() > 0
+              ? new LogCapture(address, props.getLogCaptureSize(), props.getLogRateLimit()) : null;
+      ZookeeperContainer zkContainer = new ZookeeperContainer(network, i + 1, i == 0 ? zkPort : getPort(),
+              props, logCapture);
+      if (fingerprint != null) {
+        ContainerReuse.mark(zkContainer, fingerprint, "zoo1:" + zkPort);
+      }
+      zkContainers.put(address, zkContainer);
+      if (logCapture != null) {
+        zkLogCaptures.put(address, logCapture);
+      }
+    }
+    this.props = props;
     this.serviceCode = props.getServiceCode();
+    this.startupParallelism = props.getStartupParallelism();
+    this.readinessPollInterval = props.getReadinessPollInterval();
 
+    if (props.isSingleContainer()) {
+      // every cache server of the container looks its port up under the same host name in the cache_server_mapping.
+      List<Integer> ports = new ArrayList<>();
+      for (int i = 0; i < props.getClusterSize(); i++) {
+        int port = getPort();
+        ports.add(port);
+        cacheNodes.add(SINGLE_CONTAINER_HOST + ":" + port);
+      }
+      containers.add(new ArcusContainer(imageName, SINGLE_CONTAINER_HOST, ports, network, props));
+      return;
+    }
     for (int i = 0; i < props.getClusterSize(); i++) {
-      String address = "cache" + (i + 1) + ":" + getPort();
+      String address;
+      if (reusedNodes.isEmpty()) {
+        address = "cache" + nodeSequence.incrementAndGet() + ":" + getPort();
+      } else {
+        address = reusedNodes.get(i);
+        nodeSequence.set(nodeNumber(address));
+      }
+      ArcusContainer container = newNodeContainer(address, i);
+      if (props.isReplicated()) {
+        int nodeIndex = i;
+        container.withIpv4Address(() -> replicationAddress(nodeIndex));
+      }
       cacheNodes.add(address);
-      containers.add(new ArcusContainer(imageName, address, network, props.getMemorySize()));
+      containers.add(container);
+    }
+  }
+
+  /**
+   * Finds the containers of a reusable cluster with the fingerprint, left running by an earlier run.
+   * The containers of an incomplete or resized cluster are removed, so that it is started from scratch.
+   * The host ports of the found containers are reserved again by the caller, as they are still published.
+   *
+   * @return the ZooKeeper address followed by the cache node addresses in node order,
+   * or an empty list if there is no complete cluster to attach to.
+   */
+  private static List<String> findReusableNodes(String fingerprint, ArcusContainerProps props) {
+    List<String> addresses = ContainerReuse.findAddresses(fingerprint);
+    List<String> zookeepers = new ArrayList<>();
+    List<String> nodes = new ArrayList<>();
+    for (String address : addresses) {
+      (address.startsWith("zoo1:") ? zookeepers : nodes).add(address);
+    }
+    if (zookeepers.size() != 1 || nodes.size() != props.getClusterSize()) {
+      if (!addresses.isEmpty()) {
+        ContainerReuse.removeAll(fingerprint);
+      }
+      return new ArrayList<>();
+    }
+    nodes.sort(Comparator.comparingInt(ArcusClusterContainer::nodeNumber));
+    List<String> reusable = new ArrayList<>(zookeepers);
+    reusable.addAll(nodes);
+    return reusable;
+  }
+
+  /**
+   * @return the addresses of the ZooKeeper servers in the network of the cluster, from {@code zoo1:2181} on.
+   */
+  static List<String> zookeeperAddresses(ArcusContainerProps props) {
+    List<String> addresses = new ArrayList<>();
+    for (int id = 1; id <= props.getZookeeperEnsembleSize(); id++) {
+      addresses.add("zoo" + id + ":" + DEFAULT_ZK_CONTAINER_PORT);
     }
+    return addresses;
+  }
+
+  private static int nodeNumber(String address) {
+    return Integer.parseInt(address.substring("cache".length(), address.indexOf(':')));
+  }
+
+  private ArcusContainer newNodeContainer(String address, int nodeIndex) {
+    ArcusContainer container = new ArcusContainer(imageName, address, network, props, nodeIndex);
+    if (fingerprint != null) {
+      ContainerReuse.mark(container, fingerprint, address);
+    }
+    return container;
   }
 
   /**
@@ -120,62 +317,1172 @@ public class ArcusClusterContainer extends GenericContainer<ArcusClusterContaine
     return new ArcusClusterContainer(imageName, props);
   }
 
+  /**
+   * Creates a new instance of ArcusClusterContainer with default image name,
+   * which is populated with the items of the snapshot when it is started.
+   *
+   * @param snapshotDirectory the directory written by {@link #snapshot(Path, Collection)}
+   * @return a new instance of {@link ArcusClusterContainer}
+   * @throws IOException if the snapshot cannot be read.
+   */
+  public static ArcusClusterContainer createFromSnapshot(Path snapshotDirectory) throws IOException {
+    return createFromSnapshot(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, snapshotDirectory);
+  }
+
+  /**
+   * Creates a new instance of ArcusClusterContainer with the given DockerImageName and the configuration
+   * of the snapshot, which is populated with the items of the snapshot when it is started.
+   *
+   * @param imageName         the DockerImageName for the container
+   * @param snapshotDirectory the directory written by {@link #snapshot(Path, Collection)}
+   * @return a new instance of {@link ArcusClusterContainer}
+   * @throws IOException if the snapshot cannot be read.
+   */
+  public static ArcusClusterContainer createFromSnapshot(DockerImageName imageName, Path snapshotDirectory)
+          throws IOException {
+    ArcusClusterContainer container = new ArcusClusterContainer(imageName,
+            ArcusClusterSnapshot.loadProps(snapshotDirectory));
+    container.snapshotDirectory = snapshotDirectory;
+    return container;
+  }
+
+  /**
+   * Saves the configuration of the cluster and the items of the given keys to a local directory,
+   * so that an identically populated cluster can be started later with {@link #createFromSnapshot(Path)}.
+   *
+   * <p>
+   * The cache nodes keep their items only in memory and cannot list their keys,
+   * so the keys of the dataset are given by the caller. Only key-value items are saved.
+   * The expiration times are not saved either: the items restored from the snapshot never expire.
+   * </p>
+   *
+   * @param directory the directory to write the snapshot to.
+   * @param keys      the keys of the items to save.
+   * @return the number of items saved. Keys not stored in the cluster and keys of collection items are skipped.
+   * @throws IOException if the items cannot be read or the snapshot cannot be written.
+   * @throws UnsupportedOperationException if the cluster is replicated or has a network profile.
+   */
+  public int snapshot(Path directory, Collection<String> keys) throws IOException {
+    requireBaseTopology("Snapshots");
+    return ArcusClusterSnapshot.save(this, props, directory, keys);
+  }
+
   /**
    * invoke for creating ArcusClientPool.
-   * @return a cluster zk host posts address.
+   * @return a cluster zk host posts address, listing every server of a ZooKeeper ensemble.
    */
   public String getHostPorts() {
-    return "127.0.0.1" + ":" + getFirstMappedPort();
+    List<String> hostPorts = new ArrayList<>();
+    for (ZookeeperContainer zkContainer : zkContainers.values()) {
+      hostPorts.add("127.0.0.1" + ":" + zkContainer.hostPort);
+    }
+    return String.join(",", hostPorts);
+  }
+
+  /**
+   * Returns the addresses of the ZooKeeper servers, which are fault injection targets like {@link #ZOOKEEPER}.
+   *
+   * @return the ZooKeeper server addresses, from {@code zoo1:2181} to {@code zooN:2181}.
+   */
+  public List<String> getZookeeperNodes() {
+    return Collections.unmodifiableList(new ArrayList<>(zkContainers.keySet()));
+  }
+
+  /**
+   * @return the address of the ZooKeeper server leading the ensemble, or of the single server,
+   *         or null while no leader is elected.
+   */
+  public String getZookeeperLeader() {
+    for (Map.Entry<String, ZookeeperContainer> entry : zkContainers.entrySet()) {
+      ZookeeperContainer zkContainer = entry.getValue();
+      String srvr;
+      try {
+        srvr = FourLetterWords.send(zkContainer.getHost(), zkContainer.hostPort, "srvr");
+      } catch (IOException e) {
+        // the server is down or paused.
+        continue;
+      }
+      if (srvr.contains("Mode: leader") || srvr.contains("Mode: standalone")) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the addresses of the cache nodes in the form of {@code host:port}.
+   *
+   * @return the cache node addresses.
+   */
+  public List<String> getCacheNodes() {
+    return Collections.unmodifiableList(cacheNodes);
+  }
+
+  /**
+   * Returns the address to connect to for each cache node, keyed by the node address as registered in the cache_list
+   * and used on the hash ring of the clients. A cache node binds the same port on the host and in the container.
+   * The address bypasses the traffic proxy of the node, see {@link ArcusContainer#getServerPort(int)}.
+   *
+   * @return the unresolved addresses of the cache nodes keyed by their ring address.
+   */
+  Map<String, InetSocketAddress> getNodeServersByRingAddress() {
+    requireBaseTopology("Routing items to cache nodes");
+    Map<String, InetSocketAddress> servers = new LinkedHashMap<>();
+    for (int i = 0; i < cacheNodes.size(); i++) {
+      String node = cacheNodes.get(i);
+      ArcusContainer container = containerOf(i);
+      servers.put("127.0.0.1" + node.substring(node.lastIndexOf(':')), InetSocketAddress.createUnresolved(
+              container.getHost(), container.getServerPort(ContainerReuse.port(node))));
+    }
+    return servers;
+  }
+
+  /**
+   * Returns the captured output of the cache nodes and ZooKeeper,
+   * if {@link ArcusContainerProps.Builder#logCapture(int)} is set.
+   *
+   * @return the log captures keyed by the cache node address or the ZooKeeper server address.
+   */
+  public Map<String, LogCapture> getLogCaptures() {
+    Map<String, LogCapture> captures = new LinkedHashMap<>();
+    getNodeContainers().forEach((node, container) ->
+            container.getLogCapture().ifPresent(capture -> captures.put(node, capture)));
+    captures.putAll(zkLogCaptures);
+    return captures;
+  }
+
+  /**
+   * Returns the files the traffic of the clients is recorded to, if
+   * {@link ArcusContainerProps.Builder#trafficCapture(Path)} is set. They are complete once the cluster is stopped,
+   * and can be given to {@link ArcusTrafficReplayer#replay(Collection)} in this order.
+   *
+   * @return the capture files keyed by the cache node address, in node order.
+   */
+  public Map<String, Path> getTrafficCaptures() {
+    Map<String, Path> captures = new LinkedHashMap<>();
+    if (props.getTrafficCaptureDirectory() != null) {
+      getNodeContainers().forEach((node, container) ->
+              captures.put(node, container.getTrafficCapture(ContainerReuse.port(node))));
+    }
+    return captures;
+  }
+
+  /**
+   * @return the recognized log lines of the cache nodes and ZooKeeper, oldest first.
+   */
+  public List<LogEvent> getLogEvents() {
+    List<LogEvent> events = new ArrayList<>();
+    getLogCaptures().values().forEach(capture -> events.addAll(capture.getEvents()));
+    events.sort(Comparator.comparing(LogEvent::getTimestamp));
+    return events;
+  }
+
+  /**
+   * Writes the captured output of the cache nodes and ZooKeeper to the directory, one file per container.
+   * It does nothing if logs are not captured.
+   *
+   * @param directory the directory to write to.
+   * @throws IOException if a file cannot be written.
+   */
+  public void dumpLogs(Path directory) throws IOException {
+    for (ArcusContainer container : containers) {
+      container.dumpLog(directory);
+    }
+    for (Map.Entry<String, LogCapture> entry : zkLogCaptures.entrySet()) {
+      entry.getValue().dump(directory.resolve(zookeeperLogFile(entry.getKey())));
+    }
+  }
+
+  private static String zookeeperLogFile(String address) {
+    return address.substring(0, address.indexOf(':')) + ".log";
+  }
+
+  Path getLogDirectory() {
+    return props.getLogDirectory();
+  }
+
+  /**
+   * @return the containers of the cache nodes keyed by their address, in node order.
+   * All nodes of a single container cluster map to the same container.
+   */
+  Map<String, ArcusContainer> getNodeContainers() {
+    Map<String, ArcusContainer> nodes = new LinkedHashMap<>();
+    for (int i = 0; i < cacheNodes.size(); i++) {
+      nodes.put(cacheNodes.get(i), containerOf(i));
+    }
+    return nodes;
+  }
+
+  /**
+   * Provisions a new service code served by the given cache nodes of the running cluster.
+   *
+   * <p>
+   * The cache_list and client_list znodes of the service code are created in a single zkCli session,
+   * and the cache_list lists the given nodes, so a client created with the service code only uses them.
+   * A cache node keeps a single key space, so use disjoint sets of nodes for service codes that
+   * must not see each other's keys. The cache_server_mapping of the nodes is left as it is,
+   * because a cache node reads it only on startup and expects exactly one service code there.
+   * </p>
+   *
+   * <p>
+   * The cache_list znodes of the service code are persistent, since they are not created by the cache nodes.
+   * They follow the nodes killed with {@link #kill(String)} and restarted with {@link #restart(String)},
+   * and the nodes removed with {@link #removeNode(String)}, but not a node that is paused
+   * or fails by itself, which its clients keep on their hash ring.
+   * </p>
+   *
+   * @param serviceCode the service code to provision.
+   * @param nodes       the cache node addresses from {@link #getCacheNodes()} to bind to the service code.
+   * @return a cluster zk host posts address for creating ArcusClientPool with the service code.
+   * @throws IllegalArgumentException If the service code is invalid or in use, or a node is not part of the cluster.
+   */
+  public String createServiceCode(String serviceCode, List<String> nodes) {
+    requireBaseTopology("Provisioning service codes");
+    if (serviceCode == null || serviceCode.isEmpty() || serviceCode.contains("/")) {
+      throw new IllegalArgumentException("Invalid service code.");
+    }
+    if (nodes.isEmpty() || !cacheNodes.containsAll(nodes)) {
+      throw new IllegalArgumentException("Invalid cache nodes: " + nodes);
+    }
+    List<String> boundNodes = new ArrayList<>(nodes);
+    if (serviceCode.equals(this.serviceCode) || extraServiceCodes.putIfAbsent(serviceCode, boundNodes) != null) {
+      throw new IllegalArgumentException("Service code already exists: " + serviceCode);
+    }
+
+    ZkCliScript script = new ZkCliScript().create(ZPATH_CLIENT_LIST + "/" + serviceCode);
+    for (String node : boundNodes) {
+      script.create(extraCacheListPath(serviceCode, node));
+    }
+    try {
+      execZkCli(script);
+    } catch (RuntimeException e) {
+      extraServiceCodes.remove(serviceCode);
+      throw e;
+    }
+    return getHostPorts();
+  }
+
+  /**
+   * @return the cache_list znode of a cache node under a service code provisioned at runtime.
+   */
+  private static String extraCacheListPath(String serviceCode, String node) {
+    String[] hostPort = node.split(":");
+    return ZPATH_CACHE_LIST + "/" + serviceCode + "/127.0.0.1:" + hostPort[1] + "-" + hostPort[0];
+  }
+
+  /**
+   * Deletes or creates again the cache_list znodes of a cache node under the service codes provisioned at runtime,
+   * so that their clients drop a killed node and add it back once it is restarted, like those of the cluster.
+   * The znodes of a node restarted without being killed still exist, and are left as they are.
+   */
+  private void updateExtraServiceCodes(String node, boolean registered) {
+    ZkCliScript script = new ZkCliScript();
+    boolean bound = false;
+    for (Map.Entry<String, List<String>> entry : extraServiceCodes.entrySet()) {
+      if (entry.getValue().contains(node)) {
+        bound = true;
+        if (registered) {
+          script.create(extraCacheListPath(entry.getKey(), node));
+        } else {
+          script.deleteAll(extraCacheListPath(entry.getKey(), node));
+        }
+      }
+    }
+    if (bound) {
+      execZkCli(script);
+    }
+  }
+
+  /**
+   * Removes a service code provisioned by {@link #createServiceCode(String, List)}.
+   * The data stored through the service code stays on the cache nodes.
+   *
+   * @param serviceCode the service code to remove.
+   * @throws IllegalArgumentException If the service code was not provisioned at runtime.
+   */
+  public void deleteServiceCode(String serviceCode) {
+    if (extraServiceCodes.remove(serviceCode) == null) {
+      throw new IllegalArgumentException("Unknown service code: " + serviceCode);
+    }
+    execZkCli(new ZkCliScript()
+            .deleteAll(ZPATH_CACHE_LIST + "/" + serviceCode)
+            .deleteAll(ZPATH_CLIENT_LIST + "/" + serviceCode));
   }
 
   @Override
   public Integer getFirstMappedPort() {
-    return zkContainer.getFirstMappedPort();
+    return zkContainers.get(ZOOKEEPER).getFirstMappedPort();
   }
 
   @Override
   public void start() {
-    zkContainer.start();
-    try {
-      createZnode();
-    } catch (IOException | InterruptedException e) {
-      throw new RuntimeException(e);
+    StartupTimer timer = new StartupTimer();
+    timer.begin();
+    startZookeepers();
+    timer.end(StartupReport.Phase.ZOOKEEPER_START);
+    if (reused) {
+      verifyZnodes();
+    } else {
+      bootstrapZnodes();
+    }
+    timer.end(StartupReport.Phase.ZNODE_BOOTSTRAP);
+    startNodes();
+    timer.end(StartupReport.Phase.CACHE_NODES_START);
+    runOnNodesOrThrow("shape the network of", container -> {
+      int index = containers.indexOf(container);
+      NetworkProfile profile = props.getNetworkProfile(index);
+      if (profile != null) {
+        TrafficControl.apply(trafficControlImageName, container.getContainerId(), profile);
+        nodesOf(index).forEach(node -> networkProfiles.put(node, profile));
+      }
+    });
+    timer.end(StartupReport.Phase.NETWORK_SHAPING);
+    new CacheListWaitStrategy(cacheListPath(), cacheNodes)
+            .withPollInterval(readinessPollInterval)
+            .waitUntilReady(zookeeper());
+    timer.end(StartupReport.Phase.CACHE_LIST_WAIT);
+
+    if (snapshotDirectory != null) {
+      LoadReport report;
+      try {
+        report = ArcusClusterSnapshot.restore(this, snapshotDirectory);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to restore the snapshot in " + snapshotDirectory + ".", e);
+      }
+      if (report.getErrors() > 0) {
+        throw new RuntimeException("Failed to restore " + report.getErrors() + " items of the snapshot in "
+                + snapshotDirectory + ": " + report.getErrorSamples());
+      }
+      timer.end(StartupReport.Phase.SNAPSHOT_RESTORE);
+    }
+
+    Map<String, StartupReport> reports = new LinkedHashMap<>();
+    zkContainers.forEach((address, zkContainer) -> {
+      if (zkContainer.startupReport != null) {
+        reports.put(address, zkContainer.startupReport);
+      }
+    });
+    for (int i = 0; i < containers.size(); i++) {
+      String address = props.isSingleContainer() ? SINGLE_CONTAINER_HOST : cacheNodes.get(i);
+      containers.get(i).getStartupReport().ifPresent(report -> reports.put(address, report));
+    }
+    startupReport = timer.finish(reports);
+    logger().debug("Started {}", startupReport);
+  }
+
+  /**
+   * @return the time spent in each step of the last start and in the phases of every container,
+   *         once the cluster has started.
+   */
+  public Optional<StartupReport> getStartupReport() {
+    return Optional.ofNullable(startupReport);
+  }
+
+  /**
+   * Starts the ZooKeeper servers and shapes their network.
+   * The servers of an ensemble serve requests only once a quorum of them has started, so they are started together.
+   */
+  private void startZookeepers() {
+    if (zkContainers.size() == 1) {
+      zkContainers.get(ZOOKEEPER).start();
+    } else {
+      try {
+        ArcusStartables.startAll(ArcusStartables.DEFAULT_EXECUTOR, zkContainers.values()).join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+    NetworkProfile profile = props.getZookeeperNetworkProfile();
+    if (profile != null) {
+      zkContainers.forEach((address, zkContainer) -> shape(address, zkContainer, profile));
     }
-    containers.forEach(ArcusContainer::start);
   }
 
   @Override
   public boolean isRunning() {
-    return containers.stream().allMatch(ContainerState::isRunning) && zkContainer.isRunning();
+    return containers.stream().allMatch(ContainerState::isRunning)
+            && zkContainers.values().stream().allMatch(ContainerState::isRunning);
   }
 
   @Override
   public void stop() {
-    containers.forEach(ArcusContainer::stop);
-    zkContainer.stop();
+    try {
+      runOnNodesOrThrow("stop", ArcusContainer::stop);
+    } finally {
+      stopZookeepers();
+    }
+  }
+
+  /**
+   * Stops every ZooKeeper server, even if stopping another one failed, and writes their captured logs.
+   * A reusable server is kept running, and its host port stays reserved.
+   */
+  private void stopZookeepers() {
+    RuntimeException failure = null;
+    for (Map.Entry<String, ZookeeperContainer> entry : zkContainers.entrySet()) {
+      ZookeeperContainer zkContainer = entry.getValue();
+      try {
+        if (!zkContainer.isShouldBeReused()) {
+          zkContainer.stop();
+        }
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      } finally {
+        if (!zkContainer.isShouldBeReused()) {
+          releasePort(zkContainer.hostPort);
+        }
+        LogCapture logCapture = zkLogCaptures.get(entry.getKey());
+        if (logCapture != null) {
+          try {
+            logCapture.dump(props.getLogDirectory().resolve(zookeeperLogFile(entry.getKey())));
+          } catch (IOException e) {
+            // a log that cannot be written must not fail the stop.
+          }
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Starts the cluster on a new daemon thread.
+   *
+   * @return a future completed with this cluster once it serves requests.
+   * @see ArcusStartables
+   */
+  public CompletableFuture<ArcusClusterContainer> startAsync() {
+    return startAsync(ArcusStartables.DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Starts the cluster on the executor.
+   *
+   * @param executor the executor running the start.
+   * @return a future completed with this cluster once it serves requests.
+   */
+  public CompletableFuture<ArcusClusterContainer> startAsync(Executor executor) {
+    return ArcusStartables.start(this, executor);
+  }
+
+  /**
+   * Stops the cluster on a new daemon thread.
+   *
+   * @return a future completed once the cluster is stopped.
+   */
+  public CompletableFuture<Void> stopAsync() {
+    return stopAsync(ArcusStartables.DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Stops the cluster on the executor.
+   *
+   * @param executor the executor running the stop.
+   * @return a future completed once the cluster is stopped.
+   */
+  public CompletableFuture<Void> stopAsync(Executor executor) {
+    return ArcusStartables.stop(this, executor);
   }
 
   @Override
   public boolean isCreated() {
-    return containers.stream().allMatch(ContainerState::isCreated) && zkContainer.isCreated();
+    return containers.stream().allMatch(ContainerState::isCreated)
+            && zkContainers.values().stream().allMatch(ContainerState::isCreated);
   }
 
   @Override
   public boolean isHealthy() {
-    return containers.stream().allMatch(ContainerState::isHealthy) && zkContainer.isHealthy();
+    return containers.stream().allMatch(ContainerState::isHealthy)
+            && zkContainers.values().stream().allMatch(ContainerState::isHealthy);
+  }
+
+  /**
+   * Removes all items stored in the cache nodes, sending the command to all nodes in parallel.
+   */
+  public void flushAll() {
+    runOnNodesOrThrow("flush", ArcusContainer::flushAll);
+  }
+
+  /**
+   * Removes all items stored in the cache nodes and resets their statistics counters,
+   * sending the commands to all nodes in parallel.
+   */
+  public void reset() {
+    runOnNodesOrThrow("reset", ArcusContainer::reset);
   }
 
-  private void createZnode() throws IOException, InterruptedException {
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_ARCUS);
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CACHE_LIST);
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CACHE_LIST + "/" + serviceCode);
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CLIENT_LIST);
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CLIENT_LIST + "/" + serviceCode);
-    zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CACHE_SERVER_MAPPING);
+  /**
+   * Adds a cache node to the running cluster.
+   * The node is mapped to the service code under the cache_server_mapping before it is started,
+   * so it registers itself in the cache_list and the clients add it to their hash ring.
+   *
+   * @return the report of the operation, converged once the cache_list lists exactly the new nodes.
+   */
+  public ResizeReport addNode() {
+    requireBaseTopology("Resizing");
+    requireNodeContainers("Resizing");
+    synchronized (resizeLock) {
+      Instant requestedAt = Instant.now();
+      int index = nodeSequence.incrementAndGet();
+      String address = "cache" + index + ":" + getPort();
+      List<String> before = new ArrayList<>(cacheNodes);
+      List<String> after = new ArrayList<>(before);
+      after.add(address);
+
+      ArcusContainer container = newNodeContainer(address, index - 1);
+      try {
+        execZkCli(new ZkCliScript().create(ZPATH_CACHE_SERVER_MAPPING + "/" + address + "/" + serviceCode));
+        container.start();
+        NetworkProfile profile = props.getNetworkProfile(index - 1);
+        if (profile != null) {
+          shape(address, container, profile);
+        }
+      } catch (RuntimeException e) {
+        container.stop();
+        networkProfiles.remove(address);
+        execZkCli(new ZkCliScript().deleteAll(ZPATH_CACHE_SERVER_MAPPING + "/" + address));
+        throw e;
+      }
+      containers.add(container);
+      cacheNodes.add(address);
 
-    for (String nodeAddr : cacheNodes) {
-      zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CACHE_SERVER_MAPPING + "/" + nodeAddr);
-      zkContainer.execInContainer(ZK_CLI_PATH, CREATE_CMD, ZPATH_CACHE_SERVER_MAPPING + "/" + nodeAddr + "/" + serviceCode);
+      Instant convergedAt = waitForCacheList(after);
+      return new ResizeReport(ResizeReport.Operation.ADD, address, after, movedKeyRatio(before, after),
+              requestedAt, convergedAt, Instant.now());
+    }
+  }
+
+  /**
+   * Removes a cache node from the running cluster after draining it.
+   * The node is unmapped and its cache_list znode deleted first, so the clients drop it from their hash ring
+   * while it still answers in-flight requests, and it is stopped once the cache_list has converged.
+   * The node is also removed from the service codes provisioned with {@link #createServiceCode(String, List)}.
+   *
+   * @param address the cache node address of {@link #getCacheNodes()}.
+   * @return the report of the operation, converged once the cache_list lists exactly the remaining nodes.
+   * @throws IllegalArgumentException If the node is not part of the cluster or is its last node.
+   */
+  public ResizeReport removeNode(String address) {
+    requireBaseTopology("Resizing");
+    requireNodeContainers("Resizing");
+    synchronized (resizeLock) {
+      Instant requestedAt = Instant.now();
+      int index = cacheNodes.indexOf(address);
+      if (index < 0) {
+        throw new IllegalArgumentException("Unknown cache node: " + address);
+      }
+      if (cacheNodes.size() == 1) {
+        throw new IllegalArgumentException("Cannot remove the last cache node: " + address);
+      }
+      List<String> before = new ArrayList<>(cacheNodes);
+      List<String> after = new ArrayList<>(before);
+      after.remove(address);
+      ArcusContainer container = containers.get(index);
+
+      String[] hostPort = address.split(":");
+      String cacheListPrefix = ZPATH_CACHE_LIST + "/" + serviceCode + "/";
+      ZkCliScript script = new ZkCliScript().deleteAll(ZPATH_CACHE_SERVER_MAPPING + "/" + address);
+      for (String child : execZkCli(new ZkCliScript().ls(ZPATH_CACHE_LIST + "/" + serviceCode))
+              .replaceAll("[\\[\\],]", " ").split("\\s+")) {
+        if (child.startsWith("127.0.0.1:" + hostPort[1] + "-")) {
+          script.deleteAll(cacheListPrefix + child);
+        }
+      }
+      for (Map.Entry<String, List<String>> entry : extraServiceCodes.entrySet()) {
+        if (entry.getValue().contains(address)) {
+          script.deleteAll(extraCacheListPath(entry.getKey(), address));
+          List<String> nodes = new ArrayList<>(entry.getValue());
+          nodes.remove(address);
+          entry.setValue(nodes);
+        }
+      }
+      execZkCli(script);
+      containers.remove(index);
+      cacheNodes.remove(index);
+      networkProfiles.remove(address);
+      networkFaults.remove(address);
+
+      Instant convergedAt = waitForCacheList(after);
+      // a drained node is removed even from a reusable cluster, which is then started from scratch next time.
+      container.withReuse(false);
+      container.stop();
+      return new ResizeReport(ResizeReport.Operation.REMOVE, address, after, movedKeyRatio(before, after),
+              requestedAt, convergedAt, Instant.now());
+    }
+  }
+
+  /**
+   * Switches the master of a replication group over to one of its slaves,
+   * with the {@code replication switchover} command of the current master,
+   * and waits until the new master has registered itself in the cache_list.
+   *
+   * @param group the replication group, from {@code g0} to {@code g<replicationGroups - 1>}.
+   * @return the timeline with the {@code REQUESTED} and {@code SWITCHED_OVER} transitions.
+   * @throws IllegalArgumentException If the group does not exist.
+   * @throws UnsupportedOperationException If the cluster is not replicated.
+   */
+  public FaultTimeline switchover(String group) {
+    if (!props.isReplicated()) {
+      throw new UnsupportedOperationException("Switchover needs a replicated cluster.");
+    }
+    if (!getReplicationGroups().contains(group)) {
+      throw new IllegalArgumentException("Unknown replication group: " + group);
+    }
+    String master = findMaster(group);
+    if (master == null) {
+      throw new IllegalStateException("No master is registered for the replication group " + group + ".");
+    }
+    FaultTimeline timeline = new FaultTimeline(group);
+    String response = containers.get(cacheNodes.indexOf(master)).sendCommand("replication switchover");
+    if (response == null || response.contains("ERROR")) {
+      throw new RuntimeException("Failed to switch over " + group + ": " + response);
+    }
+    Unreliables.retryUntilTrue((int) FAULT_TIMEOUT.getSeconds(), TimeUnit.SECONDS, () -> {
+      String current = findMaster(group);
+      if (current != null && !current.equals(master)) {
+        return true;
+      }
+      Thread.sleep(readinessPollInterval.toMillis());
+      return false;
+    });
+    return timeline.record(FaultTimeline.Transition.SWITCHED_OVER);
+  }
+
+  /**
+   * @return the replication groups of a replicated cluster in the order of their nodes, or an empty list.
+   */
+  public List<String> getReplicationGroups() {
+    List<String> groups = new ArrayList<>();
+    for (int i = 0; i < props.getReplicationGroups(); i++) {
+      groups.add("g" + i);
+    }
+    return groups;
+  }
+
+  /**
+   * Returns the cache nodes of a replication group. The first node is registered as the master on startup.
+   *
+   * @param group the replication group.
+   * @return the cache node addresses of the group.
+   */
+  public List<String> getReplicationGroupNodes(String group) {
+    int index = getReplicationGroups().indexOf(group);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown replication group: " + group);
+    }
+    int replicas = props.getReplicasPerGroup();
+    return Collections.unmodifiableList(new ArrayList<>(cacheNodes.subList(index * replicas, (index + 1) * replicas)));
+  }
+
+  /**
+   * @return the cache node currently registered as the master of the group, or null if there is none.
+   */
+  private String findMaster(String group) {
+    String dump;
+    try {
+      GenericContainer<?> zkContainer = zookeeper();
+      dump = FourLetterWords.send(zkContainer.getHost(), zkContainer.getFirstMappedPort(), "dump");
+    } catch (IOException e) {
+      return null;
+    }
+    String prefix = ZPATH_REPL_CACHE_LIST + "/" + serviceCode + "/" + group + "^M^";
+    for (String line : dump.split("\n")) {
+      String path = line.trim();
+      if (!path.startsWith(prefix)) {
+        continue;
+      }
+      for (String node : getReplicationGroupNodes(group)) {
+        String port = node.substring(node.lastIndexOf(':'));
+        if (path.contains(port + "^") || path.contains(port + "-")) {
+          return node;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the fixed address of the cache node on the network of a replicated cluster,
+   *         in the subnet the network was created with, also when it was left running by an earlier run.
+   */
+  private String replicationAddress(int nodeIndex) {
+    if (replicationSubnet == null) {
+      replicationSubnet = Ipv4Subnet.of(network.getId());
+    }
+    return replicationSubnet.address(10 + nodeIndex);
+  }
+
+  private String cacheListPath() {
+    return (props.isReplicated() ? ZPATH_REPL_CACHE_LIST : ZPATH_CACHE_LIST) + "/" + serviceCode;
+  }
+
+  private void requireBaseTopology(String operation) {
+    if (props.isReplicated()) {
+      throw new UnsupportedOperationException(operation + " is not supported on a replicated cluster.");
+    }
+  }
+
+  private void requireNodeContainers(String operation) {
+    if (props.isSingleContainer()) {
+      throw new UnsupportedOperationException(operation + " is not supported in the single container mode.");
+    }
+  }
+
+  /**
+   * @return the container running the cache node of the index.
+   */
+  private ArcusContainer containerOf(int nodeIndex) {
+    return props.isSingleContainer() ? containers.get(0) : containers.get(nodeIndex);
+  }
+
+  /**
+   * @return the cache nodes running in the container of the index.
+   */
+  private List<String> nodesOf(int containerIndex) {
+    return props.isSingleContainer()
+            ? new ArrayList<>(cacheNodes) : Collections.singletonList(cacheNodes.get(containerIndex));
+  }
+
+  /**
+   * Waits until the cache_list lists exactly the nodes, as explained in {@link ResizeReport#getConvergedAt()}.
+   */
+  private Instant waitForCacheList(List<String> nodes) {
+    new CacheListWaitStrategy(ZPATH_CACHE_LIST + "/" + serviceCode, nodes)
+            .exactly()
+            .withPollInterval(readinessPollInterval)
+            .waitUntilReady(zookeeper());
+    return Instant.now();
+  }
+
+  private static double movedKeyRatio(List<String> before, List<String> after) {
+    return KetamaNodeLocator.movedRatio(new KetamaNodeLocator(toRingAddresses(before)),
+            new KetamaNodeLocator(toRingAddresses(after)));
+  }
+
+  private static List<String> toRingAddresses(List<String> nodes) {
+    List<String> addresses = new ArrayList<>();
+    for (String node : nodes) {
+      addresses.add("127.0.0.1" + node.substring(node.lastIndexOf(':')));
+    }
+    return addresses;
+  }
+
+  /**
+   * Changes the network conditions of a running cache node or ZooKeeper, replacing its profile
+   * and any network fault injected before. The profile is applied again after a restart of the target.
+   *
+   * @param target  a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @param profile the network conditions to apply.
+   * @throws IllegalArgumentException If the profile is null.
+   */
+  public void applyNetworkProfile(String target, NetworkProfile profile) {
+    if (profile == null) {
+      throw new IllegalArgumentException("Invalid network profile.");
+    }
+    shape(target, resolveTarget(target), profile);
+    networkFaults.remove(target);
+  }
+
+  /**
+   * Removes the network profile of a cache node or ZooKeeper, so that its packets are sent as they are.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   */
+  public void clearNetworkProfile(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    if (networkProfiles.remove(target) != null && !networkFaults.contains(target)) {
+      TrafficControl.clear(trafficControlImageName, container.getContainerId());
+    }
+  }
+
+  /**
+   * @return the network profiles currently applied, keyed by the cache node address or {@link #ZOOKEEPER}.
+   */
+  public Map<String, NetworkProfile> getNetworkProfiles() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(networkProfiles));
+  }
+
+  private void shape(String target, GenericContainer<?> container, NetworkProfile profile) {
+    TrafficControl.apply(trafficControlImageName, container.getContainerId(), profile);
+    networkProfiles.put(target, profile);
+  }
+
+  /**
+   * Sets the image providing {@code tc} for {@link #injectNetworkFault}, {@link #clearNetworkFault}
+   * and the network profiles.
+   *
+   * @param imageName the DockerImageName of an image with {@code tc} on its path.
+   * @return this cluster.
+   */
+  public ArcusClusterContainer withTrafficControlImage(DockerImageName imageName) {
+    this.trafficControlImageName = Objects.requireNonNull(imageName);
+    return this;
+  }
+
+  /**
+   * Kills a cache node or ZooKeeper with SIGKILL, like a crash of the host.
+   * The target stays down until it is restarted with {@link #restart(String)}.
+   * A killed cache node is also dropped from the service codes provisioned with {@link #createServiceCode}.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @return the timeline with the {@code REQUESTED} and {@code KILLED} transitions.
+   */
+  public FaultTimeline kill(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    DockerClient client = container.getDockerClient();
+    client.killContainerCmd(container.getContainerId()).exec();
+    Unreliables.retryUntilTrue((int) FAULT_TIMEOUT.getSeconds(), TimeUnit.SECONDS, () -> {
+      if (!Boolean.TRUE.equals(client.inspectContainerCmd(container.getContainerId()).exec().getState().getRunning())) {
+        return true;
+      }
+      Thread.sleep(readinessPollInterval.toMillis());
+      return false;
+    });
+    timeline.record(FaultTimeline.Transition.KILLED);
+    if (cacheNodes.contains(target)) {
+      updateExtraServiceCodes(target, false);
+    }
+    return timeline;
+  }
+
+  /**
+   * Kills the leader of the ZooKeeper ensemble with SIGKILL and waits until the other servers have elected a new one,
+   * to measure how quickly the cache nodes and clients recover their sessions.
+   * The killed server stays down until it is restarted with {@link #restart(String)}, and rejoins as a follower.
+   *
+   * @return the timeline of the killed server with the {@code REQUESTED}, {@code KILLED}
+   *         and {@code LEADER_ELECTED} transitions.
+   * @throws UnsupportedOperationException If ZooKeeper is a single server.
+   * @throws IllegalStateException If no leader is elected.
+   */
+  public FaultTimeline killZookeeperLeader() {
+    if (zkContainers.size() == 1) {
+      throw new UnsupportedOperationException("Killing the leader needs a ZooKeeper ensemble.");
+    }
+    String leader = getZookeeperLeader();
+    if (leader == null) {
+      throw new IllegalStateException("No ZooKeeper leader is elected.");
+    }
+    FaultTimeline timeline = kill(leader);
+    Unreliables.retryUntilTrue((int) FAULT_TIMEOUT.getSeconds(), TimeUnit.SECONDS, () -> {
+      String current = getZookeeperLeader();
+      if (current != null && !current.equals(leader)) {
+        return true;
+      }
+      Thread.sleep(readinessPollInterval.toMillis());
+      return false;
+    });
+    return timeline.record(FaultTimeline.Transition.LEADER_ELECTED);
+  }
+
+  /**
+   * Freezes all processes of a cache node or ZooKeeper, like a long GC pause or a stalled host.
+   * Its connections stay open but nothing is answered until {@link #unpause(String)}.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @return the timeline with the {@code REQUESTED} and {@code PAUSED} transitions.
+   */
+  public FaultTimeline pause(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    container.getDockerClient().pauseContainerCmd(container.getContainerId()).exec();
+    return timeline.record(FaultTimeline.Transition.PAUSED);
+  }
+
+  /**
+   * Thaws a target frozen by {@link #pause(String)} and waits until it serves requests.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @return the timeline with the {@code REQUESTED}, {@code UNPAUSED} and {@code READY} transitions.
+   */
+  public FaultTimeline unpause(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    container.getDockerClient().unpauseContainerCmd(container.getContainerId()).exec();
+    timeline.record(FaultTimeline.Transition.UNPAUSED);
+    waitUntilReady(target, container);
+    return timeline.record(FaultTimeline.Transition.READY);
+  }
+
+  /**
+   * Restarts a cache node or ZooKeeper, also one that was killed, and waits until it serves requests.
+   * The target keeps its host port and gets its network profile again.
+   * A restarted cache node is empty and registers itself in the cache_list again,
+   * and is listed again under the service codes provisioned with {@link #createServiceCode}.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @return the timeline with the {@code REQUESTED}, {@code RESTARTED} and {@code READY} transitions.
+   */
+  public FaultTimeline restart(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    container.getDockerClient().restartContainerCmd(container.getContainerId()).withTimeout(0).exec();
+    timeline.record(FaultTimeline.Transition.RESTARTED);
+    // the restarted container has a new network namespace, without the rules of the old one.
+    networkFaults.remove(target);
+    NetworkProfile profile = networkProfiles.get(target);
+    if (profile != null) {
+      TrafficControl.apply(trafficControlImageName, container.getContainerId(), profile);
+    }
+    waitUntilReady(target, container);
+    if (cacheNodes.contains(target)) {
+      updateExtraServiceCodes(target, true);
+    }
+    return timeline.record(FaultTimeline.Transition.READY);
+  }
+
+  /**
+   * Delays and drops the packets sent by a cache node or ZooKeeper with netem.
+   * The rules are installed by a sidecar container sharing the network namespace of the target,
+   * and replace a network fault injected before and the network profile of the target until the fault is cleared.
+   *
+   * @param target      a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @param delay       the delay added to every packet. Must not be negative.
+   * @param lossPercent the percentage of packets dropped, from 0 to 100.
+   * @return the timeline with the {@code REQUESTED} and {@code NETWORK_FAULT_APPLIED} transitions.
+   * @throws IllegalArgumentException If the delay or loss percentage is out of range.
+   */
+  public FaultTimeline injectNetworkFault(String target, Duration delay, double lossPercent) {
+    if (delay == null || delay.isNegative()) {
+      throw new IllegalArgumentException("Invalid delay.");
+    }
+    if (lossPercent < 0 || lossPercent > 100) {
+      throw new IllegalArgumentException("Invalid loss percent.");
+    }
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    TrafficControl.applyNetem(trafficControlImageName, container.getContainerId(), delay, lossPercent);
+    networkFaults.add(target);
+    return timeline.record(FaultTimeline.Transition.NETWORK_FAULT_APPLIED);
+  }
+
+  /**
+   * Removes the network fault injected into a cache node or ZooKeeper, and applies its network profile again.
+   *
+   * @param target a cache node address of {@link #getCacheNodes()} or {@link #ZOOKEEPER}.
+   * @return the timeline with the {@code REQUESTED} and {@code NETWORK_FAULT_CLEARED} transitions.
+   */
+  public FaultTimeline clearNetworkFault(String target) {
+    GenericContainer<?> container = resolveTarget(target);
+    FaultTimeline timeline = new FaultTimeline(target);
+    if (networkFaults.remove(target)) {
+      NetworkProfile profile = networkProfiles.get(target);
+      if (profile != null) {
+        TrafficControl.apply(trafficControlImageName, container.getContainerId(), profile);
+      } else {
+        TrafficControl.clear(trafficControlImageName, container.getContainerId());
+      }
+    }
+    return timeline.record(FaultTimeline.Transition.NETWORK_FAULT_CLEARED);
+  }
+
+  private GenericContainer<?> resolveTarget(String target) {
+    ZookeeperContainer zkContainer = zkContainers.get(target);
+    if (zkContainer != null) {
+      return zkContainer;
+    }
+    int index = cacheNodes.indexOf(target);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown fault injection target: " + target);
+    }
+    requireNodeContainers("Fault injection into a cache node");
+    return containers.get(index);
+  }
+
+  private void waitUntilReady(String target, GenericContainer<?> container) {
+    if (zkContainers.containsKey(target)) {
+      new ZookeeperWaitStrategy().withPollInterval(readinessPollInterval)
+              .withStartupTimeout(FAULT_TIMEOUT).waitUntilReady(container);
+    } else {
+      new MemcachedWaitStrategy().withPollInterval(readinessPollInterval)
+              .withStartupTimeout(FAULT_TIMEOUT).waitUntilReady(container);
+    }
+  }
+
+  /**
+   * Starts all cache nodes with the configured parallelism and waits for them together.
+   * If any node fails to start, the nodes that were started are stopped again.
+   */
+  private void startNodes() {
+    List<Throwable> causes = new ArrayList<>();
+    List<String> failedNodes = runOnNodes(ArcusContainer::start, causes);
+    if (failedNodes.isEmpty()) {
+      return;
+    }
+
+    for (int i = 0; i < containers.size(); i++) {
+      List<String> nodes = nodesOf(i);
+      if (failedNodes.containsAll(nodes)) {
+        nodes.forEach(node -> releasePort(Integer.parseInt(node.split(":")[1])));
+      } else {
+        containers.get(i).stop();
+      }
+    }
+    RuntimeException e = new RuntimeException("Failed to start cache nodes " + failedNodes + ".", causes.get(0));
+    causes.stream().skip(1).forEach(e::addSuppressed);
+    throw e;
+  }
+
+  private void runOnNodesOrThrow(String action, Consumer<ArcusContainer> task) {
+    List<Throwable> causes = new ArrayList<>();
+    List<String> failedNodes = runOnNodes(task, causes);
+    if (!failedNodes.isEmpty()) {
+      RuntimeException e = new RuntimeException("Failed to " + action + " cache nodes " + failedNodes + ".",
+              causes.get(0));
+      causes.stream().skip(1).forEach(e::addSuppressed);
+      throw e;
+    }
+  }
+
+  /**
+   * Runs the task on every cache node using at most {@code startupParallelism} threads.
+   *
+   * @param task   the task to run on each node.
+   * @param causes the list the failures are collected into.
+   * @return the addresses of the nodes the task failed on, in node order.
+   */
+  private List<String> runOnNodes(Consumer<ArcusContainer> task, List<Throwable> causes) {
+    List<String> failedNodes = new ArrayList<>();
+    if (startupParallelism <= 1 || containers.size() <= 1) {
+      for (int i = 0; i < containers.size(); i++) {
+        try {
+          task.accept(containers.get(i));
+        } catch (RuntimeException e) {
+          failedNodes.addAll(nodesOf(i));
+          causes.add(e);
+        }
+      }
+      return failedNodes;
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(startupParallelism, containers.size()), r -> {
+      Thread thread = new Thread(r, "arcus-cluster-node-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (ArcusContainer container : containers) {
+        futures.add(executor.submit(() -> task.accept(container)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (ExecutionException e) {
+          failedNodes.addAll(nodesOf(i));
+          causes.add(e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+    return failedNodes;
+  }
+
+  /**
+   * Creates the cache_list, client_list and cache_server_mapping znodes of the cluster in a single zkCli session.
+   * Znodes that already exist are left untouched, so calling it again is a no-op.
+   */
+  void bootstrapZnodes() {
+    ZkCliScript script = new ZkCliScript();
+    znodePaths().forEach(script::create);
+    execZkCli(script);
+  }
+
+  /**
+   * Checks that the znodes {@link #bootstrapZnodes()} creates exist, instead of creating them again,
+   * when the containers of an earlier run are attached to.
+   *
+   * @throws IllegalStateException if a znode is missing, such as after the ZooKeeper of the cluster was cleaned up.
+   */
+  void verifyZnodes() {
+    ZkCliScript script = new ZkCliScript();
+    znodePaths().forEach(script::ls);
+    try {
+      execZkCli(script);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("The znodes of the reused cluster are incomplete, "
+              + "remove its containers to start it from scratch.", e);
+    }
+  }
+
+  /**
+   * Returns the leaf znodes of the cluster: the cache_list, the client_list and a cache_server_mapping per node.
+   * A node of a replicated cluster is mapped to {@code <serviceCode>^<group>^<ip>:<replication port>}
+   * under {@code /arcus_repl}, and the nodes of a group elect their master under the group_list when they start.
+   */
+  private List<String> znodePaths() {
+    List<String> paths = new ArrayList<>();
+    if (!props.isReplicated()) {
+      paths.add(ZPATH_CACHE_LIST + "/" + serviceCode);
+      paths.add(ZPATH_CLIENT_LIST + "/" + serviceCode);
+      for (String nodeAddr : cacheNodes) {
+        paths.add(ZPATH_CACHE_SERVER_MAPPING + "/" + nodeAddr + "/" + serviceCode);
+      }
+      return paths;
+    }
+    paths.add(ZPATH_REPL_CACHE_LIST + "/" + serviceCode);
+    paths.add(ZPATH_REPL_CLIENT_LIST + "/" + serviceCode);
+    for (String group : getReplicationGroups()) {
+      paths.add(ZPATH_REPL_GROUP_LIST + "/" + serviceCode + "/" + group);
+    }
+    for (int i = 0; i < cacheNodes.size(); i++) {
+      String group = "g" + (i / props.getReplicasPerGroup());
+      paths.add(ZPATH_REPL_CACHE_SERVER_MAPPING + "/" + cacheNodes.get(i) + "/"
+              + serviceCode + "^" + group + "^" + replicationAddress(i) + ":" + REPLICATION_PORT);
+    }
+    return paths;
+  }
+
+  /**
+   * Returns the ZooKeeper server to read the znodes from, the leader of an ensemble,
+   * since the {@code dump} four letter word lists the ephemeral znodes only on the leader.
+   * While a new leader is elected, it waits for up to {@link #FAULT_TIMEOUT}.
+   */
+  private GenericContainer<?> zookeeper() {
+    if (zkContainers.size() == 1) {
+      return zkContainers.get(ZOOKEEPER);
+    }
+    return Unreliables.retryUntilSuccess((int) FAULT_TIMEOUT.getSeconds(), TimeUnit.SECONDS, () -> {
+      String leader = getZookeeperLeader();
+      if (leader == null) {
+        Thread.sleep(readinessPollInterval.toMillis());
+        throw new IllegalStateException("No ZooKeeper leader is elected.");
+      }
+      return zkContainers.get(leader);
+    });
+  }
+
+  /**
+   * Runs the script in the ZooKeeper container.
+   *
+   * @param script the zkCli commands to run.
+   * @return the standard output of zkCli.
+   */
+  String execZkCli(ZkCliScript script) {
+    try {
+      Container.ExecResult result = zookeeper().execInContainer(
+              script.toShellCommand("localhost:" + DEFAULT_ZK_CONTAINER_PORT));
+      List<String> errors = script.errors(result.getExitCode(), result.getStderr());
+      if (!errors.isEmpty()) {
+        throw new RuntimeException("zkCli failed: " + String.join(", ", errors));
+      }
+      return result.getStdout();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
     }
   }
 
@@ -183,17 +1490,77 @@ public class ArcusClusterContainer extends GenericContainer<ArcusClusterContaine
    * This class represents a Zookeeper container that extends the GenericContainer class.
    */
   private static class ZookeeperContainer extends GenericContainer<ZookeeperContainer> {
-    private static final DockerImageName DEFAULT_ZK_IMAGE_NAME = DockerImageName.parse("zookeeper:3.5.9");
 
-    public ZookeeperContainer(Network network) {
-      super(DEFAULT_ZK_IMAGE_NAME);
+    private final int hostPort;
+    private final StartupTimer startupTimer = new StartupTimer();
+    private volatile StartupReport startupReport;
+
+    public ZookeeperContainer(Network network, int id, int hostPort, ArcusContainerProps props,
+                              LogCapture logCapture) {
+      super(ArcusImages.zookeeper(props));
+      this.hostPort = hostPort;
 
+      if (logCapture != null) {
+        this.withLogConsumer(logCapture);
+      }
       this.withNetwork(network);
-      this.withEnv("ZOO_MY_ID", "1");
+      this.withEnv("ZOO_MY_ID", String.valueOf(id));
+      if (props.getZookeeperEnsembleSize() > 1) {
+        List<String> servers = new ArrayList<>();
+        for (int i = 1; i <= props.getZookeeperEnsembleSize(); i++) {
+          servers.add("server." + i + "=zoo" + i + ":2888:3888;" + DEFAULT_ZK_CONTAINER_PORT);
+        }
+        this.withEnv("ZOO_SERVERS", String.join(" ", servers));
+      }
+      if (props.isPrebuiltImages()) {
+        // the configuration is baked into the image, and the snapshots and transaction logs are kept in memory.
+        Map<String, String> tmpfs = new LinkedHashMap<>();
+        tmpfs.put("/data", "rw");
+        tmpfs.put("/datalog", "rw");
+        this.withTmpFs(tmpfs);
+      } else {
+        this.withEnv("ZOO_4LW_COMMANDS_WHITELIST", FourLetterWords.WHITELIST);
+      }
       this.withCreateContainerCmdModifier(cmd -> {
-        cmd.withHostName("zoo1");
+        cmd.withHostName("zoo" + id);
+        // a fixed host port keeps the connect string of the clients valid when ZooKeeper is restarted.
+        Objects.requireNonNull(cmd.getHostConfig()).withPortBindings(new PortBinding(
+                Ports.Binding.bindPort(hostPort), new ExposedPort(DEFAULT_ZK_CONTAINER_PORT)));
       });
       this.withExposedPorts(DEFAULT_ZK_CONTAINER_PORT);
+      this.waitingFor(new ZookeeperWaitStrategy().withPollInterval(props.getReadinessPollInterval()));
+    }
+
+    @Override
+    protected void configure() {
+      startupTimer.begin();
+      super.configure();
+    }
+
+    @Override
+    public String getDockerImageName() {
+      String dockerImageName = super.getDockerImageName();
+      startupTimer.end(StartupReport.Phase.IMAGE_RESOLUTION);
+      return dockerImageName;
+    }
+
+    @Override
+    protected void containerIsCreated(String containerId) {
+      super.containerIsCreated(containerId);
+      startupTimer.end(StartupReport.Phase.CONTAINER_CREATE);
+    }
+
+    @Override
+    protected void containerIsStarting(InspectContainerResponse containerInfo, boolean reused) {
+      super.containerIsStarting(containerInfo, reused);
+      startupTimer.end(StartupReport.Phase.CONTAINER_START);
+    }
+
+    @Override
+    protected void containerIsStarted(InspectContainerResponse containerInfo, boolean reused) {
+      super.containerIsStarted(containerInfo, reused);
+      startupTimer.end(StartupReport.Phase.READINESS_WAIT);
+      startupReport = startupTimer.finish(Collections.emptyMap());
     }
   }
 }
@@ -0,0 +1,261 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * A JVM wide registry of running {@link ArcusClusterContainer}s shared between test classes.
+ *
+ * <p>
+ * Every caller that acquires a cluster with an equal image name and equal {@link ArcusContainerProps}
+ * gets the same running cluster. The registry counts the references handed out, and once the last
+ * one is released, the cluster is stopped after an idle timeout unless it is acquired again in the meantime.
+ * Clusters that are still running when the JVM exits are stopped by a shutdown hook.
+ * </p>
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ * <pre>{@code
+ * ArcusClusterContainer cluster = ArcusClusterPool.acquire(props);
+ * try {
+ *   // use the cluster
+ * } finally {
+ *   ArcusClusterPool.release(cluster);
+ * }
+ * }</pre>
+ */
+public final class ArcusClusterPool {
+
+  private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final Object LOCK = new Object();
+  private static final Map<Key, Entry> ENTRIES = new HashMap<>();
+  private static final Map<ArcusClusterContainer, Entry> ENTRIES_BY_CLUSTER = new IdentityHashMap<>();
+  private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "arcus-cluster-pool");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private static Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(ArcusClusterPool::stopAll, "arcus-cluster-pool-shutdown"));
+  }
+
+  private ArcusClusterPool() {
+  }
+
+  /**
+   * Acquires a running cluster with the default image name and properties.
+   *
+   * @return a running {@link ArcusClusterContainer}
+   */
+  public static ArcusClusterContainer acquire() {
+    return acquire(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, new ArcusContainerProps.Builder().build());
+  }
+
+  /**
+   * Acquires a running cluster with the default image name and the given properties.
+   *
+   * @param props the ArcusContainerProps for configuring the cluster
+   * @return a running {@link ArcusClusterContainer}
+   */
+  public static ArcusClusterContainer acquire(ArcusContainerProps props) {
+    return acquire(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, props);
+  }
+
+  /**
+   * Acquires a running cluster with the given image name and properties.
+   * The cluster is created and started if no cluster with an equal configuration is registered.
+   * A cluster that fails to start is stopped, and the callers waiting for its start fail as well.
+   *
+   * @param imageName the DockerImageName for the cache nodes
+   * @param props     the ArcusContainerProps for configuring the cluster
+   * @return a running {@link ArcusClusterContainer}
+   */
+  public static ArcusClusterContainer acquire(DockerImageName imageName, ArcusContainerProps props) {
+    Key key = new Key(imageName.asCanonicalNameString(), props);
+    Entry entry;
+    synchronized (LOCK) {
+      entry = ENTRIES.get(key);
+      if (entry == null) {
+        entry = new Entry(key, ArcusClusterContainer.create(imageName, props));
+        ENTRIES.put(key, entry);
+        ENTRIES_BY_CLUSTER.put(entry.cluster, entry);
+      }
+      entry.references++;
+      if (entry.idleStop != null) {
+        entry.idleStop.cancel(false);
+        entry.idleStop = null;
+      }
+    }
+
+    try {
+      entry.startOnce();
+    } catch (RuntimeException e) {
+      synchronized (LOCK) {
+        entry.references--;
+        if (ENTRIES.get(key) == entry) {
+          ENTRIES.remove(key);
+          ENTRIES_BY_CLUSTER.remove(entry.cluster);
+        }
+      }
+      throw e;
+    }
+    return entry.cluster;
+  }
+
+  /**
+   * Releases a cluster acquired from this pool.
+   * The cluster is stopped once it has not been referenced for the idle timeout.
+   *
+   * @param cluster the cluster returned by one of the acquire methods
+   * @throws IllegalArgumentException If the cluster was not acquired from this pool.
+   */
+  public static void release(ArcusClusterContainer cluster) {
+    synchronized (LOCK) {
+      Entry entry = ENTRIES_BY_CLUSTER.get(cluster);
+      if (entry == null || entry.references == 0) {
+        throw new IllegalArgumentException("The cluster was not acquired from the pool.");
+      }
+      if (--entry.references == 0) {
+        entry.idleStop = SCHEDULER.schedule(() -> stopIfIdle(entry), idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * @return how long a cluster without references keeps running before it is stopped.
+   */
+  public static Duration getIdleTimeout() {
+    synchronized (LOCK) {
+      return idleTimeout;
+    }
+  }
+
+  /**
+   * Sets how long a cluster without references keeps running before it is stopped.
+   * It applies to the clusters released afterwards.
+   *
+   * @param timeout the idle timeout. Must not be negative.
+   * @throws IllegalArgumentException If the timeout is null or negative.
+   */
+  public static void setIdleTimeout(Duration timeout) {
+    if (timeout == null || timeout.isNegative()) {
+      throw new IllegalArgumentException("Invalid idle timeout.");
+    }
+    synchronized (LOCK) {
+      idleTimeout = timeout;
+    }
+  }
+
+  /**
+   * Returns the number of references currently handed out for the cluster.
+   *
+   * @param cluster the cluster acquired from this pool
+   * @return the reference count, or 0 if the cluster is not registered.
+   */
+  public static int getReferenceCount(ArcusClusterContainer cluster) {
+    synchronized (LOCK) {
+      Entry entry = ENTRIES_BY_CLUSTER.get(cluster);
+      return entry == null ? 0 : entry.references;
+    }
+  }
+
+  private static void stopIfIdle(Entry entry) {
+    synchronized (LOCK) {
+      if (entry.references > 0 || ENTRIES.get(entry.key) != entry) {
+        return;
+      }
+      ENTRIES.remove(entry.key);
+      ENTRIES_BY_CLUSTER.remove(entry.cluster);
+    }
+    entry.cluster.stop();
+  }
+
+  private static void stopAll() {
+    List<Entry> entries;
+    synchronized (LOCK) {
+      entries = new ArrayList<>(ENTRIES.values());
+      ENTRIES.clear();
+      ENTRIES_BY_CLUSTER.clear();
+    }
+    for (Entry entry : entries) {
+      entry.cluster.stop();
+    }
+  }
+
+  private static final class Entry {
+    private final Key key;
+    private final ArcusClusterContainer cluster;
+    private int references;
+    private ScheduledFuture<?> idleStop;
+    private boolean started;
+    private RuntimeException failure;
+
+    private Entry(Key key, ArcusClusterContainer cluster) {
+      this.key = key;
+      this.cluster = cluster;
+    }
+
+    private synchronized void startOnce() {
+      if (failure != null) {
+        throw new IllegalStateException("The cluster failed to start.", failure);
+      }
+      if (!started) {
+        try {
+          cluster.start();
+        } catch (RuntimeException e) {
+          failure = e;
+          try {
+            cluster.stop();
+          } catch (RuntimeException stopFailure) {
+            e.addSuppressed(stopFailure);
+          }
+          throw e;
+        }
+        started = true;
+      }
+    }
+  }
+
+  private static final class Key {
+    private final String imageName;
+    private final ArcusContainerProps props;
+
+    private Key(String imageName, ArcusContainerProps props) {
+      this.imageName = imageName;
+      this.props = props;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return imageName.equals(key.imageName) && props.equals(key.props);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(imageName, props);
+    }
+  }
+}
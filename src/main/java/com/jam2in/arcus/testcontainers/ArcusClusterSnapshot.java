@@ -0,0 +1,300 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Saves the items of a running {@link ArcusClusterContainer} to a local directory
+ * and loads them into a new cluster on startup.
+ *
+ * <p>
+ * A snapshot directory contains {@code cluster.properties}, describing the cluster configuration,
+ * and {@code items.dat}, holding the key, flags and value of every saved item.
+ * The configuration covers every property shaping the data path of the cluster: its topology,
+ * the memcached options and the resource limits of its containers. The properties of the test harness,
+ * such as the log capture or the startup parallelism, are left to their defaults on restore,
+ * and a cluster with a network profile cannot be saved.
+ * Memcached keeps its items only in memory and cannot list its keys,
+ * so the keys to save are given by the caller, and only key-value items are saved.
+ * The expiration times are not saved, so the restored items never expire.
+ * </p>
+ */
+final class ArcusClusterSnapshot {
+
+  static final String PROPERTIES_FILE = "cluster.properties";
+  static final String ITEMS_FILE = "items.dat";
+  private static final String TEMPORARY_ITEMS_FILE = ITEMS_FILE + ".tmp";
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int BATCH_SIZE = 100;
+  private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(30);
+
+  private ArcusClusterSnapshot() {
+  }
+
+  /**
+   * Saves the cluster configuration and the items of the given keys.
+   *
+   * The items are written to a temporary file, which replaces {@code items.dat} once it is complete,
+   * so a failed save leaves no truncated snapshot behind.
+   *
+   * @return the number of items saved. Keys not stored in the cluster and keys of collection items are skipped.
+   */
+  static int save(ArcusClusterContainer cluster, ArcusContainerProps props,
+                  Path directory, Collection<String> keys) throws IOException {
+    saveProps(props, directory);
+
+    Map<String, InetSocketAddress> servers = cluster.getNodeServersByRingAddress();
+    KetamaNodeLocator locator = new KetamaNodeLocator(servers.keySet());
+    Map<String, List<String>> keysByNode = new LinkedHashMap<>();
+    for (String key : keys) {
+      keysByNode.computeIfAbsent(locator.getPrimary(key), node -> new ArrayList<>()).add(key);
+    }
+
+    int count = 0;
+    Path temporary = directory.resolve(TEMPORARY_ITEMS_FILE);
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(FORMAT_VERSION);
+        for (Map.Entry<String, List<String>> entry : keysByNode.entrySet()) {
+          count += saveItems(servers.get(entry.getKey()), entry.getValue(), out);
+        }
+        out.writeBoolean(false);
+      }
+      Files.move(temporary, directory.resolve(ITEMS_FILE), StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return count;
+  }
+
+  /**
+   * Writes the cluster configuration of a snapshot.
+   *
+   * @throws UnsupportedOperationException if the cluster has a network profile, which a snapshot cannot describe.
+   */
+  static void saveProps(ArcusContainerProps props, Path directory) throws IOException {
+    boolean shaped = props.getZookeeperNetworkProfile() != null;
+    for (int i = 0; i < props.getClusterSize(); i++) {
+      shaped |= props.getNetworkProfile(i) != null;
+    }
+    if (shaped) {
+      throw new UnsupportedOperationException("Snapshots are not supported on a cluster with network profiles.");
+    }
+
+    Properties properties = new Properties();
+    properties.setProperty("serviceCode", props.getServiceCode());
+    properties.setProperty("clusterSize", String.valueOf(props.getClusterSize()));
+    properties.setProperty("memorySize", String.valueOf(props.getMemorySize()));
+    properties.setProperty("singleContainer", String.valueOf(props.isSingleContainer()));
+    properties.setProperty("zookeeperEnsembleSize", String.valueOf(props.getZookeeperEnsembleSize()));
+    // the options left to their defaults are 0, and not written.
+    setIfPositive(properties, "workerThreads", props.getWorkerThreads());
+    setIfPositive(properties, "maxConnections", props.getMaxConnections());
+    setIfPositive(properties, "maxItemSize", props.getMaxItemSize());
+    setIfPositive(properties, "stickyLimit", props.getStickyLimit());
+    setIfPositive(properties, "maxCollectionSize", props.getMaxCollectionSize());
+    setIfPositive(properties, "memoryLimit", props.getMemoryLimit());
+    if (props.getCpus() > 0) {
+      properties.setProperty("cpus", String.valueOf(props.getCpus()));
+    }
+    List<String> cpusets = props.getCpusets();
+    for (int i = 0; i < cpusets.size(); i++) {
+      properties.setProperty("cpusets." + i, cpusets.get(i));
+    }
+    props.getTmpfs().forEach((path, options) -> properties.setProperty("tmpfs." + path, options));
+
+    Files.createDirectories(directory);
+    try (OutputStream out = Files.newOutputStream(directory.resolve(PROPERTIES_FILE))) {
+      properties.store(out, "arcus-test-container cluster snapshot");
+    }
+  }
+
+  private static void setIfPositive(Properties properties, String key, long value) {
+    if (value > 0) {
+      properties.setProperty(key, String.valueOf(value));
+    }
+  }
+
+  private static int saveItems(InetSocketAddress server, List<String> keys, DataOutputStream out) throws IOException {
+    int count = 0;
+    try (AsciiConnection connection = AsciiConnection.open(server.getHostString(), server.getPort(), COMMAND_TIMEOUT)) {
+      for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+        List<String> batch = keys.subList(from, Math.min(from + BATCH_SIZE, keys.size()));
+        List<Item> items = new ArrayList<>();
+        if (!get(connection, batch, items)) {
+          // a collection item fails the whole get, so the keys of the batch are read one by one to skip it.
+          items.clear();
+          for (String key : batch) {
+            get(connection, Collections.singletonList(key), items);
+          }
+        }
+        for (Item item : items) {
+          out.writeBoolean(true);
+          out.writeUTF(item.key);
+          out.writeInt(item.flags);
+          out.writeInt(item.value.length);
+          out.write(item.value);
+        }
+        count += items.size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Reads the key-value items of the keys with a single get, followed by a version command,
+   * whose answer marks the end of the response whether or not the get was answered with END.
+   *
+   * @return false if a key holds a collection item, in which case the items may be incomplete.
+   */
+  private static boolean get(AsciiConnection connection, List<String> keys, List<Item> items) throws IOException {
+    connection.write("get " + String.join(" ", keys) + "\r\nversion\r\n");
+    connection.flush();
+    boolean keyValue = true;
+    String line;
+    while ((line = connection.readLine()) != null && !line.startsWith("VERSION ")) {
+      if ("TYPE_MISMATCH".equals(line)) {
+        keyValue = false;
+      } else if (line.startsWith("VALUE ")) {
+        String[] header = line.split(" ");
+        byte[] value = connection.readBytes(Integer.parseInt(header[3]));
+        connection.readLine();
+        items.add(new Item(header[1], Integer.parseInt(header[2]), value));
+      } else if (!"END".equals(line)) {
+        throw new IOException("Unexpected response of get: " + line);
+      }
+    }
+    if (line == null) {
+      throw new IOException("Connection closed while reading the response of get.");
+    }
+    return keyValue;
+  }
+
+  /**
+   * Reads the cluster configuration of a snapshot.
+   */
+  static ArcusContainerProps loadProps(Path directory) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = Files.newInputStream(directory.resolve(PROPERTIES_FILE))) {
+      properties.load(in);
+    }
+    ArcusContainerProps.Builder builder = ArcusContainerProps.builder()
+            .serviceCode(properties.getProperty("serviceCode"))
+            .clusterSize(Integer.parseInt(properties.getProperty("clusterSize")))
+            .memorySize(Integer.parseInt(properties.getProperty("memorySize")));
+    // the snapshots of older versions only describe the service code, the cluster size and the memory size.
+    ifPresent(properties, "singleContainer", value -> builder.singleContainer(Boolean.parseBoolean(value)));
+    ifPresent(properties, "zookeeperEnsembleSize", value -> builder.zookeeperEnsembleSize(Integer.parseInt(value)));
+    ifPresent(properties, "workerThreads", value -> builder.workerThreads(Integer.parseInt(value)));
+    ifPresent(properties, "maxConnections", value -> builder.maxConnections(Integer.parseInt(value)));
+    ifPresent(properties, "maxItemSize", value -> builder.maxItemSize(Integer.parseInt(value)));
+    ifPresent(properties, "stickyLimit", value -> builder.stickyLimit(Integer.parseInt(value)));
+    ifPresent(properties, "maxCollectionSize", value -> builder.maxCollectionSize(Integer.parseInt(value)));
+    ifPresent(properties, "memoryLimit", value -> builder.memoryLimit(Long.parseLong(value)));
+    ifPresent(properties, "cpus", value -> builder.cpus(Double.parseDouble(value)));
+    List<String> cpusets = new ArrayList<>();
+    for (int i = 0; properties.containsKey("cpusets." + i); i++) {
+      cpusets.add(properties.getProperty("cpusets." + i));
+    }
+    if (!cpusets.isEmpty()) {
+      builder.cpusets(cpusets.toArray(new String[0]));
+    }
+    new TreeSet<>(properties.stringPropertyNames()).stream()
+            .filter(key -> key.startsWith("tmpfs."))
+            .forEach(key -> builder.tmpfs(key.substring("tmpfs.".length()), properties.getProperty(key)));
+    return builder.build();
+  }
+
+  private static void ifPresent(Properties properties, String key, Consumer<String> setter) {
+    String value = properties.getProperty(key);
+    if (value != null) {
+      setter.accept(value);
+    }
+  }
+
+  /**
+   * Stores the items of a snapshot into the cluster with {@link ArcusBulkLoader},
+   * which sends each item to the node owning its key on the new hash ring.
+   *
+   * @return the report of the load.
+   */
+  static LoadReport restore(ArcusClusterContainer cluster, Path directory) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(directory.resolve(ITEMS_FILE))))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported snapshot format in " + directory);
+      }
+      Iterator<ArcusItem> items = new Iterator<ArcusItem>() {
+        private ArcusItem next = read();
+
+        @Override
+        public boolean hasNext() {
+          return next != null;
+        }
+
+        @Override
+        public ArcusItem next() {
+          if (next == null) {
+            throw new NoSuchElementException();
+          }
+          ArcusItem item = next;
+          next = read();
+          return item;
+        }
+
+        private ArcusItem read() {
+          try {
+            if (!in.readBoolean()) {
+              return null;
+            }
+            String key = in.readUTF();
+            int flags = in.readInt();
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            return ArcusItem.of(key, flags, 0, value);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      };
+      return ArcusBulkLoader.forCluster(cluster).load(items);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static final class Item {
+    private final String key;
+    private final int flags;
+    private final byte[] value;
+
+    private Item(String key, int flags, byte[] value) {
+      this.key = key;
+      this.flags = flags;
+      this.value = value;
+    }
+  }
+}
@@ -1,11 +1,29 @@
 package com.jam2in.arcus.testcontainers;
 
+import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.HostConfig;
 import com.github.dockerjava.api.model.PortBinding;
 import com.github.dockerjava.api.model.Ports;
 import com.github.dockerjava.api.model.RestartPolicy;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
@@ -40,18 +58,58 @@ public class ArcusContainer extends GenericContainer<ArcusContainer> implements
 
   public static final DockerImageName DEFAULT_ARCUS_IMAGE_NAME = DockerImageName.parse("jam2in/arcus-memcached");
 
+  private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(10);
+
+  private List<Integer> ports;
+  private LogCapture logCapture;
+  private Path logDirectory;
+  private ArcusContainerProps props;
+  private String hostName;
+  private Map<Integer, Integer> serverPorts = Collections.emptyMap();
+  private final List<TrafficProxy> trafficProxies = new CopyOnWriteArrayList<>();
+  private final StartupTimer startupTimer = new StartupTimer();
+  private volatile StartupReport startupReport;
+
   private ArcusContainer(DockerImageName dockerImageName, ArcusContainerProps props) {
-    super(dockerImageName);
-    setupContainer(getPort(), props.getMemorySize());
+    super(ArcusImages.arcus(dockerImageName, props));
+    if (!ContainerReuse.isEnabled(props)) {
+      setupContainer(getPort(), props);
+      return;
+    }
+    String fingerprint = ContainerReuse.fingerprint(
+            "container", dockerImageName, props, buildContainerCommand(0, false, props));
+    List<String> addresses = ContainerReuse.findAddresses(fingerprint);
+    int port;
+    if (addresses.size() == 1) {
+      port = ContainerReuse.port(addresses.get(0));
+      reservePort(port);
+    } else {
+      if (!addresses.isEmpty()) {
+        ContainerReuse.removeAll(fingerprint);
+      }
+      port = getPort();
+    }
+    setupContainer(port, props);
+    ContainerReuse.mark(this, fingerprint, "arcus:" + port);
   }
 
-  ArcusContainer(DockerImageName imageName, String address, Network network, int memSize) {
-    super(imageName);
+  ArcusContainer(DockerImageName imageName, String address, Network network, ArcusContainerProps props, int nodeIndex) {
+    super(ArcusImages.arcus(imageName, props));
     String[] split = address.split(":");
     String host = split[0];
     int port = Integer.parseInt(split[1]);
     withNetwork(network);
-    setupContainer(port, host, network, memSize);
+    setupContainer(Collections.singletonList(port), host, network, props, nodeIndex);
+  }
+
+  /**
+   * Creates a container running a cache server for each of the ports, all with the same host name.
+   */
+  ArcusContainer(DockerImageName imageName, String host, List<Integer> ports, Network network,
+                 ArcusContainerProps props) {
+    super(ArcusImages.arcus(imageName, props));
+    withNetwork(network);
+    setupContainer(ports, host, network, props, 0);
   }
 
   /**
@@ -97,31 +155,394 @@ public class ArcusContainer extends GenericContainer<ArcusContainer> implements
     return new ArcusContainer(imageName, props);
   }
 
-  private void setupContainer(int port, int memSize) {
-    setupContainer(port, null, null, memSize);
+  /**
+   * Removes all items stored in the cache server.
+   * This is much faster than restarting the container to get a clean cache.
+   */
+  public void flushAll() {
+    for (int port : ports) {
+      sendCommand(port, "flush_all", "OK");
+    }
+  }
+
+  /**
+   * Removes all items stored in the cache server and resets its statistics counters.
+   */
+  public void reset() {
+    flushAll();
+    for (int port : ports) {
+      sendCommand(port, "stats reset", "RESET");
+    }
+  }
+
+  /**
+   * Resolves the image on the first call of a start, which ends {@link StartupReport.Phase#IMAGE_RESOLUTION}.
+   */
+  @Override
+  public String getDockerImageName() {
+    String dockerImageName = super.getDockerImageName();
+    startupTimer.end(StartupReport.Phase.IMAGE_RESOLUTION);
+    return dockerImageName;
+  }
+
+  @Override
+  protected void containerIsCreated(String containerId) {
+    super.containerIsCreated(containerId);
+    startupTimer.end(StartupReport.Phase.CONTAINER_CREATE);
+  }
+
+  /**
+   * Starts the traffic proxies, if {@link ArcusContainerProps.Builder#trafficCapture(Path)} is set,
+   * so that the readiness check goes through them like the clients do.
+   */
+  @Override
+  protected void containerIsStarting(InspectContainerResponse containerInfo, boolean reused) {
+    super.containerIsStarting(containerInfo, reused);
+    startupTimer.end(StartupReport.Phase.CONTAINER_START);
+    for (Map.Entry<Integer, Integer> entry : serverPorts.entrySet()) {
+      int port = entry.getKey();
+      try {
+        trafficProxies.add(new TrafficProxy(port, new InetSocketAddress(getHost(), entry.getValue()),
+                getTrafficCapture(port)));
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to start the traffic proxy on port " + port + ".", e);
+      }
+    }
+  }
+
+  /**
+   * Flushes a container of an earlier run when it is attached again, see {@link ArcusContainerProps#isReuse()},
+   * and starts recording the traffic.
+   */
+  @Override
+  protected void containerIsStarted(InspectContainerResponse containerInfo, boolean reused) {
+    super.containerIsStarted(containerInfo, reused);
+    startupTimer.end(StartupReport.Phase.READINESS_WAIT);
+    if (reused) {
+      flushAll();
+    }
+    trafficProxies.forEach(proxy -> proxy.setRecording(true));
+    startupReport = startupTimer.finish(Collections.emptyMap());
+    logger().debug("Started {}", startupReport);
+  }
+
+  /**
+   * Returns the port of the traffic proxy for a cache server port, if the traffic is recorded.
+   * The proxy listens on the host port a cache server would have been published on.
+   */
+  @Override
+  public Integer getMappedPort(int originalPort) {
+    return serverPorts.containsKey(originalPort) ? Integer.valueOf(originalPort) : super.getMappedPort(originalPort);
+  }
+
+  /**
+   * Returns the host port the cache server itself is published on, behind its traffic proxy if the traffic is recorded,
+   * so that the tooling of this library, such as {@link ArcusBulkLoader}, is not recorded along with the clients.
+   *
+   * @param originalPort the cache server port.
+   * @return the host port of the cache server.
+   */
+  int getServerPort(int originalPort) {
+    Integer serverPort = serverPorts.get(originalPort);
+    return serverPort != null ? serverPort : getMappedPort(originalPort);
+  }
+
+  /**
+   * Stops the container, writes its captured log to the log directory and releases its reserved host port.
+   * The port stays reserved while the container runs, because with the iptables port publishing
+   * of Docker nothing listens on it on the host, and it would look free to the next probe.
+   * A reusable container is kept running for the next run, so its port stays reserved until the JVM exits,
+   * and the next run reserves it again when it attaches.
+   */
+  @Override
+  public void stop() {
+    try {
+      if (!isShouldBeReused()) {
+        super.stop();
+      }
+    } finally {
+      for (TrafficProxy proxy : trafficProxies) {
+        try {
+          proxy.close();
+        } catch (IOException e) {
+          // a capture that cannot be written must not fail the stop.
+        }
+      }
+      trafficProxies.clear();
+      if (!isShouldBeReused()) {
+        ports.forEach(this::releasePort);
+        serverPorts.values().forEach(this::releasePort);
+      }
+      if (logCapture != null) {
+        try {
+          dumpLog(logDirectory);
+        } catch (IOException e) {
+          // a log that cannot be written must not fail the stop.
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts the container on a new daemon thread.
+   *
+   * @return a future completed with this container once it serves requests.
+   * @see ArcusStartables
+   */
+  public CompletableFuture<ArcusContainer> startAsync() {
+    return startAsync(ArcusStartables.DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Starts the container on the executor.
+   *
+   * @param executor the executor running the start.
+   * @return a future completed with this container once it serves requests.
+   */
+  public CompletableFuture<ArcusContainer> startAsync(Executor executor) {
+    return ArcusStartables.start(this, executor);
+  }
+
+  /**
+   * Stops the container on a new daemon thread.
+   *
+   * @return a future completed once the container is stopped.
+   */
+  public CompletableFuture<Void> stopAsync() {
+    return stopAsync(ArcusStartables.DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Stops the container on the executor.
+   *
+   * @param executor the executor running the stop.
+   * @return a future completed once the container is stopped.
+   */
+  public CompletableFuture<Void> stopAsync(Executor executor) {
+    return ArcusStartables.stop(this, executor);
+  }
+
+  /**
+   * @return the time spent in each phase of the last start, once the container has started.
+   */
+  public Optional<StartupReport> getStartupReport() {
+    return Optional.ofNullable(startupReport);
   }
 
-  private void setupContainer(int port, String host, Network network, int memorySize) {
+  /**
+   * @return the captured output, if {@link ArcusContainerProps.Builder#logCapture(int)} is set.
+   */
+  public Optional<LogCapture> getLogCapture() {
+    return Optional.ofNullable(logCapture);
+  }
+
+  Path getLogDirectory() {
+    return logDirectory;
+  }
+
+  /**
+   * Returns the files the traffic of the clients is recorded to, if
+   * {@link ArcusContainerProps.Builder#trafficCapture(Path)} is set. They are complete once the container is stopped.
+   *
+   * @return the capture files, one per cache server, or an empty list if the traffic is not recorded.
+   */
+  public List<Path> getTrafficCaptures() {
+    return serverPorts.keySet().stream().map(this::getTrafficCapture).collect(Collectors.toList());
+  }
+
+  /**
+   * @return the capture file of the cache server on the port.
+   */
+  Path getTrafficCapture(int port) {
+    return props.getTrafficCaptureDirectory().resolve(hostName + "_" + port + ".cap");
+  }
+
+  /**
+   * Writes the captured output to {@code <directory>/<host>_<port>.log}.
+   * It does nothing if logs are not captured.
+   *
+   * @param directory the directory to write to.
+   * @throws IOException if the file cannot be written.
+   */
+  public void dumpLog(Path directory) throws IOException {
+    if (logCapture != null) {
+      logCapture.dump(directory.resolve(logCapture.getSource().replace(':', '_') + ".log"));
+    }
+  }
+
+  /**
+   * Sends a single line command to the cache server and checks its response.
+   *
+   * @param command          the command without the line terminator.
+   * @param expectedResponse the expected response line.
+   */
+  void sendCommand(String command, String expectedResponse) {
+    sendCommand(ports.get(0), command, expectedResponse);
+  }
+
+  private void sendCommand(int port, String command, String expectedResponse) {
+    String response = sendCommand(port, command);
+    if (!expectedResponse.equals(response)) {
+      throw new RuntimeException("Unexpected response of " + command + ": " + response);
+    }
+  }
+
+  /**
+   * Sends a single line command to the cache server.
+   *
+   * @param command the command without the line terminator.
+   * @return the first response line.
+   */
+  String sendCommand(String command) {
+    return sendCommand(ports.get(0), command);
+  }
+
+  private String sendCommand(int port, String command) {
+    try (AsciiConnection connection = AsciiConnection.open(getHost(), getServerPort(port), COMMAND_TIMEOUT)) {
+      return connection.command(command);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to send " + command + " to the cache server.", e);
+    }
+  }
+
+  /**
+   * Assigns a fixed IPv4 address on the network of the container, which must have a subnet configured.
+   *
+   * @param ipv4Address the address to assign, looked up when the container is created, once the network exists.
+   * @return this container.
+   */
+  ArcusContainer withIpv4Address(Supplier<String> ipv4Address) {
+    return withCreateContainerCmdModifier(cmd -> cmd.withIpv4Address(ipv4Address.get()));
+  }
+
+  private void setupContainer(int port, ArcusContainerProps props) {
+    setupContainer(Collections.singletonList(port), null, null, props, 0);
+  }
+
+  private void setupContainer(List<Integer> ports, String host, Network network, ArcusContainerProps props,
+                              int nodeIndex) {
+    this.ports = ports;
+    this.props = props;
+    this.logDirectory = props.getLogDirectory();
+    this.hostName = host != null ? host : "arcus";
+    if (props.getTrafficCaptureDirectory() != null) {
+      // the cache servers are published on other host ports, leaving their own to the traffic proxies.
+      Map<Integer, Integer> published = new LinkedHashMap<>();
+      for (int port : ports) {
+        published.put(port, getPort());
+      }
+      this.serverPorts = published;
+    }
+    if (props.getLogCaptureSize() > 0) {
+      // the cache servers sharing a container also share its output, which is kept under the host name.
+      String source = ports.size() == 1 ? hostName + ":" + ports.get(0) : hostName;
+      this.logCapture = new LogCapture(source, props.getLogCaptureSize(), props.getLogRateLimit());
+      this.withLogConsumer(logCapture);
+    }
     this.withCreateContainerCmdModifier(cmd -> {
       if (host != null) {
         cmd.withHostName(host);
       }
-      Objects.requireNonNull(cmd.getHostConfig())
+      HostConfig hostConfig = Objects.requireNonNull(cmd.getHostConfig())
               .withRestartPolicy(RestartPolicy.alwaysRestart())
-              .withPortBindings(new PortBinding(Ports.Binding.bindPort(port), new ExposedPort(port)));
+              .withPortBindings(ports.stream()
+                      .map(port -> new PortBinding(Ports.Binding.bindPort(serverPorts.getOrDefault(port, port)),
+                              new ExposedPort(port)))
+                      .collect(Collectors.toList()));
+      if (props.getCpus() > 0) {
+        hostConfig.withNanoCPUs((long) (props.getCpus() * 1_000_000_000L));
+      }
+      if (!props.getCpusets().isEmpty()) {
+        hostConfig.withCpusetCpus(props.getCpusets().get(nodeIndex % props.getCpusets().size()));
+      }
+      if (props.getMemoryLimit() > 0) {
+        hostConfig.withMemory(props.getMemoryLimit());
+      }
     });
-    this.withExposedPorts(port);
-    this.withCommand(buildContainerCommand(port, network, memorySize));
+    this.withTmpFs(props.getTmpfs());
+    this.withExposedPorts(ports.toArray(new Integer[0]));
+    if (network != null && !props.isPrebuiltImages()) {
+      this.withEnv("ARCUS_CACHE_PUBLIC_IP", "127.0.0.1");
+    }
+    if (ports.size() == 1) {
+      this.withCommand(buildContainerCommand(ports.get(0), network != null, props));
+    }
+    this.waitingFor(new MemcachedWaitStrategy().withPollInterval(props.getReadinessPollInterval()));
+  }
+
+  /**
+   * Starts a cache server for each port with the entrypoint of the image, from a shell that stops them together.
+   * It is the first step of a start, so the startup report is timed from here.
+   */
+  @Override
+  protected void configure() {
+    startupTimer.begin();
+    super.configure();
+    if (ports.size() > 1) {
+      String[] entrypoint = getDockerClient().inspectImageCmd(getDockerImageName()).exec()
+              .getConfig().getEntrypoint();
+      if (entrypoint == null || entrypoint.length == 0) {
+        throw new IllegalStateException("The image " + getDockerImageName() + " has no entrypoint to run.");
+      }
+      String script = buildMultiProcessScript(Arrays.asList(entrypoint), ports, props);
+      this.withCreateContainerCmdModifier(cmd -> cmd.withEntrypoint("sh", "-c", script));
+    }
+  }
+
+  /**
+   * @param entrypoint the entrypoint of the image, which is given the command line of a cache server.
+   * @param ports      the ports of the cache servers.
+   * @param props      the properties of the container.
+   * @return a shell script running a clustered cache server for each port.
+   */
+  static String buildMultiProcessScript(List<String> entrypoint, List<Integer> ports, ArcusContainerProps props) {
+    StringBuilder sb = new StringBuilder("trap 'kill 0' INT TERM\n");
+    for (int port : ports) {
+      List<String> words = new ArrayList<>(entrypoint);
+      words.addAll(Arrays.asList(buildContainerCommand(port, true, props).split(" ")));
+      for (String word : words) {
+        sb.append('\'').append(word.replace("'", "'\\''")).append("' ");
+      }
+      sb.append("&\n");
+    }
+    return sb.append("wait\n").toString();
   }
 
-  private String buildContainerCommand(int port, Network network, int memorySize) {
+  /**
+   * @param port      the port the cache server listens on.
+   * @param clustered true to register the cache server in the ZooKeeper of a cluster.
+   * @param props     the properties of the container.
+   * @return the command line of the cache server.
+   */
+  static String buildContainerCommand(int port, boolean clustered, ArcusContainerProps props) {
     StringBuilder sb = new StringBuilder();
-    sb.append("-m ").append(memorySize).append(" ");
+    sb.append("-m ").append(props.getMemorySize()).append(" ");
     sb.append("-p ").append(port);
+    if (props.getWorkerThreads() > 0) {
+      sb.append(" -t ").append(props.getWorkerThreads());
+    }
+    if (props.getMaxConnections() > 0) {
+      sb.append(" -c ").append(props.getMaxConnections());
+    }
+    if (props.getMaxItemSize() > 0) {
+      sb.append(" -I ").append(props.getMaxItemSize());
+    }
 
-    if (network != null) {
-      sb.append(" -z zoo1:2181");
-      this.withEnv("ARCUS_CACHE_PUBLIC_IP", "127.0.0.1");
+    List<String> engineConfig = new ArrayList<>();
+    if (props.getStickyLimit() > 0) {
+      engineConfig.add("sticky_limit=" + props.getStickyLimit());
+    }
+    if (props.getMaxCollectionSize() > 0) {
+      for (String type : new String[]{"list", "set", "map", "btree"}) {
+        engineConfig.add("max_" + type + "_size=" + props.getMaxCollectionSize());
+      }
+    }
+    if (!engineConfig.isEmpty()) {
+      sb.append(" -e ").append(String.join(";", engineConfig));
+    }
+
+    if (clustered) {
+      sb.append(" -z ").append(String.join(",", ArcusClusterContainer.zookeeperAddresses(props)));
     }
     return sb.toString();
   }
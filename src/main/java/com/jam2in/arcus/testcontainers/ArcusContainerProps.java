@@ -1,5 +1,16 @@
 package com.jam2in.arcus.testcontainers;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * The ArcusContainerProps class represents the properties of an ArcusContainer instance.
  */
@@ -8,11 +19,60 @@ public class ArcusContainerProps {
   private final String serviceCode;
   private final int clusterSize;
   private final int memorySize;
+  private final int startupParallelism;
+  private final Duration readinessPollInterval;
+  private final int workerThreads;
+  private final int maxConnections;
+  private final int maxItemSize;
+  private final int stickyLimit;
+  private final int maxCollectionSize;
+  private final double cpus;
+  private final List<String> cpusets;
+  private final long memoryLimit;
+  private final Map<String, String> tmpfs;
+  private final int replicationGroups;
+  private final int replicasPerGroup;
+  private final int logCaptureSize;
+  private final long logRateLimit;
+  private final Path logDirectory;
+  private final boolean reuse;
+  private final boolean prebuiltImages;
+  private final boolean singleContainer;
+  private final Path trafficCaptureDirectory;
+  private final NetworkProfile networkProfile;
+  private final Map<Integer, NetworkProfile> nodeNetworkProfiles;
+  private final NetworkProfile zookeeperNetworkProfile;
+  private final int zookeeperEnsembleSize;
 
   protected ArcusContainerProps(Builder builder) {
     this.serviceCode = builder.serviceCode;
-    this.clusterSize = builder.clusterSize;
+    this.clusterSize = builder.replicationGroups > 0
+            ? builder.replicationGroups * builder.replicasPerGroup : builder.clusterSize;
     this.memorySize = builder.memorySize;
+    this.startupParallelism = builder.startupParallelism;
+    this.readinessPollInterval = builder.readinessPollInterval;
+    this.workerThreads = builder.workerThreads;
+    this.maxConnections = builder.maxConnections;
+    this.maxItemSize = builder.maxItemSize;
+    this.stickyLimit = builder.stickyLimit;
+    this.maxCollectionSize = builder.maxCollectionSize;
+    this.cpus = builder.cpus;
+    this.cpusets = Collections.unmodifiableList(new ArrayList<>(builder.cpusets));
+    this.memoryLimit = builder.memoryLimit;
+    this.tmpfs = Collections.unmodifiableMap(new LinkedHashMap<>(builder.tmpfs));
+    this.replicationGroups = builder.replicationGroups;
+    this.replicasPerGroup = builder.replicationGroups > 0 ? builder.replicasPerGroup : 0;
+    this.logCaptureSize = builder.logCaptureSize;
+    this.logRateLimit = builder.logRateLimit;
+    this.logDirectory = builder.logDirectory;
+    this.reuse = builder.reuse;
+    this.prebuiltImages = builder.prebuiltImages;
+    this.singleContainer = builder.singleContainer;
+    this.trafficCaptureDirectory = builder.trafficCaptureDirectory;
+    this.networkProfile = builder.networkProfile;
+    this.nodeNetworkProfiles = Collections.unmodifiableMap(new LinkedHashMap<>(builder.nodeNetworkProfiles));
+    this.zookeeperNetworkProfile = builder.zookeeperNetworkProfile;
+    this.zookeeperEnsembleSize = builder.zookeeperEnsembleSize;
   }
 
   public String getServiceCode() {
@@ -27,6 +87,254 @@ public class ArcusContainerProps {
     return memorySize;
   }
 
+  /**
+   * Returns the number of cache nodes started or stopped concurrently by an ArcusClusterContainer.
+   * If it was not set explicitly, all nodes of the cluster are handled at once.
+   *
+   * @return the startup parallelism level.
+   */
+  public int getStartupParallelism() {
+    return startupParallelism > 0 ? startupParallelism : clusterSize;
+  }
+
+  public Duration getReadinessPollInterval() {
+    return readinessPollInterval;
+  }
+
+  /**
+   * @return the number of memcached worker threads ({@code -t}), or 0 for the memcached default.
+   */
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  /**
+   * @return the maximum number of simultaneous connections ({@code -c}), or 0 for the memcached default.
+   */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /**
+   * @return the maximum item size in bytes ({@code -I}), or 0 for the memcached default.
+   */
+  public int getMaxItemSize() {
+    return maxItemSize;
+  }
+
+  /**
+   * @return the memory limit of sticky items in megabytes ({@code sticky_limit}), or 0 for the engine default.
+   */
+  public int getStickyLimit() {
+    return stickyLimit;
+  }
+
+  /**
+   * @return the maximum element count of list, set, map and b+tree items, or 0 for the engine default.
+   */
+  public int getMaxCollectionSize() {
+    return maxCollectionSize;
+  }
+
+  /**
+   * @return the number of CPUs a cache node container may use, or 0 for no limit.
+   */
+  public double getCpus() {
+    return cpus;
+  }
+
+  /**
+   * Returns the CPU sets the cache node containers are pinned to, assigned to the nodes in turn.
+   *
+   * @return the CPU sets, or an empty list for no pinning.
+   */
+  public List<String> getCpusets() {
+    return cpusets;
+  }
+
+  /**
+   * @return the memory limit of a cache node container in bytes, or 0 for no limit.
+   */
+  public long getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @return the tmpfs mounts of a cache node container, keyed by their path.
+   */
+  public Map<String, String> getTmpfs() {
+    return tmpfs;
+  }
+
+  /**
+   * @return the number of replication groups, or 0 for a cluster without replication.
+   */
+  public int getReplicationGroups() {
+    return replicationGroups;
+  }
+
+  /**
+   * @return the number of cache nodes in every replication group, or 0 for a cluster without replication.
+   */
+  public int getReplicasPerGroup() {
+    return replicasPerGroup;
+  }
+
+  public boolean isReplicated() {
+    return replicationGroups > 0;
+  }
+
+  /**
+   * @return the number of latest log bytes kept for every container, or 0 if logs are not captured.
+   */
+  public int getLogCaptureSize() {
+    return logCaptureSize;
+  }
+
+  /**
+   * @return the number of log bytes captured per second and container, or 0 for no limit.
+   */
+  public long getLogRateLimit() {
+    return logRateLimit;
+  }
+
+  /**
+   * @return the directory the captured logs are written to when a container stops or a test fails.
+   */
+  public Path getLogDirectory() {
+    return logDirectory;
+  }
+
+  /**
+   * @return true if the containers are kept running and attached again by a later run with the same configuration.
+   */
+  public boolean isReuse() {
+    return reuse;
+  }
+
+  /**
+   * @return true if the containers are started from locally built images with their configuration baked in.
+   */
+  public boolean isPrebuiltImages() {
+    return prebuiltImages;
+  }
+
+  /**
+   * @return true if all cache nodes of an ArcusClusterContainer run in a single container.
+   */
+  public boolean isSingleContainer() {
+    return singleContainer;
+  }
+
+  /**
+   * @return the directory the traffic of the clients is recorded to, or null if it is not recorded.
+   */
+  public Path getTrafficCaptureDirectory() {
+    return trafficCaptureDirectory;
+  }
+
+  /**
+   * @param nodeIndex the index of the cache node, in the order the nodes were created.
+   * @return the network conditions of the cache node, or null if its network is not shaped.
+   */
+  public NetworkProfile getNetworkProfile(int nodeIndex) {
+    return nodeNetworkProfiles.getOrDefault(nodeIndex, networkProfile);
+  }
+
+  /**
+   * @return the network conditions of ZooKeeper, or null if its network is not shaped.
+   */
+  public NetworkProfile getZookeeperNetworkProfile() {
+    return zookeeperNetworkProfile;
+  }
+
+  /**
+   * @return the number of ZooKeeper servers of an ArcusClusterContainer.
+   */
+  public int getZookeeperEnsembleSize() {
+    return zookeeperEnsembleSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ArcusContainerProps that = (ArcusContainerProps) o;
+    return clusterSize == that.clusterSize
+            && memorySize == that.memorySize
+            && startupParallelism == that.startupParallelism
+            && workerThreads == that.workerThreads
+            && maxConnections == that.maxConnections
+            && maxItemSize == that.maxItemSize
+            && stickyLimit == that.stickyLimit
+            && maxCollectionSize == that.maxCollectionSize
+            && Double.compare(cpus, that.cpus) == 0
+            && memoryLimit == that.memoryLimit
+            && replicationGroups == that.replicationGroups
+            && replicasPerGroup == that.replicasPerGroup
+            && logCaptureSize == that.logCaptureSize
+            && logRateLimit == that.logRateLimit
+            && reuse == that.reuse
+            && prebuiltImages == that.prebuiltImages
+            && singleContainer == that.singleContainer
+            && zookeeperEnsembleSize == that.zookeeperEnsembleSize
+            && logDirectory.equals(that.logDirectory)
+            && Objects.equals(trafficCaptureDirectory, that.trafficCaptureDirectory)
+            && Objects.equals(networkProfile, that.networkProfile)
+            && nodeNetworkProfiles.equals(that.nodeNetworkProfiles)
+            && Objects.equals(zookeeperNetworkProfile, that.zookeeperNetworkProfile)
+            && serviceCode.equals(that.serviceCode)
+            && readinessPollInterval.equals(that.readinessPollInterval)
+            && cpusets.equals(that.cpusets)
+            && tmpfs.equals(that.tmpfs);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(serviceCode, clusterSize, memorySize, startupParallelism, readinessPollInterval,
+            workerThreads, maxConnections, maxItemSize, stickyLimit, maxCollectionSize,
+            cpus, cpusets, memoryLimit, tmpfs, replicationGroups, replicasPerGroup,
+            logCaptureSize, logRateLimit, logDirectory, reuse, prebuiltImages, singleContainer,
+            trafficCaptureDirectory, networkProfile, nodeNetworkProfiles, zookeeperNetworkProfile,
+            zookeeperEnsembleSize);
+  }
+
+  @Override
+  public String toString() {
+    return "ArcusContainerProps{"
+            + "serviceCode='" + serviceCode + '\''
+            + ", clusterSize=" + clusterSize
+            + ", memorySize=" + memorySize
+            + ", startupParallelism=" + startupParallelism
+            + ", readinessPollInterval=" + readinessPollInterval
+            + ", workerThreads=" + workerThreads
+            + ", maxConnections=" + maxConnections
+            + ", maxItemSize=" + maxItemSize
+            + ", stickyLimit=" + stickyLimit
+            + ", maxCollectionSize=" + maxCollectionSize
+            + ", cpus=" + cpus
+            + ", cpusets=" + cpusets
+            + ", memoryLimit=" + memoryLimit
+            + ", tmpfs=" + tmpfs
+            + ", replicationGroups=" + replicationGroups
+            + ", replicasPerGroup=" + replicasPerGroup
+            + ", logCaptureSize=" + logCaptureSize
+            + ", logRateLimit=" + logRateLimit
+            + ", logDirectory=" + logDirectory
+            + ", reuse=" + reuse
+            + ", prebuiltImages=" + prebuiltImages
+            + ", singleContainer=" + singleContainer
+            + ", trafficCaptureDirectory=" + trafficCaptureDirectory
+            + ", networkProfile=" + networkProfile
+            + ", nodeNetworkProfiles=" + nodeNetworkProfiles
+            + ", zookeeperNetworkProfile=" + zookeeperNetworkProfile
+            + ", zookeeperEnsembleSize=" + zookeeperEnsembleSize
+            + '}';
+  }
 
   /**
    * A builder class for creating an instance of ArcusContainerProps with custom properties.
@@ -35,6 +343,30 @@ public class ArcusContainerProps {
     private String serviceCode = "test";
     private int clusterSize = 3;
     private int memorySize = 64;
+    private int startupParallelism = 0;
+    private Duration readinessPollInterval = PollingWaitStrategy.DEFAULT_POLL_INTERVAL;
+    private int workerThreads = 0;
+    private int maxConnections = 0;
+    private int maxItemSize = 0;
+    private int stickyLimit = 0;
+    private int maxCollectionSize = 0;
+    private double cpus = 0;
+    private List<String> cpusets = Collections.emptyList();
+    private long memoryLimit = 0;
+    private final Map<String, String> tmpfs = new LinkedHashMap<>();
+    private int replicationGroups = 0;
+    private int replicasPerGroup = 0;
+    private int logCaptureSize = 0;
+    private long logRateLimit = 1024 * 1024;
+    private Path logDirectory = Paths.get("target", "arcus-logs");
+    private boolean reuse = false;
+    private boolean prebuiltImages = false;
+    private boolean singleContainer = false;
+    private Path trafficCaptureDirectory = null;
+    private NetworkProfile networkProfile = null;
+    private final Map<Integer, NetworkProfile> nodeNetworkProfiles = new LinkedHashMap<>();
+    private NetworkProfile zookeeperNetworkProfile = null;
+    private int zookeeperEnsembleSize = 1;
 
     /**
      * Sets the service code for configuring an instance of ArcusContainerProps.
@@ -81,7 +413,399 @@ public class ArcusContainerProps {
       return this;
     }
 
+    /**
+     * Sets the number of cache nodes that are started or stopped concurrently.
+     * Setting it to 1 starts the nodes one at a time.
+     *
+     * @param startupParallelism The parallelism level to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the startupParallelism is smaller than or equal to 0.
+     */
+    public Builder startupParallelism(int startupParallelism) {
+      if (startupParallelism <= 0) {
+        throw new IllegalArgumentException("Invalid startup parallelism.");
+      }
+      this.startupParallelism = startupParallelism;
+      return this;
+    }
+
+    /**
+     * Sets the interval at which the readiness of memcached, ZooKeeper and the cache_list is probed on startup.
+     *
+     * @param readinessPollInterval The poll interval to be set. Must be positive.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the readinessPollInterval is null, zero or negative.
+     */
+    public Builder readinessPollInterval(Duration readinessPollInterval) {
+      if (readinessPollInterval == null || readinessPollInterval.isZero() || readinessPollInterval.isNegative()) {
+        throw new IllegalArgumentException("Invalid readiness poll interval.");
+      }
+      this.readinessPollInterval = readinessPollInterval;
+      return this;
+    }
+
+    /**
+     * Sets the number of memcached worker threads ({@code -t}).
+     *
+     * @param workerThreads The number of worker threads to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the workerThreads is smaller than or equal to 0.
+     */
+    public Builder workerThreads(int workerThreads) {
+      if (workerThreads <= 0) {
+        throw new IllegalArgumentException("Invalid worker threads.");
+      }
+      this.workerThreads = workerThreads;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of simultaneous connections of memcached ({@code -c}).
+     *
+     * @param maxConnections The maximum connections to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the maxConnections is smaller than or equal to 0.
+     */
+    public Builder maxConnections(int maxConnections) {
+      if (maxConnections <= 0) {
+        throw new IllegalArgumentException("Invalid max connections.");
+      }
+      this.maxConnections = maxConnections;
+      return this;
+    }
+
+    /**
+     * Sets the maximum item size of memcached in bytes ({@code -I}).
+     *
+     * @param maxItemSize The maximum item size to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the maxItemSize is smaller than or equal to 0.
+     */
+    public Builder maxItemSize(int maxItemSize) {
+      if (maxItemSize <= 0) {
+        throw new IllegalArgumentException("Invalid max item size.");
+      }
+      this.maxItemSize = maxItemSize;
+      return this;
+    }
+
+    /**
+     * Sets the memory limit of sticky items in megabytes ({@code sticky_limit} of the engine configuration).
+     *
+     * @param stickyLimit The sticky memory limit to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the stickyLimit is smaller than or equal to 0.
+     */
+    public Builder stickyLimit(int stickyLimit) {
+      if (stickyLimit <= 0) {
+        throw new IllegalArgumentException("Invalid sticky limit.");
+      }
+      this.stickyLimit = stickyLimit;
+      return this;
+    }
+
+    /**
+     * Sets the maximum element count of list, set, map and b+tree items
+     * ({@code max_list_size}, {@code max_set_size}, {@code max_map_size} and {@code max_btree_size}
+     * of the engine configuration).
+     *
+     * @param maxCollectionSize The maximum collection size to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the maxCollectionSize is smaller than or equal to 0.
+     */
+    public Builder maxCollectionSize(int maxCollectionSize) {
+      if (maxCollectionSize <= 0) {
+        throw new IllegalArgumentException("Invalid max collection size.");
+      }
+      this.maxCollectionSize = maxCollectionSize;
+      return this;
+    }
+
+    /**
+     * Limits the number of CPUs each cache node container may use, like {@code docker run --cpus}.
+     *
+     * @param cpus The number of CPUs to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the cpus is smaller than or equal to 0.
+     */
+    public Builder cpus(double cpus) {
+      if (cpus <= 0) {
+        throw new IllegalArgumentException("Invalid cpus.");
+      }
+      this.cpus = cpus;
+      return this;
+    }
+
+    /**
+     * Pins the cache node containers to CPUs, like {@code docker run --cpuset-cpus}.
+     * A single CPU set applies to every node, and several CPU sets are assigned to the nodes in turn,
+     * e.g. {@code cpusets("0", "1", "2")} pins each node of a 3 node cluster to its own core.
+     *
+     * @param cpusets The CPU sets to be set, such as {@code "0-1"} or {@code "2,3"}. Must not be empty.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If no CPU set is given or a CPU set is null or empty.
+     */
+    public Builder cpusets(String... cpusets) {
+      if (cpusets == null || cpusets.length == 0
+              || Arrays.stream(cpusets).anyMatch(cpuset -> cpuset == null || cpuset.isEmpty())) {
+        throw new IllegalArgumentException("Invalid cpusets.");
+      }
+      this.cpusets = Arrays.asList(cpusets.clone());
+      return this;
+    }
+
+    /**
+     * Limits the memory of each cache node container in bytes, like {@code docker run --memory}.
+     *
+     * @param memoryLimit The memory limit to be set. Must be greater than 0.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the memoryLimit is smaller than or equal to 0.
+     */
+    public Builder memoryLimit(long memoryLimit) {
+      if (memoryLimit <= 0) {
+        throw new IllegalArgumentException("Invalid memory limit.");
+      }
+      this.memoryLimit = memoryLimit;
+      return this;
+    }
+
+    /**
+     * Adds a tmpfs mount to each cache node container, like {@code docker run --tmpfs}.
+     *
+     * @param path    The absolute path of the mount.
+     * @param options The mount options, such as {@code "rw,size=64m"}, or an empty string.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the path is not absolute or the options are null.
+     */
+    public Builder tmpfs(String path, String options) {
+      if (path == null || !path.startsWith("/") || options == null) {
+        throw new IllegalArgumentException("Invalid tmpfs.");
+      }
+      this.tmpfs.put(path, options);
+      return this;
+    }
+
+    /**
+     * Builds a replicated cluster of master and slave cache nodes registered under {@code /arcus_repl},
+     * instead of one cache node per shard. The cluster size becomes {@code groups * replicasPerGroup}.
+     * The cache nodes must run an arcus-memcached image built with replication enabled, given to
+     * {@link ArcusClusterContainer#create(org.testcontainers.utility.DockerImageName, ArcusContainerProps)}.
+     * The default {@code jam2in/arcus-memcached} image is built without it, and is rejected.
+     *
+     * @param groups           The number of replication groups. Must be greater than 0.
+     * @param replicasPerGroup The number of cache nodes in every group, a master and one or two slaves.
+     *                         Must be 2 or 3.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the groups or replicasPerGroup is out of range.
+     */
+    public Builder replication(int groups, int replicasPerGroup) {
+      if (groups <= 0) {
+        throw new IllegalArgumentException("Invalid replication groups.");
+      }
+      if (replicasPerGroup < 2 || replicasPerGroup > 3) {
+        throw new IllegalArgumentException("Invalid replicas per group.");
+      }
+      this.replicationGroups = groups;
+      this.replicasPerGroup = replicasPerGroup;
+      return this;
+    }
+
+    /**
+     * Captures the output of every cache node and ZooKeeper container, keeping its latest megabytes in memory.
+     * The captured logs are written to the log directory when a container stops,
+     * and when a test fails with the {@link ArcusLogDumpExtension}.
+     *
+     * @param megabytes The megabytes of output kept for every container. Must be greater than 0 and at most 1024.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the megabytes is out of range.
+     */
+    public Builder logCapture(int megabytes) {
+      if (megabytes <= 0 || megabytes > 1024) {
+        throw new IllegalArgumentException("Invalid log capture size.");
+      }
+      this.logCaptureSize = megabytes * 1024 * 1024;
+      return this;
+    }
+
+    /**
+     * Limits the output captured per second and container, so that a chatty container cannot stall
+     * the log stream. Output beyond the limit is dropped. The default is 1 MB per second.
+     *
+     * @param bytesPerSecond The bytes captured per second, or 0 for no limit. Must not be negative.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the bytesPerSecond is negative.
+     */
+    public Builder logRateLimit(long bytesPerSecond) {
+      if (bytesPerSecond < 0) {
+        throw new IllegalArgumentException("Invalid log rate limit.");
+      }
+      this.logRateLimit = bytesPerSecond;
+      return this;
+    }
+
+    /**
+     * Sets the directory the captured logs are written to. The default is {@code target/arcus-logs}.
+     *
+     * @param logDirectory The log directory. Must not be null.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the logDirectory is null.
+     */
+    public Builder logDirectory(Path logDirectory) {
+      if (logDirectory == null) {
+        throw new IllegalArgumentException("Invalid log directory.");
+      }
+      this.logDirectory = logDirectory;
+      return this;
+    }
+
+    /**
+     * Keeps the containers running when they are stopped, so that the next run with the same image,
+     * properties and command line attaches to them after flushing their items, instead of starting new ones.
+     * Like {@code GenericContainer#withReuse(boolean)}, it only takes effect with
+     * {@code testcontainers.reuse.enable=true} in {@code ~/.testcontainers.properties}.
+     * The reused containers have to be removed by hand, or with {@code docker rm -f} on the
+     * {@code com.jam2in.arcus.fingerprint} label.
+     *
+     * @param reuse true to reuse the containers.
+     * @return The Builder object.
+     */
+    public Builder reuse(boolean reuse) {
+      this.reuse = reuse;
+      return this;
+    }
+
+    /**
+     * Starts the cache nodes and ZooKeeper from images derived from their base images pinned to a digest,
+     * with their configuration baked in and ZooKeeper snapshots on tmpfs.
+     * The images are built on first use and kept in the local image store, see {@link ArcusImages}.
+     *
+     * @param prebuiltImages true to use the prebuilt images.
+     * @return The Builder object.
+     */
+    public Builder prebuiltImages(boolean prebuiltImages) {
+      this.prebuiltImages = prebuiltImages;
+      return this;
+    }
+
+    /**
+     * Runs all cache nodes of an ArcusClusterContainer as processes of a single container, each on its own port,
+     * instead of a container per node. ZooKeeper keeps its own container.
+     * The nodes are registered and mapped to the service code as usual,
+     * but cannot be killed, paused or resized one by one.
+     *
+     * @param singleContainer true to run the cache nodes in a single container.
+     * @return The Builder object.
+     */
+    public Builder singleContainer(boolean singleContainer) {
+      this.singleContainer = singleContainer;
+      return this;
+    }
+
+    /**
+     * Puts a proxy in the JVM in front of every cache node, which records what the clients send to
+     * {@code <directory>/<host>_<port>.cap}, to be sent again with {@link ArcusTrafficReplayer}.
+     * The proxy listens on the port the node is known by, in the cache_list and as the mapped port,
+     * and the container is published on another host port, so the clients go through the proxy unchanged.
+     * The traffic is recorded from the node being ready until it stops, without the commands of the container
+     * itself, such as {@code flush_all}, and of the tools of this library, such as {@link ArcusBulkLoader},
+     * {@link ArcusLoadGenerator}, {@link ArcusStatsCollector} and snapshots, which connect to the node directly.
+     * The proxy only listens on the loopback interface, so it needs a local Docker host,
+     * as the cache_list addresses do.
+     *
+     * @param directory The directory to write the captures to. Must not be null.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the directory is null.
+     */
+    public Builder trafficCapture(Path directory) {
+      if (directory == null) {
+        throw new IllegalArgumentException("Invalid traffic capture directory.");
+      }
+      this.trafficCaptureDirectory = directory;
+      return this;
+    }
+
+    /**
+     * Shapes the network of every cache node of an ArcusClusterContainer by the profile once it has started,
+     * such as to put the nodes in another availability zone than the clients.
+     * The profiles can be changed at runtime with {@link ArcusClusterContainer#applyNetworkProfile}.
+     *
+     * @param profile The network conditions of the cache nodes. Must not be null.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the profile is null.
+     */
+    public Builder networkProfile(NetworkProfile profile) {
+      if (profile == null) {
+        throw new IllegalArgumentException("Invalid network profile.");
+      }
+      this.networkProfile = profile;
+      return this;
+    }
+
+    /**
+     * Shapes the network of one cache node by the profile, instead of the profile of all nodes.
+     *
+     * @param nodeIndex The index of the cache node, in the order the nodes are created. Must not be negative.
+     * @param profile   The network conditions of the cache node. Must not be null.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the nodeIndex is negative or the profile is null.
+     */
+    public Builder networkProfile(int nodeIndex, NetworkProfile profile) {
+      if (nodeIndex < 0 || profile == null) {
+        throw new IllegalArgumentException("Invalid network profile.");
+      }
+      this.nodeNetworkProfiles.put(nodeIndex, profile);
+      return this;
+    }
+
+    /**
+     * Shapes the network of the ZooKeeper of an ArcusClusterContainer by the profile once it has started.
+     *
+     * @param profile The network conditions of ZooKeeper. Must not be null.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the profile is null.
+     */
+    public Builder zookeeperNetworkProfile(NetworkProfile profile) {
+      if (profile == null) {
+        throw new IllegalArgumentException("Invalid network profile.");
+      }
+      this.zookeeperNetworkProfile = profile;
+      return this;
+    }
+
+    /**
+     * Runs ZooKeeper of an ArcusClusterContainer as an ensemble of several servers, {@code zoo1} to {@code zooN},
+     * instead of a single server. The cache nodes and {@link ArcusClusterContainer#getHostPorts()} are given
+     * the addresses of all servers, so they fail over when a server, such as the leader, is killed.
+     * The zookeeper network profile applies to every server.
+     *
+     * @param size The number of ZooKeeper servers, 1, 3 or 5.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the size is not 1, 3 or 5.
+     */
+    public Builder zookeeperEnsembleSize(int size) {
+      if (size != 1 && size != 3 && size != 5) {
+        throw new IllegalArgumentException("Invalid zookeeper ensemble size.");
+      }
+      this.zookeeperEnsembleSize = size;
+      return this;
+    }
+
+    /**
+     * @return a new ArcusContainerProps.
+     * @throws IllegalArgumentException If the single container mode is combined with replication, reuse
+     *                                  or network profiles per node, or the traffic capture
+     *                                  or a ZooKeeper ensemble with reuse.
+     */
     public ArcusContainerProps build() {
+      if (singleContainer && (replicationGroups > 0 || reuse || !nodeNetworkProfiles.isEmpty())) {
+        throw new IllegalArgumentException("Invalid single container mode.");
+      }
+      if (trafficCaptureDirectory != null && reuse) {
+        throw new IllegalArgumentException("Invalid traffic capture with reuse.");
+      }
+      if (zookeeperEnsembleSize > 1 && reuse) {
+        throw new IllegalArgumentException("Invalid zookeeper ensemble with reuse.");
+      }
       return new ArcusContainerProps(this);
     }
   }
@@ -0,0 +1,166 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.images.RemoteDockerImage;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.LazyFuture;
+
+/**
+ * Builds and caches the images started by {@link ArcusContainer} and {@link ArcusClusterContainer}
+ * with {@link ArcusContainerProps.Builder#prebuiltImages(boolean)}, and preloads them ahead of the tests.
+ *
+ * <p>
+ * A prebuilt image is derived from its base image pinned to the digest found in the local image store,
+ * and bakes in the configuration otherwise passed on every start: the public IP of the cache nodes,
+ * and a ZooKeeper with a tick time of 1 second, the admin server disabled and the four letter words enabled.
+ * It is tagged {@code arcus-testcontainers/<repository>:<hash of its Dockerfile>} and kept,
+ * so it is built once per base image digest and configuration.
+ * </p>
+ *
+ * <p>
+ * Run {@link #main(String[])}, for example with {@code mvn exec:java}, in a step before the tests,
+ * so that no image is pulled or built while the tests measure their startup.
+ * </p>
+ */
+public final class ArcusImages {
+
+  static final String DERIVED_REPOSITORY = "arcus-testcontainers/";
+
+  private static final String ARCUS_SETUP = "ENV ARCUS_CACHE_PUBLIC_IP=127.0.0.1\n";
+
+  // the tick time is halved, but the maximum session timeout of 20 ticks of the default is kept,
+  // so that shorter ticks only speed up the elections and heartbeats, and sessions expire as before.
+  private static final String ZOOKEEPER_SETUP = "ENV ZOO_TICK_TIME=1000 \\\n"
+          + "    ZOO_ADMINSERVER_ENABLED=false \\\n"
+          + "    ZOO_4LW_COMMANDS_WHITELIST=" + FourLetterWords.WHITELIST + " \\\n"
+          + "    ZOO_CFG_EXTRA=\"maxSessionTimeout=40000\"\n";
+
+  private ArcusImages() {
+  }
+
+  /**
+   * Pulls or builds the images used with the props, including the traffic control image of the fault injection.
+   *
+   * @param imageName the image name of the cache nodes.
+   * @param props     the properties of the containers.
+   */
+  public static void preload(DockerImageName imageName, ArcusContainerProps props) {
+    resolve(arcus(imageName, props));
+    resolve(zookeeper(props));
+    resolve(new RemoteDockerImage(TrafficControl.DEFAULT_IMAGE_NAME));
+  }
+
+  /**
+   * Preloads the default images and the prebuilt images derived from them.
+   *
+   * @param args an optional image name of the cache nodes, {@link ArcusContainer#DEFAULT_ARCUS_IMAGE_NAME} by default.
+   */
+  public static void main(String[] args) {
+    DockerImageName imageName = args.length > 0
+            ? DockerImageName.parse(args[0]) : ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME;
+    preload(imageName, ArcusContainerProps.builder().prebuiltImages(true).build());
+  }
+
+  /**
+   * @return the image of a cache node, prebuilt if the props say so.
+   */
+  static Future<String> arcus(DockerImageName imageName, ArcusContainerProps props) {
+    return props.isPrebuiltImages() ? new DerivedImage(imageName, ARCUS_SETUP) : new RemoteDockerImage(imageName);
+  }
+
+  /**
+   * @return the image of ZooKeeper, prebuilt if the props say so.
+   */
+  static Future<String> zookeeper(ArcusContainerProps props) {
+    return props.isPrebuiltImages()
+            ? new DerivedImage(ArcusClusterContainer.DEFAULT_ZK_IMAGE_NAME, ZOOKEEPER_SETUP)
+            : new RemoteDockerImage(ArcusClusterContainer.DEFAULT_ZK_IMAGE_NAME);
+  }
+
+  /**
+   * @return the Dockerfile of a derived image.
+   */
+  static String dockerfile(String pinnedBase, String setup) {
+    return "FROM " + pinnedBase + "\n"
+            + "LABEL com.jam2in.arcus.base=\"" + pinnedBase + "\"\n"
+            + setup;
+  }
+
+  /**
+   * @return the tag of the derived image, which changes with its base image digest and configuration.
+   */
+  static String derivedTag(DockerImageName base, String dockerfile) {
+    String repository = base.getRepository();
+    return DERIVED_REPOSITORY + repository.substring(repository.lastIndexOf('/') + 1)
+            + ":" + ContainerReuse.fingerprint(dockerfile).substring(0, 12);
+  }
+
+  private static void resolve(Future<String> image) {
+    try {
+      image.get();
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to preload " + image + ".", e);
+    }
+  }
+
+  /**
+   * An image derived from a base image pinned to its digest, built on first use.
+   */
+  private static final class DerivedImage extends LazyFuture<String> {
+
+    private final DockerImageName base;
+    private final String setup;
+
+    private DerivedImage(DockerImageName base, String setup) {
+      this.base = base;
+      this.setup = setup;
+    }
+
+    @Override
+    protected String resolve() {
+      String baseImage = new RemoteDockerImage(base).get();
+      DockerClient client = DockerClientFactory.instance().client();
+      String dockerfile = dockerfile(pin(client, baseImage), setup);
+      String tag = derivedTag(base, dockerfile);
+      try {
+        client.inspectImageCmd(tag).exec();
+        return tag;
+      } catch (NotFoundException e) {
+        return new ImageFromDockerfile(tag, false)
+                .withFileFromString("Dockerfile", dockerfile)
+                .get();
+      }
+    }
+
+    /**
+     * @return the base image by its repository digest, or by its name if it was built locally and has none.
+     */
+    private String pin(DockerClient client, String baseImage) {
+      if (base.asCanonicalNameString().contains("@")) {
+        return baseImage;
+      }
+      InspectImageResponse image = client.inspectImageCmd(baseImage).exec();
+      List<String> digests = image.getRepoDigests();
+      if (digests == null) {
+        return baseImage;
+      }
+      return digests.stream()
+              .filter(digest -> digest.startsWith(base.getUnversionedPart() + "@"))
+              .findFirst()
+              .orElse(digests.isEmpty() ? baseImage : digests.get(0));
+    }
+
+    @Override
+    public String toString() {
+      return "prebuilt image of " + base.asCanonicalNameString();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An item to seed into a cache server with {@link ArcusBulkLoader}.
+ * It is either a key-value item or a collection item (list, set, map or b+tree) with its elements.
+ */
+public final class ArcusItem {
+
+  /**
+   * The type of an item.
+   */
+  public enum Type {
+    KV, LIST, SET, MAP, BTREE
+  }
+
+  private final Type type;
+  private final String key;
+  private final int flags;
+  private final int exptime;
+  private final byte[] value;
+  private final Map<String, byte[]> elements;
+
+  private ArcusItem(Type type, String key, int flags, int exptime, byte[] value, Map<String, byte[]> elements) {
+    if (key == null || key.isEmpty() || key.length() > 250 || key.contains(" ") || key.contains("\n")) {
+      throw new IllegalArgumentException("Invalid key: " + key);
+    }
+    this.type = type;
+    this.key = key;
+    this.flags = flags;
+    this.exptime = exptime;
+    this.value = value;
+    this.elements = elements;
+  }
+
+  /**
+   * Creates a key-value item that never expires.
+   *
+   * @param key   the item key.
+   * @param value the item value.
+   * @return a new key-value item.
+   */
+  public static ArcusItem of(String key, byte[] value) {
+    return of(key, 0, 0, value);
+  }
+
+  /**
+   * Creates a key-value item with a UTF-8 encoded value that never expires.
+   *
+   * @param key   the item key.
+   * @param value the item value.
+   * @return a new key-value item.
+   */
+  public static ArcusItem of(String key, String value) {
+    return of(key, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Creates a key-value item.
+   *
+   * @param key     the item key.
+   * @param flags   the item flags.
+   * @param exptime the expiration time in seconds, or 0 for no expiration.
+   * @param value   the item value.
+   * @return a new key-value item.
+   */
+  public static ArcusItem of(String key, int flags, int exptime, byte[] value) {
+    return new ArcusItem(Type.KV, key, flags, exptime, value, Collections.emptyMap());
+  }
+
+  /**
+   * Creates a list item whose elements are inserted at the tail in the given order.
+   *
+   * @param key      the item key.
+   * @param elements the list elements.
+   * @return a new list item.
+   */
+  public static ArcusItem list(String key, List<byte[]> elements) {
+    Map<String, byte[]> indexed = new LinkedHashMap<>();
+    for (int i = 0; i < elements.size(); i++) {
+      indexed.put(String.valueOf(i), elements.get(i));
+    }
+    return new ArcusItem(Type.LIST, key, 0, 0, null, indexed);
+  }
+
+  /**
+   * Creates a set item.
+   *
+   * @param key      the item key.
+   * @param elements the set elements.
+   * @return a new set item.
+   */
+  public static ArcusItem set(String key, Collection<byte[]> elements) {
+    Map<String, byte[]> indexed = new LinkedHashMap<>();
+    for (byte[] element : elements) {
+      indexed.put(String.valueOf(indexed.size()), element);
+    }
+    return new ArcusItem(Type.SET, key, 0, 0, null, indexed);
+  }
+
+  /**
+   * Creates a map item.
+   *
+   * @param key      the item key.
+   * @param elements the map elements keyed by their field.
+   * @return a new map item.
+   */
+  public static ArcusItem map(String key, Map<String, byte[]> elements) {
+    return new ArcusItem(Type.MAP, key, 0, 0, null, new LinkedHashMap<>(elements));
+  }
+
+  /**
+   * Creates a b+tree item.
+   *
+   * @param key      the item key.
+   * @param elements the b+tree elements keyed by their bkey.
+   * @return a new b+tree item.
+   */
+  public static ArcusItem btree(String key, Map<Long, byte[]> elements) {
+    Map<String, byte[]> indexed = new LinkedHashMap<>();
+    elements.forEach((bkey, element) -> indexed.put(String.valueOf(bkey), element));
+    return new ArcusItem(Type.BTREE, key, 0, 0, null, indexed);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the storage commands of the item in the memcached ASCII protocol.
+   * Every command receives exactly one response line.
+   */
+  List<byte[]> toCommands() {
+    if (type == Type.KV) {
+      return Collections.singletonList(command("set " + key + " " + flags + " " + exptime + " " + value.length, value));
+    }
+
+    List<byte[]> commands = new ArrayList<>(elements.size());
+    String create = " create " + flags + " " + exptime + " 0";
+    for (Map.Entry<String, byte[]> element : elements.entrySet()) {
+      int length = element.getValue().length;
+      switch (type) {
+        case LIST:
+          commands.add(command("lop insert " + key + " -1 " + length + create, element.getValue()));
+          break;
+        case SET:
+          commands.add(command("sop insert " + key + " " + length + create, element.getValue()));
+          break;
+        case MAP:
+          commands.add(command("mop insert " + key + " " + element.getKey() + " " + length + create,
+                  element.getValue()));
+          break;
+        default:
+          commands.add(command("bop insert " + key + " " + element.getKey() + " " + length + create,
+                  element.getValue()));
+          break;
+      }
+    }
+    return commands;
+  }
+
+  private static byte[] command(String line, byte[] data) {
+    byte[] header = (line + "\r\n").getBytes(StandardCharsets.UTF_8);
+    byte[] command = new byte[header.length + data.length + 2];
+    System.arraycopy(header, 0, command, 0, header.length);
+    System.arraycopy(data, 0, command, header.length, data.length);
+    command[command.length - 2] = '\r';
+    command[command.length - 1] = '\n';
+    return command;
+  }
+}
@@ -0,0 +1,133 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates key-value items for {@link ArcusBulkLoader}.
+ * The keys are {@code <keyPrefix><n>} and the value sizes are uniformly distributed between the bounds.
+ * Generators built with the same spec and seed produce the same items.
+ *
+ * <pre>{@code
+ * ArcusItemGenerator generator = ArcusItemGenerator.builder()
+ *                                    .keyCount(1_000_000)
+ *                                    .valueSize(100, 1000)
+ *                                    .build();
+ * }</pre>
+ */
+public final class ArcusItemGenerator implements Iterable<ArcusItem> {
+
+  private final int keyCount;
+  private final String keyPrefix;
+  private final int minValueSize;
+  private final int maxValueSize;
+  private final long seed;
+
+  private ArcusItemGenerator(Builder builder) {
+    this.keyCount = builder.keyCount;
+    this.keyPrefix = builder.keyPrefix;
+    this.minValueSize = builder.minValueSize;
+    this.maxValueSize = builder.maxValueSize;
+    this.seed = builder.seed;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getKeyCount() {
+    return keyCount;
+  }
+
+  @Override
+  public Iterator<ArcusItem> iterator() {
+    SplittableRandom random = new SplittableRandom(seed);
+    return new Iterator<ArcusItem>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < keyCount;
+      }
+
+      @Override
+      public ArcusItem next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        byte[] value = new byte[minValueSize == maxValueSize ? minValueSize
+                : random.nextInt(minValueSize, maxValueSize + 1)];
+        for (int i = 0; i < value.length; i++) {
+          value[i] = (byte) ('a' + random.nextInt(26));
+        }
+        return ArcusItem.of(keyPrefix + next++, value);
+      }
+    };
+  }
+
+  /**
+   * A builder class for creating an instance of ArcusItemGenerator.
+   */
+  public static class Builder {
+    private int keyCount = 10_000;
+    private String keyPrefix = "key:";
+    private int minValueSize = 100;
+    private int maxValueSize = 100;
+    private long seed = 0;
+
+    /**
+     * @param keyCount The number of items to generate. Must not be negative.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the keyCount is negative.
+     */
+    public Builder keyCount(int keyCount) {
+      if (keyCount < 0) {
+        throw new IllegalArgumentException("Invalid key count.");
+      }
+      this.keyCount = keyCount;
+      return this;
+    }
+
+    /**
+     * @param keyPrefix The prefix of the generated keys. Must not be null and not contain spaces.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the keyPrefix is null or contains spaces.
+     */
+    public Builder keyPrefix(String keyPrefix) {
+      if (keyPrefix == null || keyPrefix.contains(" ")) {
+        throw new IllegalArgumentException("Invalid key prefix.");
+      }
+      this.keyPrefix = keyPrefix;
+      return this;
+    }
+
+    /**
+     * @param minValueSize The smallest value size in bytes. Must not be negative.
+     * @param maxValueSize The largest value size in bytes. Must not be smaller than minValueSize.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the bounds are negative or reversed.
+     */
+    public Builder valueSize(int minValueSize, int maxValueSize) {
+      if (minValueSize < 0 || maxValueSize < minValueSize) {
+        throw new IllegalArgumentException("Invalid value size.");
+      }
+      this.minValueSize = minValueSize;
+      this.maxValueSize = maxValueSize;
+      return this;
+    }
+
+    /**
+     * @param seed The seed of the value generator.
+     * @return The Builder object.
+     */
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public ArcusItemGenerator build() {
+      return new ArcusItemGenerator(this);
+    }
+  }
+}
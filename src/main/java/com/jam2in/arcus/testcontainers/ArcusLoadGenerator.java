@@ -0,0 +1,518 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs an open-loop workload at a fixed request rate against an {@link ArcusContainer}
+ * or {@link ArcusClusterContainer}, and reports the latency percentiles of every operation.
+ *
+ * <p>
+ * The requests are issued on a fixed schedule, whether or not the earlier ones have been answered,
+ * and every latency is measured from the time the request was scheduled instead of the time it was sent.
+ * So a stalled node shows up in the latencies of all requests queued behind the stall,
+ * which a closed-loop benchmark would not have sent at all, as with the coordinated omission correction
+ * of an HDR histogram.
+ * </p>
+ *
+ * <p>
+ * Every request is routed to the cache node owning its key on the hash ring of the Arcus client,
+ * so it reaches the same node as the client connected through {@code getHostPorts()} and the service code would.
+ * Each node is served through several connections, each with one request in flight.
+ * </p>
+ *
+ * <pre>{@code
+ * LatencyReport report = ArcusLoadGenerator.forCluster(cluster)
+ *                            .rate(5_000)
+ *                            .duration(Duration.ofSeconds(30))
+ *                            .weight(ArcusLoadGenerator.Operation.GET, 8)
+ *                            .weight(ArcusLoadGenerator.Operation.SET, 1)
+ *                            .weight(ArcusLoadGenerator.Operation.BOP_GET, 1)
+ *                            .zipfianKeys(0.99)
+ *                            .run();
+ * }</pre>
+ */
+public final class ArcusLoadGenerator {
+
+  private static final int MAX_ERROR_SAMPLES = 10;
+  private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(5);
+  private static final int COLLECTION_RANGE = 1000;
+  private static final Request END_OF_REQUESTS = new Request(null, new byte[0], 0, false);
+
+  /**
+   * The operations of a workload. The collection operations work on one list or b+tree per key,
+   * created by the first insert, and read up to 10 elements.
+   */
+  public enum Operation {
+    GET, SET, LOP_INSERT, LOP_GET, BOP_INSERT, BOP_GET
+  }
+
+  private final Map<String, InetSocketAddress> serversByNode;
+  private final KetamaNodeLocator locator;
+  private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+  private int rate = 1000;
+  private Duration duration = Duration.ofSeconds(10);
+  private Duration warmup = Duration.ZERO;
+  private int keyCount = 10_000;
+  private String keyPrefix = "load:";
+  private double zipfianTheta;
+  private int minValueSize = 100;
+  private int maxValueSize = 100;
+  private int connectionsPerNode = 2;
+  private long seed = System.nanoTime();
+
+  ArcusLoadGenerator(Map<String, InetSocketAddress> serversByNode) {
+    this.serversByNode = serversByNode;
+    this.locator = new KetamaNodeLocator(serversByNode.keySet());
+    weights.put(Operation.GET, 9);
+    weights.put(Operation.SET, 1);
+  }
+
+  /**
+   * Creates a generator that spreads the requests over the cache nodes of a running cluster.
+   *
+   * @param cluster the running cluster to load.
+   * @return a new generator.
+   */
+  public static ArcusLoadGenerator forCluster(ArcusClusterContainer cluster) {
+    return new ArcusLoadGenerator(cluster.getNodeServersByRingAddress());
+  }
+
+  /**
+   * Creates a generator for a running standalone container.
+   *
+   * @param container the running container to load.
+   * @return a new generator.
+   */
+  public static ArcusLoadGenerator forContainer(ArcusContainer container) {
+    InetSocketAddress server = InetSocketAddress.createUnresolved(container.getHost(),
+            container.getServerPort(container.getExposedPorts().get(0)));
+    return new ArcusLoadGenerator(Collections.singletonMap("127.0.0.1:" + container.getFirstMappedPort(), server));
+  }
+
+  /**
+   * @param rate The number of requests scheduled per second. Must be greater than 0. Defaults to 1000.
+   * @return this generator.
+   * @throws IllegalArgumentException If the rate is smaller than or equal to 0.
+   */
+  public ArcusLoadGenerator rate(int rate) {
+    if (rate <= 0) {
+      throw new IllegalArgumentException("Invalid rate.");
+    }
+    this.rate = rate;
+    return this;
+  }
+
+  /**
+   * @param duration The time the measured requests are scheduled over. Must be positive. Defaults to 10 seconds.
+   * @return this generator.
+   * @throws IllegalArgumentException If the duration is null, zero or negative.
+   */
+  public ArcusLoadGenerator duration(Duration duration) {
+    if (duration == null || duration.isZero() || duration.isNegative()) {
+      throw new IllegalArgumentException("Invalid duration.");
+    }
+    this.duration = duration;
+    return this;
+  }
+
+  /**
+   * @param warmup The time requests are scheduled before the measured ones, without being recorded,
+   *               so that connections are open and the caches are filled. Defaults to none.
+   * @return this generator.
+   * @throws IllegalArgumentException If the warmup is null or negative.
+   */
+  public ArcusLoadGenerator warmup(Duration warmup) {
+    if (warmup == null || warmup.isNegative()) {
+      throw new IllegalArgumentException("Invalid warmup.");
+    }
+    this.warmup = warmup;
+    return this;
+  }
+
+  /**
+   * Sets the share of an operation in the workload, relative to the weights of the other operations.
+   * The default workload has a weight of 9 for {@link Operation#GET} and 1 for {@link Operation#SET}.
+   *
+   * @param operation the operation.
+   * @param weight    The weight of the operation, 0 to leave it out. Must not be negative.
+   * @return this generator.
+   * @throws IllegalArgumentException If the operation is null or the weight is negative.
+   */
+  public ArcusLoadGenerator weight(Operation operation, int weight) {
+    if (operation == null || weight < 0) {
+      throw new IllegalArgumentException("Invalid weight.");
+    }
+    if (weight == 0) {
+      weights.remove(operation);
+    } else {
+      weights.put(operation, weight);
+    }
+    return this;
+  }
+
+  /**
+   * @param keyCount The number of distinct keys of every operation. Must be greater than 0. Defaults to 10000.
+   * @return this generator.
+   * @throws IllegalArgumentException If the keyCount is smaller than or equal to 0.
+   */
+  public ArcusLoadGenerator keyCount(int keyCount) {
+    if (keyCount <= 0) {
+      throw new IllegalArgumentException("Invalid key count.");
+    }
+    this.keyCount = keyCount;
+    return this;
+  }
+
+  /**
+   * @param keyPrefix The prefix of the generated keys. Defaults to {@code load:}.
+   * @return this generator.
+   * @throws IllegalArgumentException If the keyPrefix is null or contains a whitespace.
+   */
+  public ArcusLoadGenerator keyPrefix(String keyPrefix) {
+    if (keyPrefix == null || keyPrefix.chars().anyMatch(Character::isWhitespace)) {
+      throw new IllegalArgumentException("Invalid key prefix.");
+    }
+    this.keyPrefix = keyPrefix;
+    return this;
+  }
+
+  /**
+   * Picks every key with the same probability. This is the default.
+   *
+   * @return this generator.
+   */
+  public ArcusLoadGenerator uniformKeys() {
+    this.zipfianTheta = 0;
+    return this;
+  }
+
+  /**
+   * Picks the keys with a zipfian distribution, so that a few hot keys take most of the requests.
+   *
+   * @param theta The skew, between 0 and 1 exclusive. YCSB uses 0.99.
+   * @return this generator.
+   * @throws IllegalArgumentException If the theta is not between 0 and 1 exclusive.
+   */
+  public ArcusLoadGenerator zipfianKeys(double theta) {
+    if (!(theta > 0 && theta < 1)) {
+      throw new IllegalArgumentException("Invalid zipfian theta.");
+    }
+    this.zipfianTheta = theta;
+    return this;
+  }
+
+  /**
+   * @param min The minimum size of a value or element in bytes. Must be greater than 0.
+   * @param max The maximum size of a value or element in bytes. Must not be smaller than min.
+   * @return this generator.
+   * @throws IllegalArgumentException If min is smaller than or equal to 0 or max is smaller than min.
+   */
+  public ArcusLoadGenerator valueSize(int min, int max) {
+    if (min <= 0 || max < min) {
+      throw new IllegalArgumentException("Invalid value size.");
+    }
+    this.minValueSize = min;
+    this.maxValueSize = max;
+    return this;
+  }
+
+  /**
+   * @param connectionsPerNode The number of connections to open to every node, which bounds the requests
+   *                           in flight on the node. Must be greater than 0. Defaults to 2.
+   * @return this generator.
+   * @throws IllegalArgumentException If the connectionsPerNode is smaller than or equal to 0.
+   */
+  public ArcusLoadGenerator connectionsPerNode(int connectionsPerNode) {
+    if (connectionsPerNode <= 0) {
+      throw new IllegalArgumentException("Invalid connections per node.");
+    }
+    this.connectionsPerNode = connectionsPerNode;
+    return this;
+  }
+
+  /**
+   * @param seed The seed of the operations, keys and values, so that a workload can be repeated.
+   * @return this generator.
+   */
+  public ArcusLoadGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Schedules the requests over the warmup and the duration, and waits until every response has been received.
+   * Failed requests are counted in the report instead of being thrown.
+   * Misses, such as a get of a key never set, are not failures.
+   *
+   * @return the latencies of the requests scheduled after the warmup.
+   * @throws IllegalStateException If every operation has a weight of 0.
+   */
+  public LatencyReport run() {
+    if (weights.isEmpty()) {
+      throw new IllegalStateException("No operation to run.");
+    }
+    Operation[] operations = weights.keySet().toArray(new Operation[0]);
+    int[] cumulativeWeights = new int[operations.length];
+    int totalWeight = 0;
+    for (int i = 0; i < operations.length; i++) {
+      totalWeight += weights.get(operations[i]);
+      cumulativeWeights[i] = totalWeight;
+    }
+    ZipfianGenerator zipfian = zipfianTheta > 0 ? new ZipfianGenerator(keyCount, zipfianTheta) : null;
+    SplittableRandom random = new SplittableRandom(seed);
+
+    Map<String, BlockingQueue<Request>> queues = new LinkedHashMap<>();
+    for (String node : serversByNode.keySet()) {
+      queues.put(node, new LinkedBlockingQueue<>());
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(queues.size() * connectionsPerNode, r -> {
+      Thread thread = new Thread(r, "arcus-load-generator-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    List<Future<Recorder>> workers = new ArrayList<>();
+    long warmupRequests = (long) (warmup.toNanos() / 1e9 * rate);
+    long totalRequests = warmupRequests + Math.max(1, (long) (duration.toNanos() / 1e9 * rate));
+    long start = System.nanoTime();
+    long measureStart = start + (long) (warmupRequests * 1e9 / rate);
+    try {
+      for (Map.Entry<String, BlockingQueue<Request>> entry : queues.entrySet()) {
+        InetSocketAddress server = serversByNode.get(entry.getKey());
+        for (int i = 0; i < connectionsPerNode; i++) {
+          workers.add(executor.submit(() ->
+                  runWorker(server.getHostString(), server.getPort(), entry.getValue())));
+        }
+      }
+
+      try {
+        for (long i = 0; i < totalRequests; i++) {
+          Operation operation = pick(operations, cumulativeWeights, random.nextInt(totalWeight));
+          long keyNumber = zipfian != null ? zipfian.next(random.nextDouble()) : random.nextInt(keyCount);
+          String key = key(operation, keyNumber);
+          byte[] command = command(operation, key, random);
+          long intended = start + (long) (i * 1e9 / rate);
+          long delay = intended - System.nanoTime();
+          if (delay > 0) {
+            LockSupport.parkNanos(delay);
+          }
+          queues.get(locator.getPrimary(key)).put(new Request(operation, command, intended, i >= warmupRequests));
+        }
+      } finally {
+        for (BlockingQueue<Request> queue : queues.values()) {
+          for (int i = 0; i < connectionsPerNode; i++) {
+            queue.put(END_OF_REQUESTS);
+          }
+        }
+      }
+      Recorder total = new Recorder();
+      for (Future<Recorder> worker : workers) {
+        total.add(worker.get());
+      }
+      return new LatencyReport(rate, Duration.ofNanos(System.nanoTime() - measureStart),
+              total.histograms, total.errors, total.errorSamples);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while generating load.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to generate load.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Operation pick(Operation[] operations, int[] cumulativeWeights, int value) {
+    for (int i = 0; i < operations.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    return operations[operations.length - 1];
+  }
+
+  private String key(Operation operation, long keyNumber) {
+    switch (operation) {
+      case LOP_INSERT:
+      case LOP_GET:
+        return keyPrefix + "list:" + keyNumber;
+      case BOP_INSERT:
+      case BOP_GET:
+        return keyPrefix + "btree:" + keyNumber;
+      default:
+        return keyPrefix + keyNumber;
+    }
+  }
+
+  private byte[] command(Operation operation, String key, SplittableRandom random) {
+    switch (operation) {
+      case GET:
+        return ("get " + key + "\r\n").getBytes(StandardCharsets.UTF_8);
+      case SET:
+        return storage("set " + key + " 0 0 ", random);
+      case LOP_INSERT:
+        // inserted at the head, so that a full list trims its tail instead of failing.
+        return storage("lop insert " + key + " 0 ", random, " create 0 0 0");
+      case LOP_GET:
+        return ("lop get " + key + " 0..9\r\n").getBytes(StandardCharsets.UTF_8);
+      case BOP_INSERT:
+        return storage("bop insert " + key + " " + random.nextInt(COLLECTION_RANGE) + " ", random, " create 0 0 0");
+      case BOP_GET:
+        return ("bop get " + key + " 0.." + (COLLECTION_RANGE - 1) + " 0 10\r\n").getBytes(StandardCharsets.UTF_8);
+      default:
+        throw new IllegalStateException("Unknown operation " + operation + ".");
+    }
+  }
+
+  private byte[] storage(String head, SplittableRandom random) {
+    return storage(head, random, "");
+  }
+
+  private byte[] storage(String head, SplittableRandom random, String tail) {
+    int size = minValueSize == maxValueSize ? minValueSize : random.nextInt(minValueSize, maxValueSize + 1);
+    byte[] line = (head + size + tail + "\r\n").getBytes(StandardCharsets.UTF_8);
+    byte[] command = new byte[line.length + size + 2];
+    System.arraycopy(line, 0, command, 0, line.length);
+    for (int i = 0; i < size; i++) {
+      command[line.length + i] = (byte) ('a' + random.nextInt(26));
+    }
+    command[command.length - 2] = '\r';
+    command[command.length - 1] = '\n';
+    return command;
+  }
+
+  private Recorder runWorker(String host, int port, BlockingQueue<Request> queue) throws InterruptedException {
+    Recorder recorder = new Recorder();
+    AsciiConnection connection = null;
+    try {
+      for (Request request = queue.take(); request != END_OF_REQUESTS; request = queue.take()) {
+        String error;
+        try {
+          if (connection == null) {
+            connection = AsciiConnection.open(host, port, COMMAND_TIMEOUT);
+          }
+          connection.write(request.command);
+          connection.flush();
+          error = readResponse(connection, request.operation);
+        } catch (IOException e) {
+          error = e.toString();
+          connection = closeQuietly(connection);
+        }
+        if (!request.measured) {
+          continue;
+        }
+        if (error == null) {
+          recorder.histograms.computeIfAbsent(request.operation, operation -> new LatencyHistogram())
+                  .record(System.nanoTime() - request.intended);
+        } else {
+          recorder.error(request.operation, host + ":" + port + " " + request.operation + " " + error);
+        }
+      }
+    } finally {
+      closeQuietly(connection);
+    }
+    return recorder;
+  }
+
+  /**
+   * Reads the whole response of a request.
+   *
+   * @return the error response, or null if the request succeeded.
+   */
+  private static String readResponse(AsciiConnection connection, Operation operation) throws IOException {
+    String line = readLine(connection);
+    if (line.startsWith("VALUE ")) {
+      String[] parts = line.split(" ");
+      if (operation == Operation.GET) {
+        connection.readBytes(Integer.parseInt(parts[3]) + 2);
+      } else {
+        for (int i = Integer.parseInt(parts[2]); i > 0; i--) {
+          readLine(connection);
+        }
+      }
+      line = readLine(connection);
+    }
+    if (line.startsWith("ERROR") || line.startsWith("CLIENT_ERROR") || line.startsWith("SERVER_ERROR")
+            || line.equals("TYPE_MISMATCH")) {
+      return line;
+    }
+    return null;
+  }
+
+  private static String readLine(AsciiConnection connection) throws IOException {
+    String line = connection.readLine();
+    if (line == null) {
+      throw new IOException("Connection closed while waiting for a response.");
+    }
+    return line;
+  }
+
+  private static AsciiConnection closeQuietly(AsciiConnection connection) {
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+    return null;
+  }
+
+  private static final class Request {
+    private final Operation operation;
+    private final byte[] command;
+    private final long intended;
+    private final boolean measured;
+
+    private Request(Operation operation, byte[] command, long intended, boolean measured) {
+      this.operation = operation;
+      this.command = command;
+      this.intended = intended;
+      this.measured = measured;
+    }
+  }
+
+  /**
+   * The latencies and errors recorded by one worker, added up after the run.
+   */
+  private static final class Recorder {
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+    private final List<String> errorSamples = new ArrayList<>();
+
+    private void error(Operation operation, String message) {
+      errors.merge(operation, 1L, Long::sum);
+      if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+        errorSamples.add(message);
+      }
+    }
+
+    private void add(Recorder other) {
+      other.histograms.forEach((operation, histogram) ->
+              histograms.computeIfAbsent(operation, ignored -> new LatencyHistogram()).add(histogram));
+      other.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+      for (String sample : other.errorSamples) {
+        if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+          errorSamples.add(sample);
+        }
+      }
+    }
+  }
+}
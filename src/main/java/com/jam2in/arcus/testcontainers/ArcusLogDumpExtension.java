@@ -0,0 +1,74 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+/**
+ * A JUnit 5 extension that writes the captured logs of every {@link ArcusContainer} and {@link ArcusClusterContainer}
+ * field of the test class when a test fails, to {@code <log directory>/<test class>/<test method>/}.
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ * <pre>{@code
+ * @ExtendWith(ArcusLogDumpExtension.class)
+ * class MyTest {
+ *   @Container
+ *   static final ArcusClusterContainer CLUSTER = ArcusClusterContainer.create(
+ *       ArcusContainerProps.builder().logCapture(4).build());
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>
+ * Containers created without {@link ArcusContainerProps.Builder#logCapture(int)} are skipped.
+ * Note: it requires junit-jupiter-api on the test classpath.
+ * </p>
+ */
+public class ArcusLogDumpExtension implements TestWatcher {
+
+  @Override
+  public void testFailed(ExtensionContext context, Throwable cause) {
+    Object testInstance = context.getTestInstance().orElse(null);
+    List<Field> fields = ReflectionSupport.findFields(context.getRequiredTestClass(),
+            field -> ArcusContainer.class.isAssignableFrom(field.getType())
+                    || ArcusClusterContainer.class.isAssignableFrom(field.getType()),
+            HierarchyTraversalMode.TOP_DOWN);
+
+    for (Field field : fields) {
+      boolean isStatic = Modifier.isStatic(field.getModifiers());
+      if (!isStatic && testInstance == null) {
+        continue;
+      }
+      try {
+        field.setAccessible(true);
+        Object value = field.get(isStatic ? null : testInstance);
+        if (value instanceof ArcusContainer) {
+          ArcusContainer container = (ArcusContainer) value;
+          container.dumpLog(directory(context, container.getLogDirectory()));
+        } else if (value instanceof ArcusClusterContainer) {
+          ArcusClusterContainer cluster = (ArcusClusterContainer) value;
+          cluster.dumpLogs(directory(context, cluster.getLogDirectory()).resolve(field.getName()));
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private static Path directory(ExtensionContext context, Path logDirectory) {
+    return logDirectory.resolve(context.getRequiredTestClass().getName())
+            .resolve(context.getRequiredTestMethod().getName());
+  }
+}
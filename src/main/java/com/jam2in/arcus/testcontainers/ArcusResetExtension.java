@@ -0,0 +1,52 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+/**
+ * A JUnit 5 extension that resets every running {@link ArcusContainer} and {@link ArcusClusterContainer}
+ * field of the test class before each test, so that every test method starts with an empty cache
+ * and zeroed statistics without restarting the containers.
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ * <pre>{@code
+ * @ExtendWith(ArcusResetExtension.class)
+ * class MyTest extends ArcusClusterTestBase {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>
+ * Containers that are not running yet, such as {@code @Container} instance fields, are skipped.
+ * Note: it requires junit-jupiter-api on the test classpath.
+ * </p>
+ */
+public class ArcusResetExtension implements BeforeEachCallback {
+
+  @Override
+  public void beforeEach(ExtensionContext context) throws Exception {
+    Object testInstance = context.getRequiredTestInstance();
+    List<Field> fields = ReflectionSupport.findFields(context.getRequiredTestClass(),
+            field -> ArcusContainer.class.isAssignableFrom(field.getType())
+                    || ArcusClusterContainer.class.isAssignableFrom(field.getType()),
+            HierarchyTraversalMode.TOP_DOWN);
+
+    for (Field field : fields) {
+      field.setAccessible(true);
+      Object value = field.get(Modifier.isStatic(field.getModifiers()) ? null : testInstance);
+      if (value instanceof ArcusContainer && ((ArcusContainer) value).isRunning()) {
+        ((ArcusContainer) value).reset();
+      } else if (value instanceof ArcusClusterContainer && ((ArcusClusterContainer) value).isRunning()) {
+        ((ArcusClusterContainer) value).reset();
+      }
+    }
+  }
+}
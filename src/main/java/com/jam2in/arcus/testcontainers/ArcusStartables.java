@@ -0,0 +1,119 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Starts containers without blocking the caller, so that the startup of Arcus clusters overlaps
+ * with other fixture setup, such as a database container or the refresh of an application context.
+ *
+ * <p>
+ * Example usage:
+ * </p>
+ * <pre>{@code
+ * CompletableFuture<Void> clusters = ArcusStartables.startAll(CLUSTER_1, CLUSTER_2);
+ * database.start();
+ * clusters.join();
+ * }</pre>
+ *
+ * <p>
+ * The futures complete once the containers serve requests, as {@code start()} would return.
+ * By default every start runs on a new daemon thread. Any executor can be given instead,
+ * such as a virtual thread per task executor, since the startup only waits on sockets and sleeps.
+ * </p>
+ */
+public final class ArcusStartables {
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  /**
+   * Runs every task on a new daemon thread, so that a pending start does not keep the JVM alive.
+   */
+  static final Executor DEFAULT_EXECUTOR = task -> {
+    Thread thread = new Thread(task, "arcus-async-" + THREAD_COUNT.incrementAndGet());
+    thread.setDaemon(true);
+    thread.start();
+  };
+
+  private ArcusStartables() {
+  }
+
+  /**
+   * Starts the containers concurrently, each on a new daemon thread.
+   *
+   * @param containers the containers to start, such as {@link ArcusClusterContainer}s.
+   * @return a future completed once all containers are started.
+   * @see #startAll(Executor, Collection)
+   */
+  public static CompletableFuture<Void> startAll(Startable... containers) {
+    return startAll(DEFAULT_EXECUTOR, Arrays.asList(containers));
+  }
+
+  /**
+   * Starts the containers concurrently on the executor.
+   * If any container fails to start, every container is stopped again, including the failed ones,
+   * which may have started part of their containers, such as the ZooKeeper servers of a cluster.
+   * The future then completes exceptionally with the first failure, the others being suppressed.
+   *
+   * @param executor   the executor running the starts.
+   * @param containers the containers to start, such as {@link ArcusClusterContainer}s.
+   * @return a future completed once all containers are started.
+   */
+  public static CompletableFuture<Void> startAll(Executor executor, Collection<? extends Startable> containers) {
+    List<Startable> startables = new ArrayList<>(containers);
+    List<CompletableFuture<Startable>> futures = new ArrayList<>();
+    for (Startable startable : startables) {
+      futures.add(start(startable, executor));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> {
+      if (error == null) {
+        return null;
+      }
+      List<Throwable> causes = new ArrayList<>();
+      for (CompletableFuture<Startable> future : futures) {
+        try {
+          future.join();
+        } catch (CompletionException e) {
+          causes.add(e.getCause());
+        }
+      }
+      int failures = causes.size();
+      for (Startable startable : startables) {
+        try {
+          startable.stop();
+        } catch (RuntimeException e) {
+          causes.add(e);
+        }
+      }
+      RuntimeException e = new RuntimeException("Failed to start " + failures + " of "
+              + startables.size() + " containers.", causes.get(0));
+      causes.stream().skip(1).forEach(e::addSuppressed);
+      throw e;
+    });
+  }
+
+  /**
+   * @return a future completed with the container once it is started.
+   */
+  static <T extends Startable> CompletableFuture<T> start(T container, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      container.start();
+      return container;
+    }, executor);
+  }
+
+  /**
+   * @return a future completed once the container is stopped.
+   */
+  static CompletableFuture<Void> stop(Startable container, Executor executor) {
+    return CompletableFuture.runAsync(container::stop, executor);
+  }
+}
@@ -0,0 +1,407 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Polls {@code stats}, {@code stats slabs} and {@code stats prefixes} from every cache node on an interval
+ * and keeps the latest samples of each node in a bounded ring buffer.
+ *
+ * <p>
+ * The rates between the two latest samples of a node, such as ops/s, the hit ratio and evictions/s,
+ * are available from {@link #getRates()}, from a Prometheus text endpoint started with {@link #serveMetrics(int)},
+ * or as a JSON file written with {@link #writeJson(Path)}, e.g. at the end of a load test.
+ * </p>
+ *
+ * <pre>{@code
+ * try (ArcusStatsCollector collector = ArcusStatsCollector.forCluster(cluster).interval(Duration.ofSeconds(1))) {
+ *   collector.start();
+ *   // run the load
+ *   collector.writeJson(Paths.get("build/arcus-stats.json"));
+ * }
+ * }</pre>
+ */
+public final class ArcusStatsCollector implements AutoCloseable {
+
+  private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(5);
+
+  private final Map<String, InetSocketAddress> nodes;
+  private final Map<String, AsciiConnection> connections = new LinkedHashMap<>();
+  private final Map<String, SampleRing> samples = new ConcurrentHashMap<>();
+  private Duration interval = Duration.ofSeconds(1);
+  private int capacity = 600;
+  private ScheduledExecutorService scheduler;
+  private HttpServer server;
+
+  ArcusStatsCollector(Map<String, InetSocketAddress> nodes) {
+    this.nodes = new LinkedHashMap<>(nodes);
+  }
+
+  /**
+   * Creates a collector for the cache nodes of a running cluster.
+   *
+   * @param cluster the running cluster.
+   * @return a new collector.
+   */
+  public static ArcusStatsCollector forCluster(ArcusClusterContainer cluster) {
+    Map<String, InetSocketAddress> nodes = new LinkedHashMap<>();
+    // a cache node is published on the host, also when it shares its container with other nodes.
+    cluster.getNodeContainers().forEach((node, container) -> nodes.put(node, InetSocketAddress.createUnresolved(
+            container.getHost(), container.getServerPort(ContainerReuse.port(node)))));
+    return new ArcusStatsCollector(nodes);
+  }
+
+  /**
+   * Creates a collector for a running standalone container.
+   *
+   * @param container the running container.
+   * @return a new collector.
+   */
+  public static ArcusStatsCollector forContainer(ArcusContainer container) {
+    return new ArcusStatsCollector(Collections.singletonMap(container.getHost() + ":" + container.getFirstMappedPort(),
+            InetSocketAddress.createUnresolved(container.getHost(),
+                    container.getServerPort(container.getExposedPorts().get(0)))));
+  }
+
+  /**
+   * @param interval The interval between two polls. Must be positive.
+   * @return this collector.
+   * @throws IllegalArgumentException If the interval is null, zero or negative.
+   */
+  public ArcusStatsCollector interval(Duration interval) {
+    if (interval == null || interval.isZero() || interval.isNegative()) {
+      throw new IllegalArgumentException("Invalid interval.");
+    }
+    this.interval = interval;
+    return this;
+  }
+
+  /**
+   * @param capacity The number of samples kept for every node. Older samples are dropped. Must be greater than 1.
+   * @return this collector.
+   * @throws IllegalArgumentException If the capacity is smaller than 2.
+   */
+  public ArcusStatsCollector capacity(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Invalid capacity.");
+    }
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * Starts polling the nodes on a daemon thread.
+   *
+   * @return this collector.
+   * @throws IllegalStateException If the collector was already started.
+   */
+  public synchronized ArcusStatsCollector start() {
+    if (scheduler != null) {
+      throw new IllegalStateException("The collector was already started.");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "arcus-stats-collector");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleAtFixedRate(this::poll, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+    return this;
+  }
+
+  /**
+   * Polls every node once. A node that fails to answer is skipped until the next poll.
+   */
+  void poll() {
+    for (Map.Entry<String, InetSocketAddress> entry : nodes.entrySet()) {
+      String node = entry.getKey();
+      try {
+        AsciiConnection connection = connections.get(node);
+        if (connection == null) {
+          InetSocketAddress address = entry.getValue();
+          connection = AsciiConnection.open(address.getHostString(), address.getPort(), COMMAND_TIMEOUT);
+          connections.put(node, connection);
+        }
+        Instant timestamp = Instant.now();
+        Map<String, String> stats = parseStats(request(connection, "stats"));
+        Map<String, String> slabs = parseStats(request(connection, "stats slabs"));
+        Map<String, Map<String, String>> prefixes = parsePrefixes(request(connection, "stats prefixes"));
+        samples.computeIfAbsent(node, n -> new SampleRing(capacity)).add(new StatsSample(node, timestamp, stats, slabs, prefixes));
+      } catch (IOException e) {
+        closeQuietly(connections.remove(node));
+      }
+    }
+  }
+
+  private static List<String> request(AsciiConnection connection, String command) throws IOException {
+    connection.write(command + "\r\n");
+    connection.flush();
+    List<String> lines = new ArrayList<>();
+    while (true) {
+      String line = connection.readLine();
+      if (line == null) {
+        throw new IOException("Connection closed while reading the response of " + command + ".");
+      }
+      if ("END".equals(line) || "ERROR".equals(line)
+              || line.startsWith("CLIENT_ERROR") || line.startsWith("SERVER_ERROR")) {
+        // a server without a sub command answers a single error line instead of the stats.
+        return lines;
+      }
+      lines.add(line);
+    }
+  }
+
+  /**
+   * Parses {@code STAT <name> <value>} lines.
+   */
+  static Map<String, String> parseStats(List<String> lines) {
+    Map<String, String> stats = new LinkedHashMap<>();
+    for (String line : lines) {
+      String[] parts = line.split(" ", 3);
+      if (parts.length == 3 && "STAT".equals(parts[0])) {
+        stats.put(parts[1], parts[2]);
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Parses {@code PREFIX <prefix> <name> <value> ...} lines.
+   */
+  static Map<String, Map<String, String>> parsePrefixes(List<String> lines) {
+    Map<String, Map<String, String>> prefixes = new LinkedHashMap<>();
+    for (String line : lines) {
+      String[] parts = line.split(" ");
+      if (parts.length < 2 || !"PREFIX".equals(parts[0])) {
+        continue;
+      }
+      Map<String, String> stats = new LinkedHashMap<>();
+      for (int i = 2; i + 1 < parts.length; i += 2) {
+        stats.put(parts[i], parts[i + 1]);
+      }
+      prefixes.put(parts[1], stats);
+    }
+    return prefixes;
+  }
+
+  /**
+   * @param node the cache node address.
+   * @return the kept samples of the node, oldest first.
+   */
+  public List<StatsSample> getSamples(String node) {
+    return latest(node, Integer.MAX_VALUE);
+  }
+
+  private List<StatsSample> latest(String node, int count) {
+    SampleRing ring = samples.get(node);
+    return ring == null ? Collections.emptyList() : ring.latest(count);
+  }
+
+  /**
+   * @return the rates between the two latest samples of every node that has been polled at least twice.
+   */
+  public Map<String, StatsRates> getRates() {
+    Map<String, StatsRates> rates = new LinkedHashMap<>();
+    for (String node : nodes.keySet()) {
+      List<StatsSample> latest = latest(node, 2);
+      if (latest.size() == 2) {
+        rates.put(node, StatsRates.between(latest.get(0), latest.get(1)));
+      }
+    }
+    return rates;
+  }
+
+  /**
+   * @param node the cache node address.
+   * @return the rates between every two consecutive samples of the node, oldest first.
+   */
+  public List<StatsRates> getRateSeries(String node) {
+    List<StatsSample> series = getSamples(node);
+    List<StatsRates> rates = new ArrayList<>();
+    for (int i = 1; i < series.size(); i++) {
+      rates.add(StatsRates.between(series.get(i - 1), series.get(i)));
+    }
+    return rates;
+  }
+
+  /**
+   * Serves the latest rates and numeric stats of every node in the Prometheus text format
+   * on {@code http://127.0.0.1:<port>/metrics} until the collector is closed.
+   *
+   * @param port the port to listen on, or 0 for any free port.
+   * @return the address the endpoint listens on.
+   * @throws IOException if the port cannot be bound.
+   */
+  public synchronized InetSocketAddress serveMetrics(int port) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("The metrics endpoint was already started.");
+    }
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext("/metrics", exchange -> {
+      byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    return server.getAddress();
+  }
+
+  /**
+   * Formats the latest rates and numeric stats of every node in the Prometheus text format.
+   *
+   * @return the exposition text.
+   */
+  String toPrometheusText() {
+    StringBuilder sb = new StringBuilder();
+    Map<String, StatsRates> rates = getRates();
+    appendGauge(sb, "arcus_ops_per_second", "Retrieval and storage commands per second.", rates,
+            StatsRates::getOpsPerSecond);
+    appendGauge(sb, "arcus_hit_ratio", "Share of the retrievals that hit.", rates, StatsRates::getHitRatio);
+    appendGauge(sb, "arcus_evictions_per_second", "Evicted items per second.", rates,
+            StatsRates::getEvictionsPerSecond);
+    appendGauge(sb, "arcus_bytes", "Bytes used by the items.", rates, r -> (double) r.getBytes());
+    appendGauge(sb, "arcus_connections", "Open connections.", rates, r -> (double) r.getConnections());
+
+    Map<String, Map<String, String>> statsByName = new LinkedHashMap<>();
+    for (String node : nodes.keySet()) {
+      for (StatsSample sample : latest(node, 1)) {
+        for (Map.Entry<String, String> stat : sample.getStats().entrySet()) {
+          if (stat.getValue().matches("-?\\d+(\\.\\d+)?")) {
+            statsByName.computeIfAbsent(stat.getKey(), name -> new LinkedHashMap<>()).put(node, stat.getValue());
+          }
+        }
+      }
+    }
+    for (Map.Entry<String, Map<String, String>> stat : statsByName.entrySet()) {
+      String metric = "arcus_stats_" + stat.getKey().replaceAll("[^a-zA-Z0-9_]", "_");
+      sb.append("# TYPE ").append(metric).append(" untyped\n");
+      stat.getValue().forEach((node, value) ->
+              sb.append(metric).append("{node=\"").append(node).append("\"} ").append(value).append('\n'));
+    }
+    return sb.toString();
+  }
+
+  private static void appendGauge(StringBuilder sb, String metric, String help, Map<String, StatsRates> rates,
+                                  ToDoubleFunction<StatsRates> value) {
+    sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(metric).append(" gauge\n");
+    rates.forEach((node, rate) -> sb.append(metric).append("{node=\"").append(node).append("\"} ")
+            .append(value.applyAsDouble(rate)).append('\n'));
+  }
+
+  /**
+   * Writes the rate series and the latest stats of every node as JSON.
+   *
+   * @param file the file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void writeJson(Path file) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+  }
+
+  String toJson() {
+    JsonWriter json = new JsonWriter().beginObject().name("nodes").beginArray();
+    for (String node : nodes.keySet()) {
+      json.beginObject().name("node").value(node).name("rates").beginArray();
+      for (StatsRates rates : getRateSeries(node)) {
+        json.beginObject()
+                .name("timestamp").value(rates.getTimestamp().toString())
+                .name("opsPerSecond").value(rates.getOpsPerSecond())
+                .name("hitRatio").value(rates.getHitRatio())
+                .name("evictionsPerSecond").value(rates.getEvictionsPerSecond())
+                .name("bytes").value(rates.getBytes())
+                .name("connections").value(rates.getConnections())
+                .endObject();
+      }
+      json.endArray().name("stats").beginObject();
+      for (StatsSample sample : latest(node, 1)) {
+        sample.getStats().forEach((name, value) -> json.name(name).value(value));
+      }
+      json.endObject().endObject();
+    }
+    return json.endArray().endObject().toString();
+  }
+
+  /**
+   * Stops polling and the metrics endpoint. The collected samples stay available.
+   */
+  @Override
+  public synchronized void close() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      try {
+        scheduler.awaitTermination(COMMAND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    connections.values().forEach(ArcusStatsCollector::closeQuietly);
+    connections.clear();
+  }
+
+  private static void closeQuietly(AsciiConnection connection) {
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * A fixed size ring of samples overwriting the oldest sample when full.
+   */
+  private static final class SampleRing {
+    private final StatsSample[] samples;
+    private int next;
+    private int size;
+
+    private SampleRing(int capacity) {
+      this.samples = new StatsSample[capacity];
+    }
+
+    private synchronized void add(StatsSample sample) {
+      samples[next] = sample;
+      next = (next + 1) % samples.length;
+      size = Math.min(size + 1, samples.length);
+    }
+
+    private synchronized List<StatsSample> latest(int count) {
+      int n = Math.min(count, size);
+      List<StatsSample> list = new ArrayList<>(n);
+      for (int i = n; i > 0; i--) {
+        list.add(samples[Math.floorMod(next - i, samples.length)]);
+      }
+      return list;
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the traffic recorded with {@link ArcusContainerProps.Builder#trafficCapture(Path)}
+ * to a fresh {@link ArcusContainer} or {@link ArcusClusterContainer}, at the recorded pace, faster, or at full speed.
+ *
+ * <p>
+ * Every recorded connection is opened again and sends the same bytes at the same offsets from the start,
+ * divided by the speed, while its responses are read and counted. The captures of several nodes keep
+ * their offsets to each other. The capture of the n-th node is sent to the n-th node of the target,
+ * so all requests for a key still meet on one node, even though the target ring places the key elsewhere.
+ * </p>
+ *
+ * <pre>{@code
+ * ReplayReport report = ArcusTrafficReplayer.forCluster(cluster)
+ *                           .speed(2)
+ *                           .replay(recorded.getTrafficCaptures().values());
+ * }</pre>
+ */
+public final class ArcusTrafficReplayer {
+
+  private static final int MAX_ERROR_SAMPLES = 10;
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final List<InetSocketAddress> nodes;
+  private double speed = 1;
+
+  ArcusTrafficReplayer(List<InetSocketAddress> nodes) {
+    this.nodes = nodes;
+  }
+
+  /**
+   * Creates a replayer that sends the captures to the cache nodes of a running cluster, in node order.
+   *
+   * @param cluster the running cluster to replay to.
+   * @return a new replayer.
+   */
+  public static ArcusTrafficReplayer forCluster(ArcusClusterContainer cluster) {
+    return new ArcusTrafficReplayer(new ArrayList<>(cluster.getNodeServersByRingAddress().values()));
+  }
+
+  /**
+   * Creates a replayer that sends all captures to a running standalone container.
+   *
+   * @param container the running container to replay to.
+   * @return a new replayer.
+   */
+  public static ArcusTrafficReplayer forContainer(ArcusContainer container) {
+    return new ArcusTrafficReplayer(Collections.singletonList(InetSocketAddress.createUnresolved(container.getHost(),
+            container.getServerPort(container.getExposedPorts().get(0)))));
+  }
+
+  /**
+   * @param speed The factor the recorded pace is multiplied by, such as 1 for the recorded pace
+   *              or 10 for ten times as fast. Must be greater than 0.
+   * @return this replayer.
+   * @throws IllegalArgumentException If the speed is smaller than or equal to 0 or not a number.
+   */
+  public ArcusTrafficReplayer speed(double speed) {
+    if (!(speed > 0)) {
+      throw new IllegalArgumentException("Invalid speed.");
+    }
+    this.speed = speed;
+    return this;
+  }
+
+  /**
+   * Sends every record as soon as the previous one is sent, ignoring the recorded pace.
+   *
+   * @return this replayer.
+   */
+  public ArcusTrafficReplayer maxSpeed() {
+    this.speed = Double.POSITIVE_INFINITY;
+    return this;
+  }
+
+  public ReplayReport replay(Path... captures) {
+    return replay(Arrays.asList(captures));
+  }
+
+  /**
+   * Replays the captures concurrently and waits until every connection has been answered and closed.
+   * Failed connections are counted in the report instead of being thrown.
+   *
+   * @param captures the capture files, the n-th being sent to the n-th node of the target.
+   * @return the report of the replay.
+   */
+  public ReplayReport replay(Collection<Path> captures) {
+    List<TrafficCapture.Reader> readers = new ArrayList<>();
+    Run run = new Run();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "arcus-traffic-replayer-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    long start;
+    try {
+      for (Path capture : captures) {
+        readers.add(new TrafficCapture.Reader(capture));
+      }
+      long firstEpochMillis = readers.stream()
+              .mapToLong(TrafficCapture.Reader::getStartEpochMillis).min().orElse(0);
+      start = System.nanoTime();
+      List<Future<?>> replays = new ArrayList<>();
+      for (int i = 0; i < readers.size(); i++) {
+        TrafficCapture.Reader reader = readers.get(i);
+        InetSocketAddress node = nodes.get(i % nodes.size());
+        long offset = TimeUnit.MILLISECONDS.toNanos(reader.getStartEpochMillis() - firstEpochMillis);
+        replays.add(executor.submit(() -> {
+          replayCapture(reader, node, start, offset, executor, run);
+          return null;
+        }));
+      }
+      for (Future<?> replay : replays) {
+        replay.get();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read the captures.", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while replaying.", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to replay.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      for (TrafficCapture.Reader reader : readers) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+    return new ReplayReport(run.connections.get(), run.requestBytes.get(), run.responseBytes.get(),
+            Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(run.maxLag.get()),
+            run.errors.get(), new ArrayList<>(run.errorSamples));
+  }
+
+  private void replayCapture(TrafficCapture.Reader reader, InetSocketAddress node, long start, long offset,
+                             ExecutorService executor, Run run) throws IOException, InterruptedException {
+    Map<Integer, Connection> connections = new HashMap<>();
+    List<Future<?>> drains = new ArrayList<>();
+    try {
+      for (TrafficCapture.Record record = reader.next(); record != null; record = reader.next()) {
+        if (speed != Double.POSITIVE_INFINITY) {
+          long scheduled = start + (long) ((offset + record.getNanos()) / speed);
+          long delay = scheduled - System.nanoTime();
+          if (delay > 0) {
+            LockSupport.parkNanos(delay);
+          }
+          run.lag(System.nanoTime() - scheduled);
+        }
+        Connection connection = connections.get(record.getConnection());
+        if (connection == null) {
+          if (record.isClose()) {
+            continue;
+          }
+          connection = open(node, executor, drains, run);
+          connections.put(record.getConnection(), connection);
+        }
+        connection.send(record, run);
+      }
+    } finally {
+      for (Connection connection : connections.values()) {
+        connection.finish();
+      }
+    }
+    for (Future<?> drain : drains) {
+      try {
+        drain.get(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (ExecutionException | TimeoutException e) {
+        run.error(node + " " + e);
+      }
+    }
+  }
+
+  private static Connection open(InetSocketAddress node, ExecutorService executor, List<Future<?>> drains, Run run) {
+    Connection connection = new Connection(node);
+    run.connections.incrementAndGet();
+    try {
+      Socket socket = new Socket();
+      socket.setTcpNoDelay(true);
+      socket.connect(new InetSocketAddress(node.getHostString(), node.getPort()), (int) CONNECT_TIMEOUT.toMillis());
+      connection.socket = socket;
+      connection.out = socket.getOutputStream();
+      InputStream in = socket.getInputStream();
+      drains.add(executor.submit(() -> {
+        byte[] buffer = new byte[64 * 1024];
+        try {
+          int read;
+          while ((read = in.read(buffer)) != -1) {
+            run.responseBytes.addAndGet(read);
+          }
+        } catch (IOException e) {
+          if (!connection.finished) {
+            run.error(node + " " + e);
+          }
+        } finally {
+          connection.close();
+        }
+        return null;
+      }));
+    } catch (IOException e) {
+      run.error(node + " " + e);
+      connection.close();
+    }
+    return connection;
+  }
+
+  /**
+   * A replayed connection. Its responses are drained on another thread, so that the server never blocks on them.
+   */
+  private static final class Connection {
+    private final InetSocketAddress node;
+    private Socket socket;
+    private volatile OutputStream out;
+    private volatile boolean finished;
+
+    private Connection(InetSocketAddress node) {
+      this.node = node;
+    }
+
+    private void send(TrafficCapture.Record record, Run run) {
+      OutputStream stream = out;
+      if (stream == null) {
+        return;
+      }
+      if (record.isClose()) {
+        finish();
+        return;
+      }
+      try {
+        stream.write(record.getData());
+        stream.flush();
+        run.requestBytes.addAndGet(record.getData().length);
+      } catch (IOException e) {
+        run.error(node + " " + e);
+        close();
+      }
+    }
+
+    /**
+     * Closes the sending side, so that the server answers the pending requests and closes the connection.
+     */
+    private void finish() {
+      if (socket != null && !socket.isClosed() && !socket.isOutputShutdown()) {
+        try {
+          socket.shutdownOutput();
+        } catch (IOException e) {
+          close();
+        }
+      }
+    }
+
+    private void close() {
+      finished = true;
+      out = null;
+      if (socket != null) {
+        try {
+          socket.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private static final class Run {
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final List<String> errorSamples = Collections.synchronizedList(new ArrayList<>());
+
+    private void lag(long nanos) {
+      maxLag.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void error(String message) {
+      errors.incrementAndGet();
+      if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+        errorSamples.add(message);
+      }
+    }
+  }
+}
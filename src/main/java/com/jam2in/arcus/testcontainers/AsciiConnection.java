@@ -0,0 +1,143 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * A plain socket connection speaking a line based text protocol,
+ * such as the memcached ASCII protocol or the ZooKeeper four letter words.
+ */
+class AsciiConnection implements Closeable {
+
+  private final Socket socket;
+  private final InputStream in;
+  private final OutputStream out;
+
+  private AsciiConnection(Socket socket) throws IOException {
+    this.socket = socket;
+    this.in = new BufferedInputStream(socket.getInputStream());
+    this.out = new BufferedOutputStream(socket.getOutputStream());
+  }
+
+  /**
+   * Opens a connection to the given address.
+   *
+   * @param host    the host to connect to.
+   * @param port    the port to connect to.
+   * @param timeout the connect and read timeout.
+   * @return an opened connection.
+   * @throws IOException if the connection cannot be established.
+   */
+  static AsciiConnection open(String host, int port, Duration timeout) throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.setSoTimeout((int) timeout.toMillis());
+      socket.connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+      return new AsciiConnection(socket);
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Sends a single command terminated by CRLF and reads the first line of the response.
+   *
+   * @param command the command without the line terminator.
+   * @return the first response line.
+   * @throws IOException if the command cannot be sent or no response is received.
+   */
+  String command(String command) throws IOException {
+    write(command + "\r\n");
+    flush();
+    String line = readLine();
+    if (line == null) {
+      throw new IOException("Connection closed while waiting for the response of " + command + ".");
+    }
+    return line;
+  }
+
+  void write(String data) throws IOException {
+    write(data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  void write(byte[] data) throws IOException {
+    out.write(data);
+  }
+
+  void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * Reads a line terminated by LF, stripping a preceding CR.
+   *
+   * @return the line, or null if the connection was closed before any byte was read.
+   * @throws IOException if reading fails.
+   */
+  String readLine() throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+    int b;
+    while ((b = in.read()) != -1) {
+      if (b == '\n') {
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+      }
+      line.write(b);
+    }
+    return line.size() > 0 ? new String(line.toByteArray(), StandardCharsets.UTF_8) : null;
+  }
+
+  /**
+   * Reads exactly the given number of bytes, such as the data block of an item.
+   *
+   * @param length the number of bytes to read.
+   * @return the bytes read.
+   * @throws IOException if reading fails or the connection is closed before all bytes are read.
+   */
+  byte[] readBytes(int length) throws IOException {
+    byte[] data = new byte[length];
+    int offset = 0;
+    while (offset < length) {
+      int read = in.read(data, offset, length - offset);
+      if (read == -1) {
+        throw new EOFException("Connection closed after " + offset + " of " + length + " bytes.");
+      }
+      offset += read;
+    }
+    return data;
+  }
+
+  /**
+   * Reads everything until the peer closes the connection.
+   *
+   * @return the received data.
+   * @throws IOException if reading fails.
+   */
+  String readToEnd() throws IOException {
+    ByteArrayOutputStream data = new ByteArrayOutputStream(1024);
+    byte[] buffer = new byte[1024];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      data.write(buffer, 0, read);
+    }
+    return new String(data.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
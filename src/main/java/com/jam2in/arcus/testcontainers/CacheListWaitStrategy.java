@@ -0,0 +1,69 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Waits until every cache node has registered its ephemeral znode under the cache_list of a service code.
+ *
+ * <p>
+ * The wait strategy target is the ZooKeeper container.
+ * The ephemeral znodes are read with the {@code dump} four letter word,
+ * which is much cheaper than running zkCli in the container on every poll.
+ * A cache node registers itself as {@code <ip>:<port>-<hostname>}, or as {@code <group>^<role>^<ip>:<port>^...}
+ * in a replicated cluster, so nodes are matched by their port.
+ * </p>
+ */
+public class CacheListWaitStrategy extends PollingWaitStrategy<CacheListWaitStrategy> {
+
+  private final String cacheListPath;
+  private final List<String> cacheNodes;
+  private boolean exactly;
+
+  /**
+   * @param cacheListPath the cache_list znode of the service code.
+   * @param cacheNodes    the addresses of the cache nodes in the form of {@code host:port}.
+   */
+  public CacheListWaitStrategy(String cacheListPath, Collection<String> cacheNodes) {
+    this.cacheListPath = cacheListPath;
+    this.cacheNodes = new ArrayList<>(cacheNodes);
+  }
+
+  /**
+   * Also waits until no other cache node is registered, such as a node that was removed from the cluster.
+   *
+   * @return this strategy.
+   */
+  public CacheListWaitStrategy exactly() {
+    this.exactly = true;
+    return this;
+  }
+
+  @Override
+  protected boolean isReady() throws IOException {
+    String dump = FourLetterWords.send(waitStrategyTarget.getHost(), getFirstMappedPort(), "dump");
+    List<String> registered = new ArrayList<>();
+    for (String line : dump.split("\n")) {
+      String path = line.trim();
+      if (path.startsWith(cacheListPath + "/")) {
+        registered.add(path);
+      }
+    }
+    if (exactly && registered.size() != cacheNodes.size()) {
+      return false;
+    }
+    return cacheNodes.stream().allMatch(node -> isRegistered(registered, node));
+  }
+
+  private static boolean isRegistered(List<String> registered, String node) {
+    String port = node.substring(node.lastIndexOf(':'));
+    return registered.stream().anyMatch(path -> path.contains(port + "-") || path.contains(port + "^"));
+  }
+
+  @Override
+  protected String describe() {
+    return "cache nodes " + cacheNodes + " to register under " + cacheListPath;
+  }
+}
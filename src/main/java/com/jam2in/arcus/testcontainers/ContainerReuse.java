@@ -0,0 +1,174 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateNetworkCmd;
+import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.model.Container;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.rules.ExternalResource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.utility.TestcontainersConfiguration;
+
+/**
+ * Finds the containers left running by a reusable cluster or container of an earlier run.
+ *
+ * <p>
+ * The containers are labelled with a fingerprint of the image, the {@link ArcusContainerProps} and the command line,
+ * and with their address, whose port is the host port they publish.
+ * A later run with the same fingerprint takes the ports from the labels instead of reserving new ones,
+ * so the create commands are identical and Testcontainers attaches to the running containers.
+ * The network of a cluster is named after the fingerprint and kept, for the same reason.
+ * </p>
+ */
+final class ContainerReuse {
+
+  static final String FINGERPRINT_LABEL = "com.jam2in.arcus.fingerprint";
+  static final String ADDRESS_LABEL = "com.jam2in.arcus.address";
+
+  private ContainerReuse() {
+  }
+
+  /**
+   * Tells if the containers are to be reused. Like {@link GenericContainer#withReuse(boolean)},
+   * it needs {@code testcontainers.reuse.enable=true} in {@code ~/.testcontainers.properties},
+   * so that CI runs do not leave containers behind.
+   */
+  static boolean isEnabled(ArcusContainerProps props) {
+    return props.isReuse() && TestcontainersConfiguration.getInstance().environmentSupportsReuse();
+  }
+
+  /**
+   * @param parts the configuration of the containers.
+   * @return the hex encoded SHA-256 hash of the parts.
+   */
+  static String fingerprint(Object... parts) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (Object part : parts) {
+      digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest()) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the addresses of the running containers with the fingerprint.
+   */
+  static List<String> findAddresses(String fingerprint) {
+    List<String> addresses = new ArrayList<>();
+    for (Container container : listContainers(fingerprint, false)) {
+      String address = container.getLabels().get(ADDRESS_LABEL);
+      if (address != null) {
+        addresses.add(address);
+      }
+    }
+    return addresses;
+  }
+
+  /**
+   * Removes all containers with the fingerprint, such as the rest of a cluster whose node was stopped by hand.
+   */
+  static void removeAll(String fingerprint) {
+    DockerClient client = DockerClientFactory.instance().client();
+    for (Container container : listContainers(fingerprint, true)) {
+      client.removeContainerCmd(container.getId()).withForce(true).withRemoveVolumes(true).exec();
+    }
+  }
+
+  /**
+   * Labels the container and makes it reusable. Its only network alias is the host part of the address,
+   * because the random alias given by Testcontainers would change its create command on every run.
+   */
+  static void mark(GenericContainer<?> container, String fingerprint, String address) {
+    container.withReuse(true);
+    container.withLabel(FINGERPRINT_LABEL, fingerprint);
+    container.withLabel(ADDRESS_LABEL, address);
+    container.setNetworkAliases(new ArrayList<>(Collections.singletonList(address.split(":")[0])));
+  }
+
+  /**
+   * @param address an address from {@link #findAddresses(String)}.
+   * @return the host port of the address.
+   */
+  static int port(String address) {
+    return Integer.parseInt(address.substring(address.lastIndexOf(':') + 1));
+  }
+
+  private static List<Container> listContainers(String fingerprint, boolean showAll) {
+    return DockerClientFactory.instance().client().listContainersCmd()
+            .withLabelFilter(Collections.singletonMap(FINGERPRINT_LABEL, fingerprint))
+            .withShowAll(showAll)
+            .exec();
+  }
+
+  /**
+   * A network named after the fingerprint, which is created once and kept running with the containers.
+   */
+  static final class NamedNetwork extends ExternalResource implements Network {
+
+    private final String fingerprint;
+    private final String name;
+    private final Consumer<CreateNetworkCmd> createNetworkCmdModifier;
+    private volatile String id;
+
+    NamedNetwork(String fingerprint, Consumer<CreateNetworkCmd> createNetworkCmdModifier) {
+      this.fingerprint = fingerprint;
+      this.name = "arcus-" + fingerprint.substring(0, 12);
+      this.createNetworkCmdModifier = createNetworkCmdModifier;
+    }
+
+    @Override
+    public synchronized String getId() {
+      if (id == null) {
+        id = find();
+      }
+      if (id == null) {
+        CreateNetworkCmd cmd = DockerClientFactory.instance().client().createNetworkCmd()
+                .withName(name)
+                .withCheckDuplicate(true)
+                .withLabels(Collections.singletonMap(FINGERPRINT_LABEL, fingerprint));
+        createNetworkCmdModifier.accept(cmd);
+        try {
+          id = cmd.exec().getId();
+        } catch (ConflictException e) {
+          // created by another JVM in the meantime.
+          id = find();
+        }
+      }
+      return id;
+    }
+
+    private String find() {
+      return DockerClientFactory.instance().client().listNetworksCmd().withNameFilter(name).exec().stream()
+              .filter(network -> name.equals(network.getName()))
+              .map(com.github.dockerjava.api.model.Network::getId)
+              .findFirst()
+              .orElse(null);
+    }
+
+    /**
+     * Keeps the network, since the reused containers stay connected to it.
+     */
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The state transitions of a cache node, ZooKeeper or replication group during a fault injected
+ * by {@link ArcusClusterContainer}, in the order they were observed.
+ *
+ * <pre>{@code
+ * FaultTimeline timeline = cluster.restart(cluster.getCacheNodes().get(0));
+ * Duration downtime = timeline.between(Transition.REQUESTED, Transition.READY);
+ * }</pre>
+ */
+public final class FaultTimeline {
+
+  public enum Transition {
+    /** The fault was requested. */
+    REQUESTED,
+    /** The container was observed as not running after a kill. */
+    KILLED,
+    /** The container was frozen. */
+    PAUSED,
+    /** The container was thawed. */
+    UNPAUSED,
+    /** The container was running again after a restart. */
+    RESTARTED,
+    /** The server answered its readiness probe again. */
+    READY,
+    /** The traffic control rules were installed in the network namespace of the container. */
+    NETWORK_FAULT_APPLIED,
+    /** The traffic control rules were removed from the network namespace of the container. */
+    NETWORK_FAULT_CLEARED,
+    /** Another node of the replication group was registered as its master. */
+    SWITCHED_OVER,
+    /** Another ZooKeeper server was elected as the leader of the ensemble. */
+    LEADER_ELECTED
+  }
+
+  private final String target;
+  private final Map<Transition, Instant> transitions = new EnumMap<>(Transition.class);
+
+  FaultTimeline(String target) {
+    this.target = target;
+    record(Transition.REQUESTED);
+  }
+
+  FaultTimeline record(Transition transition) {
+    transitions.put(transition, Instant.now());
+    return this;
+  }
+
+  /**
+   * @return the cache node address, ZooKeeper server address or replication group
+   *         the fault was injected into.
+   */
+  public String getTarget() {
+    return target;
+  }
+
+  /**
+   * @return the time of every observed transition.
+   */
+  public Map<Transition, Instant> getTransitions() {
+    return Collections.unmodifiableMap(transitions);
+  }
+
+  /**
+   * @param transition the transition.
+   * @return the time of the transition, or null if it was not observed.
+   */
+  public Instant get(Transition transition) {
+    return transitions.get(transition);
+  }
+
+  /**
+   * @param from the earlier transition.
+   * @param to   the later transition.
+   * @return the time between the two transitions.
+   * @throws IllegalArgumentException If one of the transitions was not observed.
+   */
+  public Duration between(Transition from, Transition to) {
+    Instant start = transitions.get(from);
+    Instant end = transitions.get(to);
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("Transition not observed: " + (start == null ? from : to));
+    }
+    return Duration.between(start, end);
+  }
+
+  @Override
+  public String toString() {
+    return "FaultTimeline{"
+            + "target=" + target
+            + ", transitions=" + transitions
+            + '}';
+  }
+}
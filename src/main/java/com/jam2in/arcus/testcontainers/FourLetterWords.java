@@ -0,0 +1,26 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+
+/**
+ * Sends ZooKeeper four letter word commands.
+ * The commands have to be allowed by the {@code 4lw.commands.whitelist} of the server.
+ */
+final class FourLetterWords {
+
+  /**
+   * The four letter words used by this library, in the format of {@code ZOO_4LW_COMMANDS_WHITELIST}.
+   */
+  static final String WHITELIST = "srvr,ruok,dump,mntr";
+
+  private FourLetterWords() {
+  }
+
+  static String send(String host, int port, String command) throws IOException {
+    try (AsciiConnection connection = AsciiConnection.open(host, port, PollingWaitStrategy.PROBE_TIMEOUT)) {
+      connection.write(command);
+      connection.flush();
+      return connection.readToEnd();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Network;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * An IPv4 subnet of a Docker network, on which containers can be given fixed addresses.
+ *
+ * <p>
+ * Docker only assigns a fixed address on a network whose subnet was configured when it was created,
+ * and such a subnet must not overlap any other network of the host.
+ * {@link #allocate()} therefore takes the subnet Docker picks from its own address pools for a probe network,
+ * which is removed again once the subnet is taken. A subnet handed out in this JVM is not handed out again
+ * for a minute, until the network it was allocated for exists, so that clusters starting in parallel
+ * get different subnets.
+ * </p>
+ */
+final class Ipv4Subnet {
+
+  private static final int MAX_ATTEMPTS = 10;
+  private static final Duration PENDING_TIMEOUT = Duration.ofMinutes(1);
+
+  // the subnets handed out in this JVM, with the expiry of their reservation.
+  private static final Map<String, Long> PENDING = new HashMap<>();
+
+  private final int address;
+  private final int prefixLength;
+
+  private Ipv4Subnet(int address, int prefixLength) {
+    this.address = address;
+    this.prefixLength = prefixLength;
+  }
+
+  /**
+   * @param cidr the subnet in CIDR notation, such as {@code 172.18.0.0/16}.
+   * @return the subnet.
+   * @throws IllegalArgumentException if the subnet is not an IPv4 subnet in CIDR notation.
+   */
+  static Ipv4Subnet parse(String cidr) {
+    String[] split = cidr.split("/");
+    String[] octets = split[0].split("\\.");
+    if (split.length != 2 || octets.length != 4) {
+      throw new IllegalArgumentException("Invalid IPv4 subnet: " + cidr);
+    }
+    try {
+      int address = 0;
+      for (String octet : octets) {
+        address = address << 8 | Integer.parseInt(octet);
+      }
+      int prefixLength = Integer.parseInt(split[1]);
+      if (prefixLength < 0 || prefixLength > 30) {
+        throw new IllegalArgumentException("Invalid IPv4 subnet: " + cidr);
+      }
+      int mask = prefixLength == 0 ? 0 : -1 << (32 - prefixLength);
+      return new Ipv4Subnet(address & mask, prefixLength);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid IPv4 subnet: " + cidr, e);
+    }
+  }
+
+  /**
+   * @return the IPv4 subnet of the network.
+   * @throws IllegalStateException if the network has no IPv4 subnet.
+   */
+  static Ipv4Subnet of(Network network) {
+    if (network.getIpam() != null && network.getIpam().getConfig() != null) {
+      for (Network.Ipam.Config config : network.getIpam().getConfig()) {
+        if (config.getSubnet() != null && config.getSubnet().contains(".")) {
+          return parse(config.getSubnet());
+        }
+      }
+    }
+    throw new IllegalStateException("The network " + network.getName() + " has no IPv4 subnet.");
+  }
+
+  /**
+   * @return the IPv4 subnet of the network with the id.
+   */
+  static Ipv4Subnet of(String networkId) {
+    return of(DockerClientFactory.instance().client().inspectNetworkCmd().withNetworkId(networkId).exec());
+  }
+
+  /**
+   * Finds a subnet that no network of the host uses, to create a network with.
+   *
+   * @return the subnet.
+   * @throws RuntimeException if no subnet was found.
+   */
+  static synchronized Ipv4Subnet allocate() {
+    DockerClient client = DockerClientFactory.instance().client();
+    List<String> probes = new ArrayList<>();
+    try {
+      for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+        String id = client.createNetworkCmd()
+                .withName("arcus-subnet-probe-" + UUID.randomUUID())
+                .exec()
+                .getId();
+        // a probe is only removed at the end, so that the next probe is given another subnet.
+        probes.add(id);
+        Ipv4Subnet subnet = of(id);
+        long now = System.nanoTime();
+        PENDING.values().removeIf(expiry -> expiry - now < 0);
+        if (PENDING.putIfAbsent(subnet.toString(), now + PENDING_TIMEOUT.toNanos()) == null) {
+          return subnet;
+        }
+      }
+    } finally {
+      for (String id : probes) {
+        client.removeNetworkCmd(id).exec();
+      }
+    }
+    throw new RuntimeException("Failed to allocate a subnet after " + MAX_ATTEMPTS + " attempts.");
+  }
+
+  /**
+   * @param offset the offset from the first address of the subnet.
+   * @return the address at the offset.
+   * @throws IllegalArgumentException if the address is not a host address of the subnet.
+   */
+  String address(int offset) {
+    if (offset <= 0 || offset >= (1L << (32 - prefixLength)) - 1) {
+      throw new IllegalArgumentException("Invalid offset in " + this + ": " + offset);
+    }
+    return format(address + offset);
+  }
+
+  /**
+   * @return the upper half of the subnet, to keep the addresses Docker assigns itself out of the lower half.
+   */
+  String upperHalf() {
+    return format(address + (1 << (31 - prefixLength))) + "/" + (prefixLength + 1);
+  }
+
+  private static String format(int address) {
+    return (address >>> 24) + "." + (address >> 16 & 0xFF) + "." + (address >> 8 & 0xFF) + "." + (address & 0xFF);
+  }
+
+  @Override
+  public String toString() {
+    return format(address) + "/" + prefixLength;
+  }
+}
@@ -0,0 +1,119 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.Locale;
+
+/**
+ * A minimal streaming JSON writer for the reports of this library, which has no JSON dependency.
+ * Commas between members and elements are inserted automatically.
+ */
+class JsonWriter {
+
+  private final StringBuilder sb = new StringBuilder();
+  private boolean needsComma;
+
+  JsonWriter beginObject() {
+    separate();
+    sb.append('{');
+    needsComma = false;
+    return this;
+  }
+
+  JsonWriter endObject() {
+    sb.append('}');
+    needsComma = true;
+    return this;
+  }
+
+  JsonWriter beginArray() {
+    separate();
+    sb.append('[');
+    needsComma = false;
+    return this;
+  }
+
+  JsonWriter endArray() {
+    sb.append(']');
+    needsComma = true;
+    return this;
+  }
+
+  JsonWriter name(String name) {
+    separate();
+    quote(name);
+    sb.append(':');
+    needsComma = false;
+    return this;
+  }
+
+  JsonWriter value(String value) {
+    separate();
+    if (value == null) {
+      sb.append("null");
+    } else {
+      quote(value);
+    }
+    needsComma = true;
+    return this;
+  }
+
+  JsonWriter value(long value) {
+    separate();
+    sb.append(value);
+    needsComma = true;
+    return this;
+  }
+
+  JsonWriter value(double value) {
+    separate();
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      sb.append("null");
+    } else {
+      sb.append(String.format(Locale.ROOT, "%.6g", value));
+    }
+    needsComma = true;
+    return this;
+  }
+
+  private void separate() {
+    if (needsComma) {
+      sb.append(',');
+      needsComma = false;
+    }
+  }
+
+  private void quote(String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    sb.append('"');
+  }
+
+  @Override
+  public String toString() {
+    return sb.toString();
+  }
+}
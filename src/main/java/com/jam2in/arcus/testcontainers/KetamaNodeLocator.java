@@ -0,0 +1,103 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Locates the cache node owning a key with the same consistent hash ring as the Arcus java client,
+ * so that items can be sent straight to the node a client reads them from.
+ *
+ * <p>
+ * Every node is placed on the ring 160 times, using the MD5 digests of {@code <ip>:<port>-<n>}.
+ * A key belongs to the first node at or after the first four bytes of its MD5 digest,
+ * and the smallest node address wins when two nodes share a point.
+ * </p>
+ */
+class KetamaNodeLocator {
+
+  private static final int NODE_REPETITIONS = 160;
+  private static final long HASH_SPACE = 1L << 32;
+
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+  private final List<String> nodes;
+
+  /**
+   * @param nodes the node addresses as registered in the cache_list, in the form of {@code <ip>:<port>}.
+   */
+  KetamaNodeLocator(Collection<String> nodes) {
+    if (nodes.isEmpty()) {
+      throw new IllegalArgumentException("No cache nodes to locate.");
+    }
+    this.nodes = new ArrayList<>(nodes);
+    for (String node : this.nodes) {
+      for (int i = 0; i < NODE_REPETITIONS / 4; i++) {
+        byte[] digest = md5(node + "-" + i);
+        for (int h = 0; h < 4; h++) {
+          ring.merge(hashPoint(digest, h), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+        }
+      }
+    }
+  }
+
+  List<String> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @param key the item key.
+   * @return the address of the node owning the key.
+   */
+  String getPrimary(String key) {
+    return owner(hashPoint(md5(key), 0));
+  }
+
+  /**
+   * Computes the share of the hash space owned by a different node on the two rings,
+   * which is the expected share of the keys that move when the cluster changes from one ring to the other.
+   *
+   * @param before the ring before the change.
+   * @param after  the ring after the change.
+   * @return the moved share, from 0 to 1.
+   */
+  static double movedRatio(KetamaNodeLocator before, KetamaNodeLocator after) {
+    TreeSet<Long> points = new TreeSet<>(before.ring.keySet());
+    points.addAll(after.ring.keySet());
+    // every hash in (previous, point] has the same owner as the point itself on both rings.
+    long moved = 0;
+    long previous = points.last() - HASH_SPACE;
+    for (long point : points) {
+      if (!before.owner(point).equals(after.owner(point))) {
+        moved += point - previous;
+      }
+      previous = point;
+    }
+    return (double) moved / HASH_SPACE;
+  }
+
+  private String owner(long point) {
+    Map.Entry<Long, String> entry = ring.ceilingEntry(point);
+    return (entry != null ? entry : ring.firstEntry()).getValue();
+  }
+
+  private static long hashPoint(byte[] digest, int index) {
+    return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+            | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+            | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+            | (digest[index * 4] & 0xFF);
+  }
+
+  private static byte[] md5(String value) {
+    try {
+      return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not supported.", e);
+    }
+  }
+}
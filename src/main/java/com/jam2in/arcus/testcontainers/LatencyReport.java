@@ -0,0 +1,139 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.jam2in.arcus.testcontainers.ArcusLoadGenerator.Operation;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of an {@link ArcusLoadGenerator} run.
+ * The latencies are measured from the time every request was scheduled, and have a precision of 1/64.
+ */
+public final class LatencyReport {
+
+  private final int targetRate;
+  private final Duration elapsed;
+  private final Map<Operation, LatencyHistogram> histograms;
+  private final Map<Operation, Long> errors;
+  private final List<String> errorSamples;
+
+  LatencyReport(int targetRate, Duration elapsed, Map<Operation, LatencyHistogram> histograms,
+                Map<Operation, Long> errors, List<String> errorSamples) {
+    this.targetRate = targetRate;
+    this.elapsed = elapsed;
+    this.histograms = new EnumMap<>(Operation.class);
+    this.histograms.putAll(histograms);
+    this.errors = new EnumMap<>(Operation.class);
+    this.errors.putAll(errors);
+    this.errorSamples = Collections.unmodifiableList(errorSamples);
+  }
+
+  /**
+   * @return the operations with at least one measured request.
+   */
+  public Set<Operation> getOperations() {
+    Set<Operation> operations = EnumSet.noneOf(Operation.class);
+    operations.addAll(histograms.keySet());
+    operations.addAll(errors.keySet());
+    return operations;
+  }
+
+  /**
+   * @return the number of requests of the operation that succeeded.
+   */
+  public long getCount(Operation operation) {
+    LatencyHistogram histogram = histograms.get(operation);
+    return histogram == null ? 0 : histogram.getCount();
+  }
+
+  /**
+   * @return the number of requests of the operation that failed.
+   */
+  public long getErrors(Operation operation) {
+    return errors.getOrDefault(operation, 0L);
+  }
+
+  /**
+   * @param operation  the operation.
+   * @param percentile the percentile from 0 to 100, such as 99.9.
+   * @return the latency of the operation at the percentile, or zero if no request succeeded.
+   */
+  public Duration getLatency(Operation operation, double percentile) {
+    LatencyHistogram histogram = histograms.get(operation);
+    return Duration.ofNanos(histogram == null ? 0 : histogram.getValueAtPercentile(percentile));
+  }
+
+  public Duration getP50(Operation operation) {
+    return getLatency(operation, 50);
+  }
+
+  public Duration getP99(Operation operation) {
+    return getLatency(operation, 99);
+  }
+
+  public Duration getP999(Operation operation) {
+    return getLatency(operation, 99.9);
+  }
+
+  public Duration getMax(Operation operation) {
+    LatencyHistogram histogram = histograms.get(operation);
+    return Duration.ofNanos(histogram == null ? 0 : histogram.getMax());
+  }
+
+  /**
+   * @return the number of requests scheduled per second.
+   */
+  public int getTargetRate() {
+    return targetRate;
+  }
+
+  /**
+   * @return the time from the first measured request until the last response.
+   */
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * @return the number of measured requests completed per second,
+   *         below the target rate if the cache nodes could not keep up.
+   */
+  public double getAchievedRate() {
+    long requests = 0;
+    for (Operation operation : getOperations()) {
+      requests += getCount(operation) + getErrors(operation);
+    }
+    long nanos = Math.max(elapsed.toNanos(), 1);
+    return requests * 1_000_000_000.0 / nanos;
+  }
+
+  /**
+   * @return the first error responses or exceptions, for diagnosis.
+   */
+  public List<String> getErrorSamples() {
+    return errorSamples;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("LatencyReport{")
+            .append("targetRate=").append(targetRate)
+            .append(", achievedRate=").append(String.format("%.1f", getAchievedRate()))
+            .append(", elapsed=").append(elapsed);
+    for (Operation operation : getOperations()) {
+      sb.append(String.format(", %s={count=%d, errors=%d, p50=%s, p99=%s, p99.9=%s, max=%s}",
+              operation, getCount(operation), getErrors(operation), micros(getP50(operation)),
+              micros(getP99(operation)), micros(getP999(operation)), micros(getMax(operation))));
+    }
+    return sb.append('}').toString();
+  }
+
+  private static String micros(Duration latency) {
+    return String.format("%.1fus", latency.toNanos() / 1000.0);
+  }
+}
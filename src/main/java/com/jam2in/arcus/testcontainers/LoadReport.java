@@ -0,0 +1,76 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of an {@link ArcusBulkLoader} run.
+ */
+public final class LoadReport {
+
+  private final long items;
+  private final long commands;
+  private final long errors;
+  private final Duration elapsed;
+  private final List<String> errorSamples;
+
+  LoadReport(long items, long commands, long errors, Duration elapsed, List<String> errorSamples) {
+    this.items = items;
+    this.commands = commands;
+    this.errors = errors;
+    this.elapsed = elapsed;
+    this.errorSamples = Collections.unmodifiableList(errorSamples);
+  }
+
+  /**
+   * @return the number of items submitted.
+   */
+  public long getItems() {
+    return items;
+  }
+
+  /**
+   * @return the number of storage commands sent, one per key-value item or collection element.
+   */
+  public long getCommands() {
+    return commands;
+  }
+
+  /**
+   * @return the number of storage commands that failed.
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * @return the number of storage commands completed per second.
+   */
+  public double getCommandsPerSecond() {
+    long nanos = Math.max(elapsed.toNanos(), 1);
+    return commands * 1_000_000_000.0 / nanos;
+  }
+
+  /**
+   * @return the first error responses or exceptions, for diagnosis.
+   */
+  public List<String> getErrorSamples() {
+    return errorSamples;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadReport{"
+            + "items=" + items
+            + ", commands=" + commands
+            + ", errors=" + errors
+            + ", elapsed=" + elapsed
+            + ", commandsPerSecond=" + String.format("%.1f", getCommandsPerSecond())
+            + '}';
+  }
+}
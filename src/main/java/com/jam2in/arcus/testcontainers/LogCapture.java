@@ -0,0 +1,197 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.testcontainers.containers.output.OutputFrame;
+
+/**
+ * Keeps the latest output of a container in a ring buffer of a fixed number of bytes,
+ * so that the log of a crashed cache node or ZooKeeper can still be written to a file after it stopped.
+ *
+ * <p>
+ * The capture runs on the thread that reads the log stream from Docker, which must never wait on it.
+ * Output beyond the configured bytes per second is therefore dropped and counted instead of being buffered,
+ * and a marker with the number of dropped bytes is kept in its place.
+ * Known lines, such as an expired ZooKeeper session or a failed memory allocation, are kept as {@link LogEvent}s.
+ * They are recognized in all output, including the dropped, and a line is cut to its last 8 KiB.
+ * </p>
+ */
+public final class LogCapture implements Consumer<OutputFrame> {
+
+  private static final int MAX_EVENTS = 1000;
+  private static final int MAX_LINE_LENGTH = 8192;
+
+  private final String source;
+  private final byte[] buffer;
+  private final long bytesPerSecond;
+  private final Deque<LogEvent> events = new ArrayDeque<>();
+  private final StringBuilder partialLine = new StringBuilder();
+
+  private int next;
+  private long written;
+  private double tokens;
+  private long lastRefill = System.nanoTime();
+  private long droppedBytes;
+  private long droppedSinceMarker;
+
+  /**
+   * @param source         the cache node address or {@link ArcusClusterContainer#ZOOKEEPER} the output belongs to.
+   * @param bufferBytes    the number of latest bytes to keep.
+   * @param bytesPerSecond the number of bytes accepted per second, or 0 for no limit.
+   */
+  LogCapture(String source, int bufferBytes, long bytesPerSecond) {
+    this.source = source;
+    this.buffer = new byte[bufferBytes];
+    this.bytesPerSecond = bytesPerSecond;
+    this.tokens = bytesPerSecond;
+  }
+
+  @Override
+  public synchronized void accept(OutputFrame frame) {
+    byte[] bytes = frame.getBytes();
+    if (bytes == null || bytes.length == 0) {
+      return;
+    }
+    parse(new String(bytes, StandardCharsets.UTF_8));
+    if (!acquire(bytes.length)) {
+      droppedBytes += bytes.length;
+      droppedSinceMarker += bytes.length;
+      return;
+    }
+    if (droppedSinceMarker > 0) {
+      write(("[" + droppedSinceMarker + " bytes dropped by the rate limit]\n").getBytes(StandardCharsets.UTF_8));
+      droppedSinceMarker = 0;
+    }
+    write(bytes);
+  }
+
+  /**
+   * Takes tokens from a bucket refilled at the configured rate and holding at most one second of output.
+   * A frame longer than one second of output is accepted once the bucket is full, leaving it in debt,
+   * so that the average rate is kept and long frames are not dropped forever.
+   */
+  private boolean acquire(int length) {
+    if (bytesPerSecond <= 0) {
+      return true;
+    }
+    long now = System.nanoTime();
+    tokens = Math.min(bytesPerSecond, tokens + (now - lastRefill) * bytesPerSecond / 1_000_000_000.0);
+    lastRefill = now;
+    if (tokens < Math.min(length, bytesPerSecond)) {
+      return false;
+    }
+    tokens -= length;
+    return true;
+  }
+
+  private void write(byte[] bytes) {
+    int offset = Math.max(bytes.length - buffer.length, 0);
+    int length = bytes.length - offset;
+    int first = Math.min(length, buffer.length - next);
+    System.arraycopy(bytes, offset, buffer, next, first);
+    System.arraycopy(bytes, offset + first, buffer, 0, length - first);
+    next = (next + length) % buffer.length;
+    written += bytes.length;
+  }
+
+  private void parse(String text) {
+    partialLine.append(text);
+    int end;
+    while ((end = partialLine.indexOf("\n")) >= 0) {
+      String line = partialLine.substring(Math.max(end - MAX_LINE_LENGTH, 0), end).trim();
+      partialLine.delete(0, end + 1);
+      for (LogEvent.Type type : LogEvent.Type.values()) {
+        if (type.matches(line)) {
+          if (events.size() == MAX_EVENTS) {
+            events.removeFirst();
+          }
+          events.addLast(new LogEvent(type, source, Instant.now(), line));
+          break;
+        }
+      }
+    }
+    if (partialLine.length() > MAX_LINE_LENGTH) {
+      partialLine.delete(0, partialLine.length() - MAX_LINE_LENGTH);
+    }
+  }
+
+  /**
+   * @return the cache node address or {@link ArcusClusterContainer#ZOOKEEPER} the output belongs to.
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return the kept output, oldest byte first.
+   */
+  public synchronized byte[] getBytes() {
+    if (written < buffer.length) {
+      byte[] bytes = new byte[next];
+      System.arraycopy(buffer, 0, bytes, 0, next);
+      return bytes;
+    }
+    byte[] bytes = new byte[buffer.length];
+    System.arraycopy(buffer, next, bytes, 0, buffer.length - next);
+    System.arraycopy(buffer, 0, bytes, buffer.length - next, next);
+    return bytes;
+  }
+
+  /**
+   * @return the kept output decoded as UTF-8.
+   */
+  public String getText() {
+    return new String(getBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the recognized lines, oldest first. Only the latest 1000 events are kept.
+   */
+  public synchronized List<LogEvent> getEvents() {
+    return new ArrayList<>(events);
+  }
+
+  /**
+   * @return the number of bytes dropped by the rate limit.
+   */
+  public synchronized long getDroppedBytes() {
+    return droppedBytes;
+  }
+
+  /**
+   * Writes the kept output to a file, preceded by a line telling how much older output was discarded.
+   *
+   * @param file the file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void dump(Path file) throws IOException {
+    byte[] bytes;
+    long discarded;
+    long dropped;
+    synchronized (this) {
+      bytes = getBytes();
+      discarded = written - bytes.length;
+      dropped = droppedBytes;
+    }
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    try (OutputStream out = Files.newOutputStream(file)) {
+      if (discarded > 0 || dropped > 0) {
+        out.write(("[" + source + ": " + discarded + " older bytes discarded, "
+                + dropped + " bytes dropped by the rate limit]\n").getBytes(StandardCharsets.UTF_8));
+      }
+      out.write(bytes);
+    }
+  }
+}
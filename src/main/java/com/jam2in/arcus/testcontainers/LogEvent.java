@@ -0,0 +1,76 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * A known line of a cache node or ZooKeeper log, recognized by {@link LogCapture}.
+ */
+public final class LogEvent {
+
+  public enum Type {
+    /** A ZooKeeper session expired, so the ephemeral znodes of its cache node were removed. */
+    ZK_SESSION_EXPIRED("(?i)expiring session|session expired|SESSION_EXPIRED"),
+    /** A ZooKeeper client lost its connection and is reconnecting. */
+    ZK_CONNECTION_LOSS("(?i)connection ?loss|CONNECTION_LOSS|unable to read additional data from (client|server)"),
+    /** The cache node failed to allocate memory. */
+    OUT_OF_MEMORY("(?i)out of memory|\\bOOM\\b|memory allocation fail"),
+    /** The process aborted or crashed. */
+    CRASH("(?i)segmentation fault|\\bSIGSEGV\\b|core dumped|assertion .* failed");
+
+    private final Pattern pattern;
+
+    Type(String regex) {
+      this.pattern = Pattern.compile(regex);
+    }
+
+    boolean matches(String line) {
+      return pattern.matcher(line).find();
+    }
+  }
+
+  private final Type type;
+  private final String source;
+  private final Instant timestamp;
+  private final String line;
+
+  LogEvent(Type type, String source, Instant timestamp, String line) {
+    this.type = type;
+    this.source = source;
+    this.timestamp = timestamp;
+    this.line = line;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the cache node address or {@link ArcusClusterContainer#ZOOKEEPER} that logged the line,
+   * or the host name of the container running all cache nodes of a single container cluster.
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return the time the line was received from Docker.
+   */
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  public String getLine() {
+    return line;
+  }
+
+  @Override
+  public String toString() {
+    return "LogEvent{"
+            + "type=" + type
+            + ", source=" + source
+            + ", timestamp=" + timestamp
+            + ", line=" + line
+            + '}';
+  }
+}
@@ -0,0 +1,27 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+
+/**
+ * Waits until the memcached server answers a {@code version} command on its first exposed port.
+ *
+ * <p>
+ * Unlike the default listening port check, this succeeds only once memcached is
+ * processing commands.
+ * </p>
+ */
+public class MemcachedWaitStrategy extends PollingWaitStrategy<MemcachedWaitStrategy> {
+
+  @Override
+  protected boolean isReady() throws IOException {
+    try (AsciiConnection connection = AsciiConnection.open(
+            waitStrategyTarget.getHost(), getFirstMappedPort(), PROBE_TIMEOUT)) {
+      return connection.command("version").startsWith("VERSION ");
+    }
+  }
+
+  @Override
+  protected String describe() {
+    return "memcached to answer the version command";
+  }
+}
@@ -0,0 +1,196 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The network conditions of a cache node or ZooKeeper, such as those of another availability zone,
+ * applied with netem to the packets the container sends.
+ * Since the packets it receives are not shaped, the latency adds to the round trip of every request once.
+ *
+ * <pre>{@code
+ * NetworkProfile crossZone = NetworkProfile.builder()
+ *                                .latency(Duration.ofMillis(2))
+ *                                .jitter(Duration.ofMillis(1))
+ *                                .bandwidth(1_000_000_000L)
+ *                                .build();
+ * }</pre>
+ */
+public final class NetworkProfile {
+
+  private final Duration latency;
+  private final Duration jitter;
+  private final long bandwidth;
+  private final double lossPercent;
+
+  private NetworkProfile(Builder builder) {
+    this.latency = builder.latency;
+    this.jitter = builder.jitter;
+    this.bandwidth = builder.bandwidth;
+    this.lossPercent = builder.lossPercent;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return the delay added to every packet sent.
+   */
+  public Duration getLatency() {
+    return latency;
+  }
+
+  /**
+   * @return the range the delay varies by, up or down, for every packet.
+   */
+  public Duration getJitter() {
+    return jitter;
+  }
+
+  /**
+   * @return the bits sent per second at most, or 0 for no limit.
+   */
+  public long getBandwidth() {
+    return bandwidth;
+  }
+
+  /**
+   * @return the percentage of packets dropped.
+   */
+  public double getLossPercent() {
+    return lossPercent;
+  }
+
+  /**
+   * @return the arguments of {@code tc qdisc ... netem} for the profile.
+   */
+  List<String> toNetemArgs() {
+    List<String> args = new ArrayList<>();
+    if (!latency.isZero() || !jitter.isZero()) {
+      args.add("delay");
+      args.add(latency.toNanos() / 1000 + "us");
+      if (!jitter.isZero()) {
+        args.add(jitter.toNanos() / 1000 + "us");
+      }
+    }
+    if (lossPercent > 0) {
+      args.add("loss");
+      args.add(String.format(Locale.ROOT, "%.4f%%", lossPercent));
+    }
+    if (bandwidth > 0) {
+      args.add("rate");
+      args.add(bandwidth + "bit");
+    }
+    return args;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    NetworkProfile that = (NetworkProfile) o;
+    return bandwidth == that.bandwidth
+            && Double.compare(lossPercent, that.lossPercent) == 0
+            && latency.equals(that.latency)
+            && jitter.equals(that.jitter);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(latency, jitter, bandwidth, lossPercent);
+  }
+
+  @Override
+  public String toString() {
+    return "NetworkProfile{"
+            + "latency=" + latency
+            + ", jitter=" + jitter
+            + ", bandwidth=" + bandwidth
+            + ", lossPercent=" + lossPercent
+            + '}';
+  }
+
+  /**
+   * A builder of a NetworkProfile. A profile without any setting leaves the packets as they are.
+   */
+  public static final class Builder {
+    private Duration latency = Duration.ZERO;
+    private Duration jitter = Duration.ZERO;
+    private long bandwidth = 0;
+    private double lossPercent = 0;
+
+    private Builder() {
+    }
+
+    /**
+     * @param latency The delay added to every packet sent. Must not be negative.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the latency is null or negative.
+     */
+    public Builder latency(Duration latency) {
+      if (latency == null || latency.isNegative()) {
+        throw new IllegalArgumentException("Invalid latency.");
+      }
+      this.latency = latency;
+      return this;
+    }
+
+    /**
+     * @param jitter The range the delay varies by, up or down. Must not be negative nor exceed the latency.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the jitter is null or negative.
+     */
+    public Builder jitter(Duration jitter) {
+      if (jitter == null || jitter.isNegative()) {
+        throw new IllegalArgumentException("Invalid jitter.");
+      }
+      this.jitter = jitter;
+      return this;
+    }
+
+    /**
+     * @param bitsPerSecond The bits sent per second at most, or 0 for no limit. Must not be negative.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the bitsPerSecond is negative.
+     */
+    public Builder bandwidth(long bitsPerSecond) {
+      if (bitsPerSecond < 0) {
+        throw new IllegalArgumentException("Invalid bandwidth.");
+      }
+      this.bandwidth = bitsPerSecond;
+      return this;
+    }
+
+    /**
+     * @param lossPercent The percentage of packets dropped, from 0 to 100.
+     * @return The Builder object.
+     * @throws IllegalArgumentException If the lossPercent is out of range.
+     */
+    public Builder loss(double lossPercent) {
+      if (!(lossPercent >= 0 && lossPercent <= 100)) {
+        throw new IllegalArgumentException("Invalid loss percent.");
+      }
+      this.lossPercent = lossPercent;
+      return this;
+    }
+
+    /**
+     * @return a new NetworkProfile.
+     * @throws IllegalArgumentException If the jitter exceeds the latency.
+     */
+    public NetworkProfile build() {
+      if (jitter.compareTo(latency) > 0) {
+        throw new IllegalArgumentException("Invalid jitter.");
+      }
+      return new NetworkProfile(this);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+/**
+ * A wait strategy that probes the container on a fixed, short interval until it answers
+ * as expected, so that the container is reported ready as soon as it is actually usable.
+ *
+ * @param <SELF> the concrete wait strategy type.
+ */
+public abstract class PollingWaitStrategy<SELF extends PollingWaitStrategy<SELF>> extends AbstractWaitStrategy {
+
+  static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(100);
+  static final Duration PROBE_TIMEOUT = Duration.ofSeconds(1);
+
+  private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+
+  /**
+   * Sets the interval between two probes.
+   *
+   * @param pollInterval the interval. Must be positive.
+   * @return this wait strategy.
+   * @throws IllegalArgumentException If the pollInterval is null, zero or negative.
+   */
+  @SuppressWarnings("unchecked")
+  public SELF withPollInterval(Duration pollInterval) {
+    if (pollInterval == null || pollInterval.isZero() || pollInterval.isNegative()) {
+      throw new IllegalArgumentException("Invalid poll interval.");
+    }
+    this.pollInterval = pollInterval;
+    return (SELF) this;
+  }
+
+  public Duration getPollInterval() {
+    return pollInterval;
+  }
+
+  @Override
+  protected void waitUntilReady() {
+    long deadline = System.nanoTime() + startupTimeout.toNanos();
+    Exception lastError = null;
+    while (true) {
+      try {
+        if (isReady()) {
+          return;
+        }
+      } catch (IOException e) {
+        lastError = e;
+      }
+      if (System.nanoTime() - deadline >= 0) {
+        throw new ContainerLaunchException("Timed out waiting for " + describe()
+                + " after " + startupTimeout.getSeconds() + " seconds.", lastError);
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ContainerLaunchException("Interrupted while waiting for " + describe() + ".", e);
+      }
+    }
+  }
+
+  /**
+   * Probes the wait strategy target once.
+   *
+   * @return whether the target is ready.
+   * @throws IOException if the target cannot be reached yet.
+   */
+  protected abstract boolean isReady() throws IOException;
+
+  /**
+   * @return a short description of the condition being waited for.
+   */
+  protected abstract String describe();
+
+  /**
+   * @return the host port mapped to the first exposed port of the target.
+   */
+  protected int getFirstMappedPort() {
+    return waitStrategyTarget.getMappedPort(waitStrategyTarget.getExposedPorts().get(0));
+  }
+}
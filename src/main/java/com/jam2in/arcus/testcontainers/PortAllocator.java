@@ -1,16 +1,33 @@
 package com.jam2in.arcus.testcontainers;
 
-import java.io.IOException;
-import java.net.ServerSocket;
-
 public interface PortAllocator {
 
+  /**
+   * Reserves a free host port. The port is not handed out again, in this JVM or in another JVM
+   * on the same host using this allocator, until it is released with {@link #releasePort(int)}.
+   *
+   * @return the reserved port.
+   */
   default int getPort() {
-    try (ServerSocket socket = new ServerSocket(0)) {
-      socket.setReuseAddress(true);
-      return socket.getLocalPort();
-    } catch (IOException e) {
-      throw new RuntimeException("memcached node port exception in PortAllocator.", e);
-    }
+    return PortReservations.reserve();
+  }
+
+  /**
+   * Reserves a host port that is already in use, such as the port of a reused container.
+   *
+   * @param port the port to reserve.
+   * @return false if the port is already reserved.
+   */
+  default boolean reservePort(int port) {
+    return PortReservations.reserve(port);
+  }
+
+  /**
+   * Releases a port reserved by {@link #getPort()} or {@link #reservePort(int)}.
+   *
+   * @param port the reserved port.
+   */
+  default void releasePort(int port) {
+    PortReservations.release(port);
   }
 }
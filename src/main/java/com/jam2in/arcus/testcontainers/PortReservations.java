@@ -0,0 +1,152 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Host ports handed out to cache nodes, reserved until the nodes release them.
+ *
+ * <p>
+ * A free port is found by binding an ephemeral {@link ServerSocket}, which has to be closed again
+ * before Docker can publish the port. To keep the port from being handed out twice in the meantime,
+ * it is recorded in a map shared by the whole JVM, and the byte at the offset of the port number in
+ * a lock file in the temporary directory is locked, which excludes the other JVMs on the host,
+ * such as parallel surefire forks. The operating system drops the file locks of a JVM when it exits,
+ * so a crashed fork does not leak its reservations.
+ * </p>
+ */
+final class PortReservations {
+
+  static final Path LOCK_FILE = Paths.get(System.getProperty("java.io.tmpdir"), "arcus-testcontainers-ports.lock");
+
+  private static final int MAX_ATTEMPTS = 100;
+
+  private static final ConcurrentMap<Integer, Reservation> RESERVATIONS = new ConcurrentHashMap<>();
+
+  private PortReservations() {
+  }
+
+  /**
+   * Reserves a free host port.
+   *
+   * @return the reserved port.
+   * @throws RuntimeException If no port could be reserved.
+   */
+  static int reserve() {
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int port = probeFreePort();
+      if (reserve(port)) {
+        return port;
+      }
+    }
+    throw new RuntimeException("Failed to reserve a port after " + MAX_ATTEMPTS + " attempts.");
+  }
+
+  /**
+   * Reserves a port known to be in use, such as the host port of a container left running by an earlier run,
+   * so that it is not handed out while the container is attached again.
+   *
+   * @param port the port to reserve.
+   * @return false if the port is already reserved, in this JVM or in another JVM.
+   */
+  static boolean reserve(int port) {
+    Reservation reservation = new Reservation();
+    if (RESERVATIONS.putIfAbsent(port, reservation) != null) {
+      return false;
+    }
+    if (reservation.lock(port)) {
+      return true;
+    }
+    RESERVATIONS.remove(port, reservation);
+    return false;
+  }
+
+  /**
+   * Releases a port reserved by {@link #reserve()} or {@link #reserve(int)}.
+   * Releasing a port that is not reserved does nothing.
+   *
+   * @param port the reserved port.
+   */
+  static void release(int port) {
+    Reservation reservation = RESERVATIONS.remove(port);
+    if (reservation != null) {
+      reservation.unlock();
+    }
+  }
+
+  static boolean isReserved(int port) {
+    return RESERVATIONS.containsKey(port);
+  }
+
+  private static int probeFreePort() {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      socket.setReuseAddress(true);
+      return socket.getLocalPort();
+    } catch (IOException e) {
+      throw new RuntimeException("memcached node port exception in PortAllocator.", e);
+    }
+  }
+
+  private static final class Reservation {
+    private FileLock lock;
+
+    /**
+     * Locks the port in the lock file.
+     * Without a usable lock file, the reservation only excludes the other threads of this JVM.
+     *
+     * @return false if another JVM holds the port.
+     */
+    private boolean lock(int port) {
+      FileChannel channel = LockFile.CHANNEL;
+      if (channel == null) {
+        return true;
+      }
+      try {
+        lock = channel.tryLock(port, 1, false);
+        return lock != null;
+      } catch (OverlappingFileLockException e) {
+        return false;
+      } catch (IOException e) {
+        return true;
+      }
+    }
+
+    private void unlock() {
+      if (lock != null) {
+        try {
+          lock.release();
+        } catch (IOException e) {
+          // ignore, the lock is dropped when the JVM exits.
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens the lock file on first use and keeps it open for the lifetime of the JVM,
+   * since closing the channel would release all locks taken through it.
+   */
+  private static final class LockFile {
+    private static final FileChannel CHANNEL = open();
+
+    private static FileChannel open() {
+      try {
+        File file = LOCK_FILE.toFile();
+        FileChannel channel = FileChannel.open(LOCK_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        file.setWritable(true, false);
+        return channel;
+      } catch (IOException | SecurityException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of an {@link ArcusTrafficReplayer} run.
+ */
+public final class ReplayReport {
+
+  private final int connections;
+  private final long requestBytes;
+  private final long responseBytes;
+  private final Duration elapsed;
+  private final Duration maxLag;
+  private final long errors;
+  private final List<String> errorSamples;
+
+  ReplayReport(int connections, long requestBytes, long responseBytes, Duration elapsed, Duration maxLag,
+               long errors, List<String> errorSamples) {
+    this.connections = connections;
+    this.requestBytes = requestBytes;
+    this.responseBytes = responseBytes;
+    this.elapsed = elapsed;
+    this.maxLag = maxLag;
+    this.errors = errors;
+    this.errorSamples = Collections.unmodifiableList(errorSamples);
+  }
+
+  /**
+   * @return the number of recorded connections opened again.
+   */
+  public int getConnections() {
+    return connections;
+  }
+
+  /**
+   * @return the number of bytes sent.
+   */
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  /**
+   * @return the number of bytes received in response.
+   */
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  /**
+   * @return the time until every connection was answered and closed.
+   */
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * @return the longest time a record was sent after its scheduled time, zero at maximum speed.
+   *         A lag close to the elapsed time means that the target or the replayer could not keep the pace.
+   */
+  public Duration getMaxLag() {
+    return maxLag;
+  }
+
+  /**
+   * @return the number of connections that failed to open, send or receive.
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * @return the first exceptions, for diagnosis.
+   */
+  public List<String> getErrorSamples() {
+    return errorSamples;
+  }
+
+  @Override
+  public String toString() {
+    return "ReplayReport{"
+            + "connections=" + connections
+            + ", requestBytes=" + requestBytes
+            + ", responseBytes=" + responseBytes
+            + ", elapsed=" + elapsed
+            + ", maxLag=" + maxLag
+            + ", errors=" + errors
+            + '}';
+  }
+}
@@ -0,0 +1,103 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of adding a cache node to or removing one from a running {@link ArcusClusterContainer}.
+ */
+public final class ResizeReport {
+
+  public enum Operation {
+    ADD,
+    REMOVE
+  }
+
+  private final Operation operation;
+  private final String node;
+  private final List<String> cacheNodes;
+  private final double movedKeyRatio;
+  private final Instant requestedAt;
+  private final Instant convergedAt;
+  private final Instant completedAt;
+
+  ResizeReport(Operation operation, String node, List<String> cacheNodes, double movedKeyRatio,
+               Instant requestedAt, Instant convergedAt, Instant completedAt) {
+    this.operation = operation;
+    this.node = node;
+    this.cacheNodes = Collections.unmodifiableList(cacheNodes);
+    this.movedKeyRatio = movedKeyRatio;
+    this.requestedAt = requestedAt;
+    this.convergedAt = convergedAt;
+    this.completedAt = completedAt;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  /**
+   * @return the address of the added or removed cache node.
+   */
+  public String getNode() {
+    return node;
+  }
+
+  /**
+   * @return the addresses of the cache nodes after the operation.
+   */
+  public List<String> getCacheNodes() {
+    return cacheNodes;
+  }
+
+  /**
+   * @return the share of the keys owned by another node on the hash ring after the operation, from 0 to 1.
+   */
+  public double getMovedKeyRatio() {
+    return movedKeyRatio;
+  }
+
+  public Instant getRequestedAt() {
+    return requestedAt;
+  }
+
+  /**
+   * The convergence is observed on the cache_list rather than the client_list:
+   * the clients rebuild their hash ring from the cache_list they watch,
+   * while the client_list only holds the registration of each client and no view of the nodes,
+   * so it cannot tell whether a client has seen the new topology.
+   *
+   * @return the time the cache_list of the service code, which the clients watch, listed exactly the new nodes.
+   */
+  public Instant getConvergedAt() {
+    return convergedAt;
+  }
+
+  /**
+   * @return the time the operation returned. A removed node has been stopped by then.
+   */
+  public Instant getCompletedAt() {
+    return completedAt;
+  }
+
+  /**
+   * @return the time from the request until the cache_list converged.
+   */
+  public Duration getTimeToConverge() {
+    return Duration.between(requestedAt, convergedAt);
+  }
+
+  @Override
+  public String toString() {
+    return "ResizeReport{"
+            + "operation=" + operation
+            + ", node=" + node
+            + ", cacheNodes=" + cacheNodes
+            + ", movedKeyRatio=" + String.format("%.4f", movedKeyRatio)
+            + ", timeToConverge=" + getTimeToConverge()
+            + ", elapsed=" + Duration.between(requestedAt, completedAt)
+            + '}';
+  }
+}
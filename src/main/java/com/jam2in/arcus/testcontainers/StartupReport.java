@@ -0,0 +1,138 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The wall-clock time spent in each phase of the start of an {@link ArcusContainer} or {@link ArcusClusterContainer},
+ * to tell whether a slow start is spent in Docker, ZooKeeper or the cache servers.
+ *
+ * <p>
+ * The report of a container has the phases from {@link Phase#IMAGE_RESOLUTION} to {@link Phase#READINESS_WAIT}.
+ * The report of a cluster has the steps of the cluster, from {@link Phase#ZOOKEEPER_START} on,
+ * and the report of every ZooKeeper server and cache node container. The containers of a step start in parallel,
+ * so their phases add up to more than the step.
+ * </p>
+ *
+ * <pre>{@code
+ * StartupReport report = cluster.getStartupReport().get();
+ * Duration bootstrap = report.get(StartupReport.Phase.ZNODE_BOOTSTRAP);
+ * report.writeJson(Paths.get("target", "arcus-startup.json"));
+ * }</pre>
+ */
+public final class StartupReport {
+
+  public enum Phase {
+    /** The image was found in the local image store, pulled or built. */
+    IMAGE_RESOLUTION,
+    /** The container was created. It is missing for a container reused from an earlier run. */
+    CONTAINER_CREATE,
+    /** The container was started and observed running. */
+    CONTAINER_START,
+    /** The server answered its readiness probe. */
+    READINESS_WAIT,
+    /** The ZooKeeper servers of the cluster were started and their network shaped. */
+    ZOOKEEPER_START,
+    /** The cache_list, client_list and cache_server_mapping znodes were created. */
+    ZNODE_BOOTSTRAP,
+    /** The cache node containers were started. */
+    CACHE_NODES_START,
+    /** The network profiles of the cache nodes were applied. */
+    NETWORK_SHAPING,
+    /** Every cache node was registered in the cache_list. */
+    CACHE_LIST_WAIT,
+    /** The items of the snapshot were loaded. */
+    SNAPSHOT_RESTORE
+  }
+
+  private final Duration total;
+  private final Map<Phase, Duration> phases;
+  private final Map<String, StartupReport> containers;
+
+  StartupReport(Duration total, Map<Phase, Duration> phases, Map<String, StartupReport> containers) {
+    this.total = total;
+    Map<Phase, Duration> copy = new EnumMap<>(Phase.class);
+    copy.putAll(phases);
+    this.phases = Collections.unmodifiableMap(copy);
+    this.containers = Collections.unmodifiableMap(new LinkedHashMap<>(containers));
+  }
+
+  /**
+   * @return the time from the start being requested until it returned.
+   */
+  public Duration getTotal() {
+    return total;
+  }
+
+  /**
+   * @return the time of every phase, in the order they were passed.
+   */
+  public Map<Phase, Duration> getPhases() {
+    return phases;
+  }
+
+  /**
+   * @param phase the phase.
+   * @return the time of the phase, or null if it was not passed.
+   */
+  public Duration get(Phase phase) {
+    return phases.get(phase);
+  }
+
+  /**
+   * @return the reports of the containers of a cluster keyed by the ZooKeeper server or cache node address,
+   *         or {@code cache} for the container of the single container mode. Empty for a container.
+   */
+  public Map<String, StartupReport> getContainers() {
+    return containers;
+  }
+
+  /**
+   * Writes the report as JSON, with the times in milliseconds.
+   *
+   * @param file the file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void writeJson(Path file) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+  }
+
+  String toJson() {
+    return writeJson(new JsonWriter()).toString();
+  }
+
+  private JsonWriter writeJson(JsonWriter json) {
+    json.beginObject().name("totalMillis").value(toMillis(total)).name("phases").beginObject();
+    phases.forEach((phase, duration) -> json.name(phase.name()).value(toMillis(duration)));
+    json.endObject();
+    if (!containers.isEmpty()) {
+      json.name("containers").beginObject();
+      containers.forEach((address, report) -> report.writeJson(json.name(address)));
+      json.endObject();
+    }
+    return json.endObject();
+  }
+
+  private static double toMillis(Duration duration) {
+    return duration.toNanos() / 1_000_000.0;
+  }
+
+  @Override
+  public String toString() {
+    return "StartupReport{"
+            + "total=" + total
+            + ", phases=" + phases
+            + (containers.isEmpty() ? "" : ", containers=" + containers)
+            + '}';
+  }
+}
@@ -0,0 +1,53 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Measures the phases of a start as consecutive intervals, each ending when the next one is reached.
+ */
+final class StartupTimer {
+
+  private final Map<StartupReport.Phase, Duration> phases = new EnumMap<>(StartupReport.Phase.class);
+  private long startedAt;
+  private long lastMark;
+  private boolean running;
+
+  /**
+   * Starts measuring, forgetting the phases of an earlier start.
+   */
+  void begin() {
+    phases.clear();
+    startedAt = System.nanoTime();
+    lastMark = startedAt;
+    running = true;
+  }
+
+  /**
+   * Ends the phase, which began at the end of the previous phase.
+   * It does nothing if the timer is not running or the phase has already ended, such as when
+   * a hook that ends it is called again.
+   *
+   * @param phase the phase that ended now.
+   */
+  void end(StartupReport.Phase phase) {
+    if (!running || phases.containsKey(phase)) {
+      return;
+    }
+    long now = System.nanoTime();
+    phases.put(phase, Duration.ofNanos(now - lastMark));
+    lastMark = now;
+  }
+
+  /**
+   * Stops measuring.
+   *
+   * @param containers the reports of the containers started along.
+   * @return the report of the phases ended since {@link #begin()}.
+   */
+  StartupReport finish(Map<String, StartupReport> containers) {
+    running = false;
+    return new StartupReport(Duration.ofNanos(System.nanoTime() - startedAt), phases, containers);
+  }
+}
@@ -0,0 +1,120 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The rates of a cache node derived from two consecutive {@link StatsSample}s.
+ */
+public final class StatsRates {
+
+  private final String node;
+  private final Instant timestamp;
+  private final Duration interval;
+  private final double opsPerSecond;
+  private final double hitRatio;
+  private final double evictionsPerSecond;
+  private final long bytes;
+  private final long connections;
+
+  private StatsRates(String node, Instant timestamp, Duration interval, double opsPerSecond, double hitRatio,
+                     double evictionsPerSecond, long bytes, long connections) {
+    this.node = node;
+    this.timestamp = timestamp;
+    this.interval = interval;
+    this.opsPerSecond = opsPerSecond;
+    this.hitRatio = hitRatio;
+    this.evictionsPerSecond = evictionsPerSecond;
+    this.bytes = bytes;
+    this.connections = connections;
+  }
+
+  /**
+   * Derives the rates between two samples of the same node.
+   * Counters that went backwards, because the node was restarted or its stats were reset, count as 0.
+   *
+   * @param previous the earlier sample.
+   * @param current  the later sample.
+   * @return the rates over the interval between the samples.
+   */
+  static StatsRates between(StatsSample previous, StatsSample current) {
+    Duration interval = Duration.between(previous.getTimestamp(), current.getTimestamp());
+    double seconds = Math.max(interval.toNanos(), 1) / 1_000_000_000.0;
+    long ops = delta(previous, current, "cmd_get") + delta(previous, current, "cmd_set");
+    long hits = delta(previous, current, "get_hits");
+    long misses = delta(previous, current, "get_misses");
+    return new StatsRates(current.getNode(), current.getTimestamp(), interval,
+            ops / seconds,
+            hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+            delta(previous, current, "evictions") / seconds,
+            current.getLong("bytes"),
+            current.getLong("curr_connections"));
+  }
+
+  private static long delta(StatsSample previous, StatsSample current, String name) {
+    return Math.max(current.getLong(name) - previous.getLong(name), 0);
+  }
+
+  /**
+   * @return the address of the cache node.
+   */
+  public String getNode() {
+    return node;
+  }
+
+  /**
+   * @return the time of the later sample.
+   */
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  public Duration getInterval() {
+    return interval;
+  }
+
+  /**
+   * @return the retrieval and storage commands ({@code cmd_get} and {@code cmd_set}) per second.
+   */
+  public double getOpsPerSecond() {
+    return opsPerSecond;
+  }
+
+  /**
+   * @return the share of the retrievals over the interval that hit, from 0 to 1, or 0 without retrievals.
+   */
+  public double getHitRatio() {
+    return hitRatio;
+  }
+
+  public double getEvictionsPerSecond() {
+    return evictionsPerSecond;
+  }
+
+  /**
+   * @return the bytes used by the items at the end of the interval.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return the open connections at the end of the interval.
+   */
+  public long getConnections() {
+    return connections;
+  }
+
+  @Override
+  public String toString() {
+    return "StatsRates{"
+            + "node=" + node
+            + ", interval=" + interval
+            + ", opsPerSecond=" + String.format("%.1f", opsPerSecond)
+            + ", hitRatio=" + String.format("%.3f", hitRatio)
+            + ", evictionsPerSecond=" + String.format("%.1f", evictionsPerSecond)
+            + ", bytes=" + bytes
+            + ", connections=" + connections
+            + '}';
+  }
+}
@@ -0,0 +1,85 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The statistics of a cache node read by {@link ArcusStatsCollector} at one point in time.
+ */
+public final class StatsSample {
+
+  private final String node;
+  private final Instant timestamp;
+  private final Map<String, String> stats;
+  private final Map<String, String> slabs;
+  private final Map<String, Map<String, String>> prefixes;
+
+  StatsSample(String node, Instant timestamp, Map<String, String> stats, Map<String, String> slabs,
+              Map<String, Map<String, String>> prefixes) {
+    this.node = node;
+    this.timestamp = timestamp;
+    this.stats = Collections.unmodifiableMap(stats);
+    this.slabs = Collections.unmodifiableMap(slabs);
+    this.prefixes = Collections.unmodifiableMap(prefixes);
+  }
+
+  /**
+   * @return the address of the cache node.
+   */
+  public String getNode() {
+    return node;
+  }
+
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return the response of {@code stats}, keyed by the stat name.
+   */
+  public Map<String, String> getStats() {
+    return stats;
+  }
+
+  /**
+   * @return the response of {@code stats slabs}, keyed by the stat name such as {@code 1:chunk_size}.
+   */
+  public Map<String, String> getSlabs() {
+    return slabs;
+  }
+
+  /**
+   * @return the response of {@code stats prefixes}, the stats of every key prefix keyed by the prefix.
+   */
+  public Map<String, Map<String, String>> getPrefixes() {
+    return prefixes;
+  }
+
+  /**
+   * @param name the stat name of {@code stats}.
+   * @return the stat as a number, or 0 if the node does not report it.
+   */
+  public long getLong(String name) {
+    String value = stats.get(name);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "StatsSample{"
+            + "node=" + node
+            + ", timestamp=" + timestamp
+            + ", stats=" + stats.size()
+            + ", slabs=" + slabs.size()
+            + ", prefixes=" + prefixes.keySet()
+            + '}';
+  }
+}
@@ -0,0 +1,225 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The binary file format of the traffic recorded by a {@link TrafficProxy}.
+ *
+ * <p>
+ * A capture starts with the magic {@code ARCUSCAP}, a version int and the wall clock time of the start
+ * in epoch milliseconds. Then follows a record per chunk of bytes a client sent, made of the connection number,
+ * the nanoseconds since the previous record and the length, as unsigned LEB128 varints, and the bytes.
+ * A record of length 0 marks the end of a connection.
+ * </p>
+ */
+final class TrafficCapture {
+
+  static final byte[] MAGIC = "ARCUSCAP".getBytes(StandardCharsets.US_ASCII);
+  static final int VERSION = 1;
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+  private static final int MAX_HEADER_SIZE = 3 * 10;
+
+  private TrafficCapture() {
+  }
+
+  /**
+   * Appends records to a capture file through a direct buffer.
+   * It is not thread safe, and is written by the selector thread of the proxy only.
+   */
+  static final class Writer implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private volatile long lastNanos;
+
+    Writer(Path file) throws IOException {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE);
+      this.lastNanos = System.nanoTime();
+      buffer.put(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Starts the clock the first record is timed from, so that a replay does not wait for the time before it.
+     * It must be called before the records begin.
+     */
+    void startClock() {
+      lastNanos = System.nanoTime();
+    }
+
+    /**
+     * @param connection the number of the connection.
+     * @param data       the bytes sent by the client, between the position and the limit, which are not changed.
+     */
+    void record(int connection, ByteBuffer data) throws IOException {
+      int length = data.remaining();
+      if (buffer.remaining() < MAX_HEADER_SIZE + length) {
+        flush();
+      }
+      long now = System.nanoTime();
+      putVarLong(buffer, connection);
+      putVarLong(buffer, now - lastNanos);
+      putVarLong(buffer, length);
+      lastNanos = now;
+      if (length > buffer.remaining()) {
+        flush();
+        ByteBuffer chunk = data.duplicate();
+        while (chunk.hasRemaining()) {
+          channel.write(chunk);
+        }
+      } else {
+        buffer.put(data.duplicate());
+      }
+    }
+
+    /**
+     * Marks the end of the connection.
+     */
+    void close(int connection) throws IOException {
+      record(connection, ByteBuffer.allocate(0));
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a capture file in order.
+   */
+  static final class Reader implements Closeable {
+
+    private final DataInputStream in;
+    private final long startEpochMillis;
+    private long nanos;
+
+    Reader(Path file) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+      try {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readInt();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+          throw new IOException(file + " is not a traffic capture of version " + VERSION + ".");
+        }
+        this.startEpochMillis = in.readLong();
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+    }
+
+    /**
+     * @return the wall clock time the recording started at.
+     */
+    long getStartEpochMillis() {
+      return startEpochMillis;
+    }
+
+    /**
+     * @return the next record, or null at the end of the file.
+     */
+    Record next() throws IOException {
+      int first = in.read();
+      if (first == -1) {
+        return null;
+      }
+      int connection = (int) readVarLong(in, first);
+      nanos += readVarLong(in, in.read());
+      byte[] data = new byte[(int) readVarLong(in, in.read())];
+      in.readFully(data);
+      return new Record(connection, nanos, data);
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  static final class Record {
+
+    private final int connection;
+    private final long nanos;
+    private final byte[] data;
+
+    Record(int connection, long nanos, byte[] data) {
+      this.connection = connection;
+      this.nanos = nanos;
+      this.data = data;
+    }
+
+    int getConnection() {
+      return connection;
+    }
+
+    /**
+     * @return the nanoseconds since the start of the recording.
+     */
+    long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * @return the bytes sent, empty at the end of the connection.
+     */
+    byte[] getData() {
+      return data;
+    }
+
+    boolean isClose() {
+      return data.length == 0;
+    }
+  }
+
+  static void putVarLong(ByteBuffer buffer, long value) {
+    long v = value;
+    while ((v & ~0x7FL) != 0) {
+      buffer.put((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buffer.put((byte) v);
+  }
+
+  private static long readVarLong(InputStream in, int first) throws IOException {
+    long value = 0;
+    int shift = 0;
+    for (int b = first; ; b = in.read()) {
+      if (b == -1) {
+        throw new EOFException("Truncated record.");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+      shift += 7;
+    }
+  }
+}
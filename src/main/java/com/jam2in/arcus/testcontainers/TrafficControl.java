@@ -0,0 +1,78 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.github.dockerjava.api.model.Capability;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.startupcheck.OneShotStartupCheckStrategy;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Runs {@code tc} in the network namespace of another container.
+ *
+ * <p>
+ * The cache node and ZooKeeper images do not ship {@code tc} and do not run with {@code NET_ADMIN},
+ * so a short lived sidecar container is started with {@code --network container:<id>} and {@code --cap-add NET_ADMIN}.
+ * The queueing discipline it installs belongs to the shared network namespace and stays after the sidecar exits.
+ * </p>
+ */
+final class TrafficControl {
+
+  static final DockerImageName DEFAULT_IMAGE_NAME = DockerImageName.parse("gaiadocker/iproute2");
+
+  private static final String DEVICE = "eth0";
+  private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+  private TrafficControl() {
+  }
+
+  /**
+   * Replaces the root queueing discipline of the container with netem.
+   *
+   * @param imageName   the image providing {@code tc}.
+   * @param containerId the container to shape.
+   * @param delay       the delay added to every outgoing packet.
+   * @param lossPercent the percentage of outgoing packets dropped.
+   */
+  static void applyNetem(DockerImageName imageName, String containerId, Duration delay, double lossPercent) {
+    apply(imageName, containerId, NetworkProfile.builder().latency(delay).loss(lossPercent).build());
+  }
+
+  /**
+   * Replaces the root queueing discipline of the container with netem shaping the outgoing packets by the profile.
+   *
+   * @param imageName   the image providing {@code tc}.
+   * @param containerId the container to shape.
+   * @param profile     the network conditions to apply.
+   */
+  static void apply(DockerImageName imageName, String containerId, NetworkProfile profile) {
+    List<String> args = new ArrayList<>(Arrays.asList("qdisc", "replace", "dev", DEVICE, "root", "netem"));
+    args.addAll(profile.toNetemArgs());
+    run(imageName, containerId, args.toArray(new String[0]));
+  }
+
+  /**
+   * Restores the default root queueing discipline of the container.
+   */
+  static void clear(DockerImageName imageName, String containerId) {
+    run(imageName, containerId, "qdisc", "del", "dev", DEVICE, "root");
+  }
+
+  private static void run(DockerImageName imageName, String containerId, String... args) {
+    try (GenericContainer<?> sidecar = new GenericContainer<>(imageName)) {
+      sidecar.withCreateContainerCmdModifier(cmd -> {
+                cmd.withEntrypoint("tc");
+                cmd.getHostConfig()
+                        .withNetworkMode("container:" + containerId)
+                        .withCapAdd(Capability.NET_ADMIN);
+              })
+              .withCommand(args)
+              .withStartupCheckStrategy(new OneShotStartupCheckStrategy().withTimeout(TIMEOUT));
+      sidecar.start();
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * A TCP proxy in front of a cache server that records what the clients send to a {@link TrafficCapture}.
+ *
+ * <p>
+ * A single selector thread forwards all connections. Every direction of a connection has a direct buffer
+ * that is read from one socket and written to the other as is, so the bytes are not copied on the heap,
+ * and a slow reader stops the reads from its peer instead of buffering more.
+ * The bytes sent by the clients are copied once more into the buffer of the capture file.
+ * </p>
+ */
+final class TrafficProxy implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InetSocketAddress target;
+  private final Path captureFile;
+  private final ServerSocketChannel server;
+  private final Selector selector;
+  private final TrafficCapture.Writer writer;
+  private final Thread thread;
+  private volatile boolean recording;
+  private volatile boolean running = true;
+  private int connections;
+
+  /**
+   * Binds the listening port on the loopback interface and starts forwarding.
+   *
+   * @param port        the port to listen on, or 0 for an ephemeral port.
+   * @param target      the address of the cache server.
+   * @param captureFile the file the traffic is recorded to.
+   * @throws IOException if the port cannot be bound or the file cannot be created.
+   */
+  TrafficProxy(int port, InetSocketAddress target, Path captureFile) throws IOException {
+    this.target = target;
+    this.captureFile = captureFile;
+    this.writer = new TrafficCapture.Writer(captureFile);
+    this.selector = Selector.open();
+    this.server = ServerSocketChannel.open();
+    try {
+      server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      server.close();
+      selector.close();
+      writer.close();
+      throw e;
+    }
+    this.thread = new Thread(this::run, "arcus-traffic-proxy-" + getPort());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  int getPort() {
+    return server.socket().getLocalPort();
+  }
+
+  Path getCaptureFile() {
+    return captureFile;
+  }
+
+  /**
+   * Starting to record also starts the clock of the capture, so the time the traffic was only forwarded,
+   * such as while the server started, is not replayed.
+   *
+   * @param recording true to record the traffic, false to only forward it, such as while the server starts.
+   */
+  synchronized void setRecording(boolean recording) {
+    if (recording && !this.recording) {
+      writer.startClock();
+    }
+    this.recording = recording;
+  }
+
+  /**
+   * Closes all connections and writes the rest of the capture file.
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    selector.wakeup();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+      selector.close();
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void run() {
+    try {
+      while (running) {
+        selector.select();
+        for (SelectionKey key : selector.selectedKeys()) {
+          try {
+            handle(key);
+          } catch (IOException e) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Endpoint) {
+              ((Endpoint) attachment).session.close();
+            }
+          }
+        }
+        selector.selectedKeys().clear();
+      }
+    } catch (IOException e) {
+      // the selector was closed.
+    }
+  }
+
+  private void handle(SelectionKey key) throws IOException {
+    if (!key.isValid()) {
+      return;
+    }
+    if (key.isAcceptable()) {
+      accept();
+      return;
+    }
+    Endpoint endpoint = (Endpoint) key.attachment();
+    Session session = endpoint.session;
+    if (key.isConnectable()) {
+      session.backend.finishConnect();
+      session.backendKey.interestOps(SelectionKey.OP_READ);
+      session.clientKey.interestOps(SelectionKey.OP_READ);
+      return;
+    }
+    if (key.isWritable()) {
+      ByteBuffer pending = endpoint.client ? session.downstream : session.upstream;
+      ((SocketChannel) key.channel()).write(pending);
+      if (!pending.hasRemaining()) {
+        pending.clear();
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        SelectionKey source = endpoint.client ? session.backendKey : session.clientKey;
+        source.interestOps(source.interestOps() | SelectionKey.OP_READ);
+      }
+    }
+    if (key.isValid() && key.isReadable()) {
+      forward(key, endpoint);
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel client = server.accept();
+    if (client == null) {
+      return;
+    }
+    SocketChannel backend = SocketChannel.open();
+    try {
+      client.configureBlocking(false);
+      client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      backend.configureBlocking(false);
+      backend.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      Session session = new Session(connections++, client, backend);
+      session.clientKey = client.register(selector, 0, new Endpoint(session, true));
+      if (backend.connect(target)) {
+        session.backendKey = backend.register(selector, SelectionKey.OP_READ, new Endpoint(session, false));
+        session.clientKey.interestOps(SelectionKey.OP_READ);
+      } else {
+        session.backendKey = backend.register(selector, SelectionKey.OP_CONNECT, new Endpoint(session, false));
+      }
+    } catch (IOException e) {
+      client.close();
+      backend.close();
+    }
+  }
+
+  /**
+   * Reads from the channel of the key and writes to its peer.
+   * What the peer does not take at once is written when it becomes writable, and reading pauses until then.
+   */
+  private void forward(SelectionKey key, Endpoint endpoint) throws IOException {
+    Session session = endpoint.session;
+    ByteBuffer buffer = endpoint.client ? session.upstream : session.downstream;
+    int read = ((SocketChannel) key.channel()).read(buffer);
+    if (read < 0) {
+      session.close();
+      return;
+    }
+    if (read == 0) {
+      return;
+    }
+    buffer.flip();
+    if (endpoint.client && recording) {
+      ByteBuffer data = buffer.duplicate();
+      data.position(data.limit() - read);
+      writer.record(session.id, data);
+      session.recorded = true;
+    }
+    SocketChannel peer = endpoint.client ? session.backend : session.client;
+    SelectionKey peerKey = endpoint.client ? session.backendKey : session.clientKey;
+    peer.write(buffer);
+    if (buffer.hasRemaining()) {
+      key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+      peerKey.interestOps(peerKey.interestOps() | SelectionKey.OP_WRITE);
+    } else {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * A side of a session, attached to the selection key of its channel.
+   */
+  private static final class Endpoint {
+    private final Session session;
+    private final boolean client;
+
+    private Endpoint(Session session, boolean client) {
+      this.session = session;
+      this.client = client;
+    }
+  }
+
+  private final class Session {
+    private final int id;
+    private final SocketChannel client;
+    private final SocketChannel backend;
+    private final ByteBuffer upstream = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer downstream = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private SelectionKey clientKey;
+    private SelectionKey backendKey;
+    private boolean recorded;
+    private boolean closed;
+
+    private Session(int id, SocketChannel client, SocketChannel backend) {
+      this.id = id;
+      this.client = client;
+      this.backend = backend;
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        client.close();
+        backend.close();
+        if (recorded) {
+          writer.close(id);
+        }
+      } catch (IOException e) {
+        // the connection is gone either way.
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.jam2in.arcus.testcontainers;
+
+/**
+ * Draws item numbers from 0 to {@code items - 1} with a zipfian distribution, item 0 being the most popular,
+ * with the algorithm of Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+ */
+final class ZipfianGenerator {
+
+  private final long items;
+  private final double theta;
+  private final double zetan;
+  private final double alpha;
+  private final double eta;
+
+  /**
+   * @param items the number of items. Must be greater than 0.
+   * @param theta the skew, between 0 and 1 exclusive. YCSB uses 0.99.
+   */
+  ZipfianGenerator(long items, double theta) {
+    this.items = items;
+    this.theta = theta;
+    this.zetan = zeta(items, theta);
+    this.alpha = 1.0 / (1.0 - theta);
+    this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+  }
+
+  /**
+   * @param uniform a uniformly distributed number from 0 inclusive to 1 exclusive.
+   * @return the item number.
+   */
+  long next(double uniform) {
+    double uz = uniform * zetan;
+    if (uz < 1.0) {
+      return 0;
+    }
+    if (uz < 1.0 + Math.pow(0.5, theta)) {
+      return Math.min(1, items - 1);
+    }
+    long item = (long) (items * Math.pow(eta * uniform - eta + 1, alpha));
+    return Math.min(Math.max(item, 0), items - 1);
+  }
+
+  private static double zeta(long n, double theta) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,155 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A batch of zkCli.sh commands that is executed in a single zkCli session.
+ *
+ * <p>
+ * Every {@code docker exec} of zkCli.sh launches a new JVM, so the commands are collected here
+ * and fed to one zkCli process through its standard input.
+ * zkCli keeps reading commands after a failed one, and exits with the status of the last command only,
+ * so the errors it printed are checked by {@link #errors(int, String)} instead of its exit status.
+ * A {@code create} of an existing znode and a {@code deleteall} of a missing one are not errors,
+ * which makes the whole script safe to run again.
+ * </p>
+ */
+class ZkCliScript {
+
+  static final String ZK_CLI_PATH = "./bin/zkCli.sh";
+
+  private static final String NODE_EXISTS = "Node already exists: ";
+  private static final String NO_NODE = "Node does not exist: ";
+  // the log lines of zkCli itself, written with the ISO8601 date of the log4j layout of ZooKeeper.
+  private static final Pattern LOG_LINE = Pattern.compile("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+
+  private final List<String> commands = new ArrayList<>();
+  private final Set<String> createdPaths = new HashSet<>();
+
+  /**
+   * Adds a {@code create} command for the path and all of its missing parents.
+   *
+   * @param path the absolute znode path.
+   * @return this script.
+   */
+  ZkCliScript create(String path) {
+    return create(path, false);
+  }
+
+  /**
+   * Adds a {@code create} command for the path and all of its missing parents.
+   *
+   * @param path      the absolute znode path.
+   * @param ephemeral whether the last znode of the path is ephemeral.
+   * @return this script.
+   */
+  ZkCliScript create(String path, boolean ephemeral) {
+    validatePath(path);
+    int index = 0;
+    while ((index = path.indexOf('/', index + 1)) > 0) {
+      String parent = path.substring(0, index);
+      if (createdPaths.add(parent)) {
+        commands.add("create " + parent);
+      }
+    }
+    if (createdPaths.add(path)) {
+      commands.add(ephemeral ? "create -e " + path : "create " + path);
+    }
+    return this;
+  }
+
+  /**
+   * Adds a command that deletes the path and all of its children.
+   *
+   * @param path the absolute znode path.
+   * @return this script.
+   */
+  ZkCliScript deleteAll(String path) {
+    validatePath(path);
+    createdPaths.removeIf(created -> created.equals(path) || created.startsWith(path + "/"));
+    commands.add("deleteall " + path);
+    return this;
+  }
+
+  /**
+   * Adds a command that lists the children of the path.
+   *
+   * @param path the absolute znode path.
+   * @return this script.
+   */
+  ZkCliScript ls(String path) {
+    validatePath(path);
+    commands.add("ls " + path);
+    return this;
+  }
+
+  List<String> getCommands() {
+    return Collections.unmodifiableList(commands);
+  }
+
+  /**
+   * Builds the shell command that runs the script in the ZooKeeper container.
+   *
+   * @param server the ZooKeeper server to connect to.
+   * @return the arguments to pass to {@code execInContainer}.
+   */
+  String[] toShellCommand(String server) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(ZK_CLI_PATH).append(" -server ").append(server).append(" <<'EOF'\n");
+    for (String command : commands) {
+      sb.append(command).append("\n");
+    }
+    sb.append("quit\n");
+    sb.append("EOF\n");
+    return new String[]{"sh", "-c", sb.toString()};
+  }
+
+  /**
+   * Returns the errors of a run of the script. zkCli prints the error of every command to the standard error,
+   * so every line there other than a log line is an error, except for a {@code create} of an existing znode
+   * and a {@code deleteall} of a missing znode of the script.
+   *
+   * @param exitCode the exit status of zkCli, the status of the last command.
+   * @param stderr   the standard error of zkCli.
+   * @return the errors, or an empty list if every command succeeded.
+   */
+  List<String> errors(int exitCode, String stderr) {
+    List<String> errors = new ArrayList<>();
+    boolean ignored = false;
+    for (String line : stderr.split("\n")) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || LOG_LINE.matcher(trimmed).lookingAt()) {
+        continue;
+      }
+      if (isIgnored(trimmed)) {
+        ignored = true;
+      } else {
+        errors.add(trimmed);
+      }
+    }
+    if (errors.isEmpty() && exitCode != 0 && !ignored) {
+      errors.add("zkCli exited with " + exitCode + ".");
+    }
+    return errors;
+  }
+
+  private boolean isIgnored(String error) {
+    if (error.startsWith(NODE_EXISTS)) {
+      String path = error.substring(NODE_EXISTS.length());
+      return commands.contains("create " + path) || commands.contains("create -e " + path);
+    }
+    return error.startsWith(NO_NODE) && commands.contains("deleteall " + error.substring(NO_NODE.length()));
+  }
+
+  private static void validatePath(String path) {
+    if (path == null || !path.startsWith("/") || path.endsWith("/")
+            || path.contains("'") || path.contains("\n") || path.contains(" ")) {
+      throw new IllegalArgumentException("Invalid znode path: " + path);
+    }
+  }
+}
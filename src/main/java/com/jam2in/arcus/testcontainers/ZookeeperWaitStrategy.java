@@ -0,0 +1,25 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+
+/**
+ * Waits until the ZooKeeper server answers the {@code srvr} four letter word with its mode.
+ *
+ * <p>
+ * {@code srvr} is used instead of {@code ruok} because ZooKeeper answers {@code ruok}
+ * before it has joined a quorum and is able to serve requests.
+ * </p>
+ */
+public class ZookeeperWaitStrategy extends PollingWaitStrategy<ZookeeperWaitStrategy> {
+
+  @Override
+  protected boolean isReady() throws IOException {
+    return FourLetterWords.send(waitStrategyTarget.getHost(), getFirstMappedPort(), "srvr")
+            .contains("Mode: ");
+  }
+
+  @Override
+  protected String describe() {
+    return "ZooKeeper to serve requests";
+  }
+}
@@ -0,0 +1,60 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import net.spy.memcached.ArcusClient;
+import net.spy.memcached.ArcusClientPool;
+import net.spy.memcached.ConnectionFactoryBuilder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArcusBulkLoaderTest extends ArcusClusterTestBase {
+
+  @Test
+  void loadGeneratedItems() {
+    //given
+    ArcusItemGenerator generator = ArcusItemGenerator.builder()
+            .keyCount(100_000)
+            .keyPrefix("bulk:")
+            .valueSize(10, 100)
+            .build();
+
+    //when
+    LoadReport report = ArcusBulkLoader.forCluster(ARCUS_CLUSTER_CONTAINER)
+            .connectionsPerNode(4)
+            .load(generator);
+
+    //then
+    assertThat(report.getItems()).isEqualTo(100_000);
+    assertThat(report.getErrors()).isZero();
+    assertThat(report.getCommandsPerSecond()).isPositive();
+    ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(ARCUS_CLUSTER_CONTAINER.getHostPorts(),
+            "test", new ConnectionFactoryBuilder(), 2);
+    assertThat(arcusClient.get("bulk:0")).isNotNull();
+    assertThat(arcusClient.get("bulk:99999")).isNotNull();
+    arcusClient.shutdown();
+  }
+
+  @Test
+  void loadCollectionItems() {
+    //given
+    byte[] element = "element".getBytes(StandardCharsets.UTF_8);
+
+    //when
+    LoadReport report = ArcusBulkLoader.forCluster(ARCUS_CLUSTER_CONTAINER).load(Stream.of(
+            ArcusItem.list("bulk:list", Arrays.asList(element, element)),
+            ArcusItem.set("bulk:set", Collections.singletonList(element)),
+            ArcusItem.map("bulk:map", Collections.singletonMap("field", element)),
+            ArcusItem.btree("bulk:btree", Collections.singletonMap(1L, element))));
+
+    //then
+    assertThat(report.getItems()).isEqualTo(4);
+    assertThat(report.getCommands()).isEqualTo(5);
+    assertThat(report.getErrors()).isZero();
+  }
+}
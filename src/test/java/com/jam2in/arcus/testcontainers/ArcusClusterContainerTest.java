@@ -1,18 +1,32 @@
 package com.jam2in.arcus.testcontainers;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import net.spy.memcached.ArcusClient;
 import net.spy.memcached.ArcusClientPool;
 import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.collection.CollectionAttributes;
 import net.spy.memcached.internal.OperationFuture;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @Testcontainers
 class ArcusClusterContainerTest extends ArcusClusterTestBase {
@@ -65,4 +79,376 @@ class ArcusClusterContainerTest extends ArcusClusterTestBase {
     assertThat(clusterContainer.isRunning()).isTrue();
     assertThat(set.get()).isTrue();
   }
+
+  @Test
+  void startupReportTest() {
+    //when
+    StartupReport report = clusterContainer.getStartupReport().orElseThrow(IllegalStateException::new);
+
+    //then
+    assertThat(report.getPhases()).containsKeys(StartupReport.Phase.ZOOKEEPER_START,
+            StartupReport.Phase.ZNODE_BOOTSTRAP, StartupReport.Phase.CACHE_NODES_START,
+            StartupReport.Phase.CACHE_LIST_WAIT);
+    assertThat(report.getContainers()).containsOnlyKeys(ArcusClusterContainer.ZOOKEEPER,
+            clusterContainer.getCacheNodes().get(0), clusterContainer.getCacheNodes().get(1),
+            clusterContainer.getCacheNodes().get(2));
+    assertThat(report.getContainers().values()).allSatisfy(container -> assertThat(container.getPhases())
+            .containsKeys(StartupReport.Phase.IMAGE_RESOLUTION, StartupReport.Phase.CONTAINER_START,
+                    StartupReport.Phase.READINESS_WAIT));
+  }
+
+  @Test
+  void reuseClusterTest() {
+    //given
+    assumeTrue(TestcontainersConfiguration.getInstance().environmentSupportsReuse(),
+            "testcontainers.reuse.enable=true is not set");
+    ArcusContainerProps props = ArcusContainerProps.builder().serviceCode("reuse").clusterSize(2).reuse(true).build();
+    String fingerprint = ContainerReuse.fingerprint("cluster", ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME,
+            ArcusClusterContainer.DEFAULT_ZK_IMAGE_NAME, props, ArcusContainer.buildContainerCommand(0, true, props));
+    ContainerReuse.removeAll(fingerprint);
+    ArcusClusterContainer first = ArcusClusterContainer.create(props);
+    List<String> nodes = Collections.emptyList();
+    try {
+      first.start();
+      nodes = first.getCacheNodes();
+
+      //when
+      first.stop();
+
+      //then
+      assertThat(nodes).allSatisfy(node -> assertThat(PortReservations.isReserved(ContainerReuse.port(node))).isTrue());
+      assertThat(ContainerReuse.findAddresses(fingerprint)).hasSize(3);
+
+      //when
+      ArcusClusterContainer second = ArcusClusterContainer.create(props);
+      second.start();
+
+      //then
+      assertThat(second.getCacheNodes()).isEqualTo(nodes);
+      assertThat(second.getStartupReport().orElseThrow(IllegalStateException::new).getContainers().values())
+              .allSatisfy(container -> assertThat(container.get(StartupReport.Phase.CONTAINER_CREATE)).isNull());
+      second.stop();
+    } finally {
+      ContainerReuse.removeAll(fingerprint);
+      nodes.forEach(node -> PortReservations.release(ContainerReuse.port(node)));
+    }
+  }
+
+  /**
+   * Needs an arcus-memcached image built with replication enabled, given by {@code -Darcus.replication.image=...}.
+   */
+  @Test
+  void replicationSwitchoverTest() {
+    //given
+    String image = System.getProperty("arcus.replication.image");
+    assumeTrue(image != null, "arcus.replication.image is not set");
+    try (ArcusClusterContainer replicated = ArcusClusterContainer.create(DockerImageName.parse(image),
+            ArcusContainerProps.builder().serviceCode("repl").replication(1, 2).build())) {
+      replicated.start();
+      List<String> nodes = replicated.getReplicationGroupNodes("g0");
+
+      //when
+      FaultTimeline timeline = replicated.switchover("g0");
+
+      //then
+      assertThat(nodes).hasSize(2);
+      assertThat(timeline.getTransitions()).containsOnlyKeys(
+              FaultTimeline.Transition.REQUESTED, FaultTimeline.Transition.SWITCHED_OVER);
+      String cacheList = replicated.execZkCli(new ZkCliScript().ls("/arcus_repl/cache_list/repl"));
+      String newMasterPort = nodes.get(1).substring(nodes.get(1).lastIndexOf(':'));
+      assertThat(Arrays.asList(cacheList.split("[\\s,\\[\\]]+"))).filteredOn(znode -> znode.startsWith("g0^M^"))
+              .singleElement()
+              .satisfies(master -> assertThat(master).containsAnyOf(newMasterPort + "^", newMasterPort + "-"));
+    }
+  }
+
+  @Test
+  void bootstrapZnodesTest(TestReporter reporter) {
+    //given
+    clusterContainer.execZkCli(new ZkCliScript().deleteAll("/arcus"));
+
+    //when
+    long start = System.nanoTime();
+    clusterContainer.bootstrapZnodes();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    clusterContainer.bootstrapZnodes();
+
+    //then
+    String mapping = clusterContainer.execZkCli(new ZkCliScript()
+            .ls("/arcus/cache_list")
+            .ls("/arcus/client_list")
+            .ls("/arcus/cache_server_mapping"));
+    assertThat(mapping).contains("[test]");
+    for (String node : clusterContainer.getCacheNodes()) {
+      assertThat(mapping).contains(node);
+      assertThat(clusterContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_server_mapping/" + node)))
+              .contains("[test]");
+    }
+    reporter.publishEntry("bootstrapZnodes", elapsed.toString());
+  }
+
+  @Test
+  void verifyZnodesTest() {
+    //given
+    clusterContainer.verifyZnodes();
+    String node = clusterContainer.getCacheNodes().get(0);
+
+    //when
+    clusterContainer.execZkCli(new ZkCliScript().deleteAll("/arcus/cache_server_mapping/" + node));
+
+    //then
+    assertThatThrownBy(clusterContainer::verifyZnodes)
+            .isInstanceOf(IllegalStateException.class)
+            .hasRootCauseMessage("zkCli failed: Node does not exist: /arcus/cache_server_mapping/" + node + "/test");
+  }
+
+  @Test
+  void createServiceCodeTest() throws ExecutionException, InterruptedException {
+    //given
+    String node = clusterContainer.getCacheNodes().get(0);
+    String hostPorts = clusterContainer.createServiceCode("tenant", Collections.singletonList(node));
+    ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(hostPorts,
+            "tenant", new ConnectionFactoryBuilder(), 2);
+
+    //when
+    OperationFuture<Boolean> set = arcusClient.set("tenant", 10, "tenantValue");
+
+    //then
+    assertThat(set.get()).isTrue();
+    assertThat(clusterContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_list/tenant")))
+            .contains(node.split(":")[1] + "-" + node.split(":")[0]);
+    arcusClient.shutdown();
+    clusterContainer.deleteServiceCode("tenant");
+    assertThat(clusterContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_list")))
+            .doesNotContain("tenant");
+  }
+
+  @Test
+  void createServiceCodeFollowsKilledNodeTest() {
+    //given
+    String node = clusterContainer.getCacheNodes().get(1);
+    String znode = node.split(":")[1] + "-" + node.split(":")[0];
+    clusterContainer.createServiceCode("follower", Collections.singletonList(node));
+
+    try {
+      //when
+      clusterContainer.kill(node);
+      String afterKill = clusterContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_list/follower"));
+      clusterContainer.restart(node);
+      String afterRestart = clusterContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_list/follower"));
+      clusterContainer.restart(node);
+      String afterRestartWithoutKill = clusterContainer.execZkCli(
+              new ZkCliScript().ls("/arcus/cache_list/follower"));
+
+      //then
+      assertThat(afterKill).doesNotContain(znode);
+      assertThat(afterRestart).contains(znode);
+      assertThat(afterRestartWithoutKill).contains(znode);
+    } finally {
+      clusterContainer.deleteServiceCode("follower");
+    }
+  }
+
+  @Test
+  void snapshotTest(@TempDir Path directory) throws IOException, ExecutionException, InterruptedException {
+    //given
+    ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(clusterContainer.getHostPorts(),
+            "test", new ConnectionFactoryBuilder(), 2);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      keys.add("snapshot" + i);
+      arcusClient.set("snapshot" + i, 0, "snapshotValue" + i).get();
+    }
+    arcusClient.shutdown();
+
+    //when
+    int saved = clusterContainer.snapshot(directory, keys);
+    try (ArcusClusterContainer restored = ArcusClusterContainer.createFromSnapshot(directory)) {
+      restored.start();
+
+      //then
+      ArcusClientPool restoredClient = ArcusClient.createArcusClientPool(restored.getHostPorts(),
+              "test", new ConnectionFactoryBuilder(), 2);
+      assertThat(saved).isEqualTo(100);
+      for (int i = 0; i < 100; i++) {
+        assertThat(restoredClient.get("snapshot" + i)).isEqualTo("snapshotValue" + i);
+      }
+      restoredClient.shutdown();
+    }
+  }
+
+  @Test
+  void snapshotSkipsCollectionTest(@TempDir Path directory)
+          throws IOException, ExecutionException, InterruptedException {
+    //given
+    ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(clusterContainer.getHostPorts(),
+            "test", new ConnectionFactoryBuilder(), 2);
+    arcusClient.set("snapshotKv", 0, "snapshotValue").get();
+    arcusClient.asyncLopInsert("snapshotList", 0, "element", new CollectionAttributes()).get();
+    arcusClient.shutdown();
+
+    //when
+    int saved = clusterContainer.snapshot(directory, Arrays.asList("snapshotList", "snapshotKv"));
+
+    //then
+    assertThat(saved).isEqualTo(1);
+    assertThat(directory.resolve(ArcusClusterSnapshot.ITEMS_FILE)).exists();
+  }
+
+  @Test
+  void killAndRestartNodeTest() {
+    //given
+    String node = clusterContainer.getCacheNodes().get(0);
+
+    //when
+    FaultTimeline killed = clusterContainer.kill(node);
+    FaultTimeline restarted = clusterContainer.restart(node);
+
+    //then
+    assertThat(killed.getTransitions()).containsOnlyKeys(
+            FaultTimeline.Transition.REQUESTED, FaultTimeline.Transition.KILLED);
+    assertThat(restarted.between(FaultTimeline.Transition.REQUESTED, FaultTimeline.Transition.RESTARTED))
+            .isLessThanOrEqualTo(restarted.between(FaultTimeline.Transition.REQUESTED, FaultTimeline.Transition.READY));
+    clusterContainer.flushAll();
+  }
+
+  @Test
+  void pauseZookeeperTest() {
+    //when
+    FaultTimeline paused = clusterContainer.pause(ArcusClusterContainer.ZOOKEEPER);
+    FaultTimeline unpaused = clusterContainer.unpause(ArcusClusterContainer.ZOOKEEPER);
+
+    //then
+    assertThat(paused.get(FaultTimeline.Transition.PAUSED)).isNotNull();
+    assertThat(unpaused.get(FaultTimeline.Transition.READY))
+            .isAfterOrEqualTo(unpaused.get(FaultTimeline.Transition.UNPAUSED));
+  }
+
+  @Test
+  void injectNetworkFaultTest() throws IOException {
+    //given
+    String node = clusterContainer.getCacheNodes().get(0);
+    int port = Integer.parseInt(node.split(":")[1]);
+    clusterContainer.injectNetworkFault(node, Duration.ofMillis(200), 0);
+
+    //when
+    Duration elapsed;
+    try (AsciiConnection connection = AsciiConnection.open("localhost", port, Duration.ofSeconds(10))) {
+      long start = System.nanoTime();
+      connection.command("version");
+      elapsed = Duration.ofNanos(System.nanoTime() - start);
+    } finally {
+      clusterContainer.clearNetworkFault(node);
+    }
+
+    //then
+    assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void networkProfileTest() throws IOException {
+    //given
+    String node = clusterContainer.getCacheNodes().get(1);
+    int port = Integer.parseInt(node.split(":")[1]);
+    NetworkProfile crossZone = NetworkProfile.builder()
+            .latency(Duration.ofMillis(100))
+            .jitter(Duration.ofMillis(10))
+            .bandwidth(100_000_000L)
+            .build();
+    clusterContainer.applyNetworkProfile(node, crossZone);
+
+    //when
+    Duration elapsed;
+    try (AsciiConnection connection = AsciiConnection.open("localhost", port, Duration.ofSeconds(10))) {
+      long start = System.nanoTime();
+      connection.command("version");
+      elapsed = Duration.ofNanos(System.nanoTime() - start);
+    } finally {
+      clusterContainer.clearNetworkProfile(node);
+    }
+
+    //then
+    assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+    assertThat(clusterContainer.getNetworkProfiles()).doesNotContainKey(node);
+  }
+
+  @Test
+  void addAndRemoveNodeTest() throws ExecutionException, InterruptedException {
+    //given
+    ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(clusterContainer.getHostPorts(),
+            "test", new ConnectionFactoryBuilder(), 2);
+
+    //when
+    ResizeReport added = clusterContainer.addNode();
+    ResizeReport removed = clusterContainer.removeNode(clusterContainer.getCacheNodes().get(0));
+
+    //then
+    assertThat(added.getCacheNodes()).hasSize(4).contains(added.getNode());
+    assertThat(added.getMovedKeyRatio()).isBetween(0.0, 1.0);
+    assertThat(removed.getCacheNodes()).hasSize(3).doesNotContain(removed.getNode());
+    assertThat(clusterContainer.getCacheNodes()).isEqualTo(removed.getCacheNodes());
+    assertThat(removed.getConvergedAt()).isBeforeOrEqualTo(removed.getCompletedAt());
+    assertThat(arcusClient.set("resize", 10, "resizeValue").get()).isTrue();
+    arcusClient.shutdown();
+  }
+
+  @Test
+  void zookeeperEnsembleTest() throws ExecutionException, InterruptedException {
+    //given
+    ArcusClusterContainer ensemble = ArcusClusterContainer.create(ArcusContainerProps.builder()
+            .zookeeperEnsembleSize(3)
+            .build());
+
+    try {
+      ensemble.start();
+      ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(ensemble.getHostPorts(),
+              "test", new ConnectionFactoryBuilder(), 2);
+      String leader = ensemble.getZookeeperLeader();
+
+      //when
+      FaultTimeline failover = ensemble.killZookeeperLeader();
+      FaultTimeline restarted = ensemble.restart(leader);
+
+      //then
+      assertThat(ensemble.getHostPorts().split(",")).hasSize(3);
+      assertThat(ensemble.getZookeeperNodes()).containsExactly("zoo1:2181", "zoo2:2181", "zoo3:2181");
+      assertThat(failover.getTarget()).isEqualTo(leader);
+      assertThat(failover.get(FaultTimeline.Transition.LEADER_ELECTED))
+              .isAfterOrEqualTo(failover.get(FaultTimeline.Transition.KILLED));
+      assertThat(restarted.get(FaultTimeline.Transition.READY)).isNotNull();
+      assertThat(ensemble.getZookeeperLeader()).isNotNull().isNotEqualTo(leader);
+      assertThat(arcusClient.set("ensemble", 10, "ensembleValue").get()).isTrue();
+      arcusClient.shutdown();
+    } finally {
+      ensemble.stop();
+    }
+  }
+
+  @Test
+  void singleContainerTest() throws ExecutionException, InterruptedException {
+    //given
+    ArcusClusterContainer singleContainer = ArcusClusterContainer.create(ArcusContainerProps.builder()
+            .singleContainer(true)
+            .build());
+
+    try {
+      //when
+      singleContainer.start();
+      ArcusClientPool arcusClient = ArcusClient.createArcusClientPool(singleContainer.getHostPorts(),
+              "test", new ConnectionFactoryBuilder(), 2);
+
+      //then
+      assertThat(singleContainer.getCacheNodes()).hasSize(3).allMatch(node -> node.startsWith("cache:"));
+      assertThat(singleContainer.getNodeContainers().values()).containsOnly(
+              singleContainer.getNodeContainers().values().iterator().next());
+      for (String node : singleContainer.getCacheNodes()) {
+        assertThat(singleContainer.execZkCli(new ZkCliScript().ls("/arcus/cache_server_mapping/" + node)))
+                .contains("[test]");
+      }
+      assertThat(arcusClient.set("single", 10, "singleValue").get()).isTrue();
+      arcusClient.shutdown();
+    } finally {
+      singleContainer.stop();
+    }
+  }
 }
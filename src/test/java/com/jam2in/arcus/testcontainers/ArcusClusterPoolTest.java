@@ -0,0 +1,80 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.testcontainers.utility.DockerImageName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArcusClusterPoolTest extends ArcusClusterTestBase {
+
+  @Test
+  void acquireSameConfiguration() {
+    //when
+    ArcusClusterContainer cluster = ArcusClusterPool.acquire(ArcusContainerProps.builder().build());
+
+    //then
+    try {
+      assertThat(cluster).isSameAs(ARCUS_CLUSTER_CONTAINER);
+      assertThat(cluster.isRunning()).isTrue();
+      assertThat(ArcusClusterPool.getReferenceCount(cluster)).isGreaterThanOrEqualTo(2);
+    } finally {
+      ArcusClusterPool.release(cluster);
+    }
+  }
+
+  @Test
+  void releaseStopsIdleCluster() throws InterruptedException {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder()
+            .serviceCode("pool")
+            .clusterSize(1)
+            .build();
+    Duration idleTimeout = ArcusClusterPool.getIdleTimeout();
+    ArcusClusterPool.setIdleTimeout(Duration.ZERO);
+
+    //when
+    ArcusClusterContainer cluster;
+    try {
+      cluster = ArcusClusterPool.acquire(props);
+      assertThat(cluster).isNotSameAs(ARCUS_CLUSTER_CONTAINER);
+      ArcusClusterPool.release(cluster);
+    } finally {
+      // the idle timeout is shared by every test of the JVM releasing a pooled cluster.
+      ArcusClusterPool.setIdleTimeout(idleTimeout);
+    }
+
+    //then
+    for (int i = 0; i < 100 && cluster.isRunning(); i++) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertThat(cluster.isRunning()).isFalse();
+    assertThat(ArcusClusterPool.getReferenceCount(cluster)).isZero();
+    assertThatThrownBy(() -> ArcusClusterPool.release(cluster))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void acquireFailsForEveryCallerOfFailedStart() {
+    //given
+    DockerImageName imageName = DockerImageName.parse("jam2in/arcus-memcached:no-such-tag");
+    ArcusContainerProps props = ArcusContainerProps.builder().serviceCode("failed").clusterSize(1).build();
+
+    //when
+    CompletableFuture<ArcusClusterContainer> first =
+            CompletableFuture.supplyAsync(() -> ArcusClusterPool.acquire(imageName, props));
+    CompletableFuture<ArcusClusterContainer> second =
+            CompletableFuture.supplyAsync(() -> ArcusClusterPool.acquire(imageName, props));
+
+    //then
+    assertThatThrownBy(first::join).hasCauseInstanceOf(RuntimeException.class);
+    assertThatThrownBy(second::join).hasCauseInstanceOf(RuntimeException.class);
+    assertThatThrownBy(() -> ArcusClusterPool.acquire(imageName, props))
+            .isInstanceOf(RuntimeException.class);
+  }
+}
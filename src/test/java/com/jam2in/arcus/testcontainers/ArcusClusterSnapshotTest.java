@@ -0,0 +1,53 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArcusClusterSnapshotTest {
+
+  @Test
+  void propsSurviveSnapshot(@TempDir Path directory) throws IOException {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder()
+            .serviceCode("snapshot")
+            .clusterSize(2)
+            .memorySize(128)
+            .workerThreads(2)
+            .maxConnections(512)
+            .maxItemSize(2 * 1024 * 1024)
+            .stickyLimit(16)
+            .maxCollectionSize(10000)
+            .cpus(0.5)
+            .cpusets("0-1,3", "2")
+            .memoryLimit(256L * 1024 * 1024)
+            .tmpfs("/data", "rw,size=64m")
+            .tmpfs("/logs", "rw")
+            .zookeeperEnsembleSize(3)
+            .build();
+
+    //when
+    ArcusClusterSnapshot.saveProps(props, directory);
+
+    //then
+    assertThat(ArcusClusterSnapshot.loadProps(directory)).isEqualTo(props);
+  }
+
+  @Test
+  void networkProfilesAreNotSaved(@TempDir Path directory) {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder()
+            .networkProfile(1, NetworkProfile.builder().latency(Duration.ofMillis(5)).build())
+            .build();
+
+    //when, then
+    assertThatThrownBy(() -> ArcusClusterSnapshot.saveProps(props, directory))
+            .isInstanceOf(UnsupportedOperationException.class);
+  }
+}
@@ -1,10 +1,17 @@
 package com.jam2in.arcus.testcontainers;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.jupiter.api.Test;
 
 import org.testcontainers.utility.DockerImageName;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -110,6 +117,293 @@ public class ArcusContainerPropsTest {
     assertEquals(64, arcusContainerProps.getMemorySize());
   }
 
+  @Test
+  void testStartupParallelism() {
+    int startupParallelism = 2;
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .startupParallelism(startupParallelism)
+            .build();
+
+    assertEquals(startupParallelism, arcusContainerProps.getStartupParallelism());
+  }
+
+  @Test
+  void testStartupParallelism_whenSmall() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .startupParallelism(0)
+            .build());
+    String expectedMessage = "Invalid startup parallelism.";
+    String actualMessage = exception.getMessage();
+
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  void testStartupParallelism_whenNotSet() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .clusterSize(5)
+            .build();
+
+    assertEquals(5, arcusContainerProps.getStartupParallelism());
+  }
+
+  @Test
+  void testReadinessPollInterval() {
+    Duration readinessPollInterval = Duration.ofMillis(20);
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .readinessPollInterval(readinessPollInterval)
+            .build();
+
+    assertEquals(readinessPollInterval, arcusContainerProps.getReadinessPollInterval());
+  }
+
+  @Test
+  void testReadinessPollInterval_whenZero() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .readinessPollInterval(Duration.ZERO)
+            .build());
+    String expectedMessage = "Invalid readiness poll interval.";
+    String actualMessage = exception.getMessage();
+
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  void testTuningKnobs() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .workerThreads(8)
+            .maxConnections(2048)
+            .maxItemSize(2 * 1024 * 1024)
+            .stickyLimit(16)
+            .maxCollectionSize(100_000)
+            .build();
+
+    assertEquals(8, arcusContainerProps.getWorkerThreads());
+    assertEquals(2048, arcusContainerProps.getMaxConnections());
+    assertEquals(2 * 1024 * 1024, arcusContainerProps.getMaxItemSize());
+    assertEquals(16, arcusContainerProps.getStickyLimit());
+    assertEquals(100_000, arcusContainerProps.getMaxCollectionSize());
+  }
+
+  @Test
+  void testTuningKnobs_whenSmall() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .workerThreads(0)
+            .build());
+    String expectedMessage = "Invalid worker threads.";
+    String actualMessage = exception.getMessage();
+
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  void testResourceLimits() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .cpus(0.5)
+            .cpusets("0", "1")
+            .memoryLimit(256L * 1024 * 1024)
+            .tmpfs("/tmp", "rw,size=64m")
+            .build();
+
+    assertEquals(0.5, arcusContainerProps.getCpus());
+    assertThat(arcusContainerProps.getCpusets()).containsExactly("0", "1");
+    assertEquals(256L * 1024 * 1024, arcusContainerProps.getMemoryLimit());
+    assertThat(arcusContainerProps.getTmpfs()).containsEntry("/tmp", "rw,size=64m");
+  }
+
+  @Test
+  void testResourceLimits_whenNotSet() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .build();
+
+    assertEquals(0, arcusContainerProps.getCpus());
+    assertThat(arcusContainerProps.getCpusets()).isEmpty();
+    assertEquals(0, arcusContainerProps.getMemoryLimit());
+    assertThat(arcusContainerProps.getTmpfs()).isEmpty();
+  }
+
+  @Test
+  void testCpusets_whenEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .cpusets("0", "")
+            .build());
+    String expectedMessage = "Invalid cpusets.";
+    String actualMessage = exception.getMessage();
+
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  void testReplication() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .clusterSize(5)
+            .replication(2, 3)
+            .build();
+
+    assertTrue(arcusContainerProps.isReplicated());
+    assertEquals(2, arcusContainerProps.getReplicationGroups());
+    assertEquals(3, arcusContainerProps.getReplicasPerGroup());
+    assertEquals(6, arcusContainerProps.getClusterSize());
+  }
+
+  @Test
+  void testReplication_whenNotSet() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .build();
+
+    assertThat(arcusContainerProps.isReplicated()).isFalse();
+    assertEquals(0, arcusContainerProps.getReplicasPerGroup());
+  }
+
+  @Test
+  void testReplication_withDefaultImage() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .replication(1, 2)
+            .build();
+
+    assertThrows(IllegalArgumentException.class, () -> ArcusClusterContainer.create(arcusContainerProps));
+    assertThrows(IllegalArgumentException.class, () -> ArcusClusterContainer.create(
+            DockerImageName.parse("jam2in/arcus-memcached:1.13.0"), arcusContainerProps));
+  }
+
+  @Test
+  void testReplication_whenTooManyReplicas() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .replication(1, 4)
+            .build());
+    String expectedMessage = "Invalid replicas per group.";
+    String actualMessage = exception.getMessage();
+
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  void testLogCapture() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .logCapture(4)
+            .logRateLimit(0)
+            .logDirectory(Paths.get("build", "logs"))
+            .build();
+
+    assertEquals(4 * 1024 * 1024, arcusContainerProps.getLogCaptureSize());
+    assertEquals(0, arcusContainerProps.getLogRateLimit());
+    assertEquals(Paths.get("build", "logs"), arcusContainerProps.getLogDirectory());
+  }
+
+  @Test
+  void testLogCapture_whenNotSet() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .build();
+
+    assertEquals(0, arcusContainerProps.getLogCaptureSize());
+    assertEquals(Paths.get("target", "arcus-logs"), arcusContainerProps.getLogDirectory());
+  }
+
+  @Test
+  void testReuse() {
+    assertTrue(ArcusContainerProps.builder().reuse(true).build().isReuse());
+    assertFalse(ArcusContainerProps.builder().build().isReuse());
+  }
+
+  @Test
+  void testPrebuiltImages() {
+    assertTrue(ArcusContainerProps.builder().prebuiltImages(true).build().isPrebuiltImages());
+    assertFalse(ArcusContainerProps.builder().build().isPrebuiltImages());
+  }
+
+  @Test
+  void testSingleContainer() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .singleContainer(true)
+            .build();
+
+    assertTrue(arcusContainerProps.isSingleContainer());
+    assertEquals("trap 'kill 0' INT TERM\n"
+                    + "'memcached' '-m' '64' '-p' '11211' '-z' 'zoo1:2181' &\n"
+                    + "'memcached' '-m' '64' '-p' '11212' '-z' 'zoo1:2181' &\n"
+                    + "wait\n",
+            ArcusContainer.buildMultiProcessScript(Collections.singletonList("memcached"),
+                    Arrays.asList(11211, 11212), arcusContainerProps));
+  }
+
+  @Test
+  void testSingleContainer_whenCombinedWithReplicationOrReuse() {
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .singleContainer(true)
+            .replication(1, 2)
+            .build());
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .singleContainer(true)
+            .reuse(true)
+            .build());
+  }
+
+  @Test
+  void testTrafficCapture() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .trafficCapture(Paths.get("target", "captures"))
+            .build();
+
+    assertEquals(Paths.get("target", "captures"), arcusContainerProps.getTrafficCaptureDirectory());
+    assertNull(ArcusContainerProps.builder().build().getTrafficCaptureDirectory());
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder().trafficCapture(null));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .trafficCapture(Paths.get("target", "captures"))
+            .reuse(true)
+            .build());
+  }
+
+  @Test
+  void testNetworkProfile() {
+    NetworkProfile slow = NetworkProfile.builder().latency(Duration.ofMillis(5)).build();
+    NetworkProfile fast = NetworkProfile.builder().latency(Duration.ofMillis(1)).build();
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .networkProfile(fast)
+            .networkProfile(2, slow)
+            .zookeeperNetworkProfile(slow)
+            .build();
+
+    assertEquals(fast, arcusContainerProps.getNetworkProfile(0));
+    assertEquals(slow, arcusContainerProps.getNetworkProfile(2));
+    assertEquals(slow, arcusContainerProps.getZookeeperNetworkProfile());
+    assertNull(ArcusContainerProps.builder().build().getNetworkProfile(0));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder().networkProfile(-1, slow));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .singleContainer(true)
+            .networkProfile(1, slow)
+            .build());
+  }
+
+  @Test
+  void testZookeeperEnsemble() {
+    ArcusContainerProps arcusContainerProps = ArcusContainerProps.builder()
+            .zookeeperEnsembleSize(3)
+            .build();
+
+    assertEquals(3, arcusContainerProps.getZookeeperEnsembleSize());
+    assertEquals(1, ArcusContainerProps.builder().build().getZookeeperEnsembleSize());
+    assertEquals("-m 64 -p 11211 -z zoo1:2181,zoo2:2181,zoo3:2181",
+            ArcusContainer.buildContainerCommand(11211, true, arcusContainerProps));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder().zookeeperEnsembleSize(2));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder().zookeeperEnsembleSize(0));
+    assertThrows(IllegalArgumentException.class, () -> ArcusContainerProps.builder()
+            .zookeeperEnsembleSize(5)
+            .reuse(true)
+            .build());
+  }
+
+  @Test
+  void testEquals() {
+    ArcusContainerProps props = ArcusContainerProps.builder()
+            .serviceCode("equals")
+            .clusterSize(2)
+            .build();
+
+    assertEquals(props, ArcusContainerProps.builder().serviceCode("equals").clusterSize(2).build());
+    assertEquals(props.hashCode(), ArcusContainerProps.builder().serviceCode("equals").clusterSize(2).build().hashCode());
+    assertThat(props).isNotEqualTo(ArcusContainerProps.builder().serviceCode("equals").clusterSize(3).build());
+  }
+
   @Test
   void testCreateMethodWithoutParams() {
     //when
@@ -166,4 +460,24 @@ public class ArcusContainerPropsTest {
               .isEqualTo(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME.toString());
     }
   }
+
+  @Test
+  void createArcusContainerWithTuningKnobsTest() {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder()
+            .workerThreads(4)
+            .maxItemSize(2048)
+            .stickyLimit(8)
+            .maxCollectionSize(1000)
+            .build();
+
+    //when
+    try (ArcusContainer arcusContainer = ArcusContainer.create(props)) {
+      //then
+      assertThat(String.join(" ", arcusContainer.getCommandParts()))
+              .contains("-t 4", "-I 2048")
+              .doesNotContain("-c ")
+              .endsWith("-e sticky_limit=8;max_list_size=1000;max_set_size=1000;max_map_size=1000;max_btree_size=1000");
+    }
+  }
 }
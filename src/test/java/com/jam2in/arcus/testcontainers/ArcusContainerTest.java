@@ -38,4 +38,20 @@ public class ArcusContainerTest {
     assertThat(arcusContainer.isCreated()).isTrue();
     assertThat(b).isTrue();
   }
+
+  @Test
+  void flushAllTest() throws IOException, ExecutionException, InterruptedException {
+    //given
+    ArcusClient arcusClient = new ArcusClient(
+            new DefaultConnectionFactory(),
+            Collections.singletonList(
+                    new InetSocketAddress("127.0.0.1", arcusContainer.getFirstMappedPort())));
+    arcusClient.set("flush", 60, "flushValue").get();
+
+    //when
+    arcusContainer.reset();
+
+    //then
+    assertThat(arcusClient.get("flush")).isNull();
+  }
 }
@@ -0,0 +1,35 @@
+package com.jam2in.arcus.testcontainers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArcusImagesTest {
+
+  private static final String PINNED_BASE = "jam2in/arcus-memcached@sha256:"
+          + "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+  @Test
+  void dockerfileFromPinnedBase() {
+    //when
+    String dockerfile = ArcusImages.dockerfile(PINNED_BASE, "ENV A=1\n");
+
+    //then
+    assertThat(dockerfile).startsWith("FROM " + PINNED_BASE + "\n").endsWith("ENV A=1\n");
+  }
+
+  @Test
+  void derivedTagChangesWithBaseDigest() {
+    //given
+    String dockerfile = ArcusImages.dockerfile(PINNED_BASE, "ENV A=1\n");
+    String otherDockerfile = ArcusImages.dockerfile(PINNED_BASE.replace("0123", "3210"), "ENV A=1\n");
+
+    //when
+    String tag = ArcusImages.derivedTag(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, dockerfile);
+
+    //then
+    assertThat(tag).matches("arcus-testcontainers/arcus-memcached:[0-9a-f]{12}");
+    assertThat(tag).isEqualTo(ArcusImages.derivedTag(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, dockerfile));
+    assertThat(tag).isNotEqualTo(ArcusImages.derivedTag(ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, otherDockerfile));
+  }
+}
@@ -0,0 +1,77 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArcusItemTest {
+
+  @Test
+  void keyValueCommand() {
+    //when
+    List<String> commands = toStrings(ArcusItem.of("key", 3, 60, "value".getBytes(StandardCharsets.UTF_8)));
+
+    //then
+    assertThat(commands).containsExactly("set key 3 60 5\r\nvalue\r\n");
+  }
+
+  @Test
+  void collectionCommands() {
+    //given
+    byte[] element = "e".getBytes(StandardCharsets.UTF_8);
+
+    //then
+    assertThat(toStrings(ArcusItem.list("list", Arrays.asList(element, element))))
+            .containsExactly("lop insert list -1 1 create 0 0 0\r\ne\r\n", "lop insert list -1 1 create 0 0 0\r\ne\r\n");
+    assertThat(toStrings(ArcusItem.set("set", Collections.singletonList(element))))
+            .containsExactly("sop insert set 1 create 0 0 0\r\ne\r\n");
+    assertThat(toStrings(ArcusItem.map("map", Collections.singletonMap("field", element))))
+            .containsExactly("mop insert map field 1 create 0 0 0\r\ne\r\n");
+    assertThat(toStrings(ArcusItem.btree("btree", Collections.singletonMap(10L, element))))
+            .containsExactly("bop insert btree 10 1 create 0 0 0\r\ne\r\n");
+  }
+
+  @Test
+  void invalidKey() {
+    assertThatThrownBy(() -> ArcusItem.of("invalid key", "value"))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void generator() {
+    //given
+    ArcusItemGenerator generator = ArcusItemGenerator.builder()
+            .keyCount(100)
+            .keyPrefix("gen:")
+            .valueSize(10, 20)
+            .build();
+
+    //when
+    List<String> first = toStrings(generator);
+    List<String> second = toStrings(generator);
+
+    //then
+    assertThat(first).hasSize(100).isEqualTo(second);
+    assertThat(first.get(0)).startsWith("set gen:0 0 0 ");
+  }
+
+  private static List<String> toStrings(Iterable<ArcusItem> items) {
+    List<String> commands = new ArrayList<>();
+    items.forEach(item -> commands.addAll(toStrings(item)));
+    return commands;
+  }
+
+  private static List<String> toStrings(ArcusItem item) {
+    return item.toCommands().stream()
+            .map(command -> new String(command, StandardCharsets.UTF_8))
+            .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,195 @@
+package com.jam2in.arcus.testcontainers;
+
+import com.jam2in.arcus.testcontainers.ArcusLoadGenerator.Operation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArcusLoadGeneratorTest {
+
+  private ServerSocket server;
+  private volatile long stallMillis;
+  private volatile boolean failSets;
+  private ArcusLoadGenerator generator;
+
+  @BeforeEach
+  void startFakeServer() throws IOException {
+    server = new ServerSocket(0);
+    Thread acceptor = new Thread(this::accept, "fake-memcached");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    generator = new ArcusLoadGenerator(Collections.singletonMap("127.0.0.1:" + server.getLocalPort(),
+            InetSocketAddress.createUnresolved("localhost", server.getLocalPort())))
+            .seed(1);
+  }
+
+  @AfterEach
+  void stopFakeServer() throws IOException {
+    server.close();
+  }
+
+  private void accept() {
+    try {
+      while (true) {
+        Socket socket = server.accept();
+        Thread thread = new Thread(() -> serve(socket), "fake-memcached-connection");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    } catch (IOException e) {
+      // the test is over.
+    }
+  }
+
+  /**
+   * Answers the commands of the workload, stalling for {@link #stallMillis} before the first response.
+   */
+  private void serve(Socket socket) {
+    AtomicBoolean stalled = new AtomicBoolean();
+    try (Socket s = socket;
+         BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+         OutputStream out = s.getOutputStream()) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (stalled.compareAndSet(false, true)) {
+          Thread.sleep(stallMillis);
+        }
+        String response;
+        if (line.startsWith("set ")) {
+          in.readLine();
+          response = failSets ? "SERVER_ERROR out of memory storing object\r\n" : "STORED\r\n";
+        } else if (line.startsWith("lop insert ") || line.startsWith("bop insert ")) {
+          in.readLine();
+          response = "CREATED_STORED\r\n";
+        } else if (line.startsWith("get ")) {
+          response = "VALUE " + line.substring(4) + " 0 3\r\nabc\r\nEND\r\n";
+        } else if (line.startsWith("lop get ")) {
+          response = "VALUE 0 2\r\n3 abc\r\n3 def\r\nEND\r\n";
+        } else {
+          response = "NOT_FOUND\r\n";
+        }
+        out.write(response.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the test is over.
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void runWorkloadMix() {
+    //when
+    LatencyReport report = generator.rate(2000)
+            .duration(Duration.ofMillis(500))
+            .weight(Operation.GET, 1)
+            .weight(Operation.SET, 1)
+            .weight(Operation.LOP_INSERT, 1)
+            .weight(Operation.LOP_GET, 1)
+            .weight(Operation.BOP_GET, 1)
+            .valueSize(10, 20)
+            .run();
+
+    //then
+    assertThat(report.getOperations())
+            .containsExactlyInAnyOrder(Operation.GET, Operation.SET, Operation.LOP_INSERT, Operation.LOP_GET,
+                    Operation.BOP_GET);
+    long total = 0;
+    for (Operation operation : report.getOperations()) {
+      assertThat(report.getErrors(operation)).isZero();
+      assertThat(report.getP50(operation)).isPositive()
+              .isLessThanOrEqualTo(report.getP99(operation));
+      assertThat(report.getP99(operation)).isLessThanOrEqualTo(report.getP999(operation));
+      assertThat(report.getP999(operation)).isLessThanOrEqualTo(report.getMax(operation));
+      total += report.getCount(operation);
+    }
+    assertThat(total).isEqualTo(1000);
+    assertThat(report.getAchievedRate()).isPositive();
+    assertThat(report.toString()).contains("LOP_GET={count=");
+  }
+
+  @Test
+  void latenciesIncludeTheTimeQueuedBehindAStall() {
+    //given
+    stallMillis = 300;
+
+    //when
+    LatencyReport report = generator.rate(1000)
+            .duration(Duration.ofMillis(600))
+            .weight(Operation.SET, 0)
+            .connectionsPerNode(1)
+            .run();
+
+    //then
+    // a closed loop would have measured one slow request, but every request scheduled during the stall waited.
+    assertThat(report.getCount(Operation.GET)).isEqualTo(600);
+    assertThat(report.getP50(Operation.GET)).isLessThan(Duration.ofMillis(300));
+    assertThat(report.getP99(Operation.GET)).isGreaterThan(Duration.ofMillis(200));
+    assertThat(report.getLatency(Operation.GET, 70)).isGreaterThan(Duration.ofMillis(50));
+  }
+
+  @Test
+  void countErrorResponses() {
+    //given
+    failSets = true;
+
+    //when
+    LatencyReport report = generator.rate(1000)
+            .duration(Duration.ofMillis(200))
+            .warmup(Duration.ofMillis(100))
+            .run();
+
+    //then
+    assertThat(report.getErrors(Operation.SET)).isPositive();
+    assertThat(report.getCount(Operation.SET)).isZero();
+    assertThat(report.getErrors(Operation.GET)).isZero();
+    assertThat(report.getCount(Operation.GET) + report.getErrors(Operation.SET)).isEqualTo(200);
+    assertThat(report.getErrorSamples().get(0)).contains("SET SERVER_ERROR");
+  }
+
+  @Test
+  void zipfianKeysFavorTheFirstItems() {
+    //given
+    ZipfianGenerator zipfian = new ZipfianGenerator(1000, 0.99);
+    SplittableRandom random = new SplittableRandom(1);
+    int[] counts = new int[1000];
+
+    //when
+    for (int i = 0; i < 100_000; i++) {
+      counts[(int) zipfian.next(random.nextDouble())]++;
+    }
+
+    //then
+    assertThat(counts[0]).isBetween(11_000, 16_000);
+    assertThat(counts[0]).isGreaterThan(counts[1]);
+    assertThat(counts[1]).isGreaterThan(counts[10]);
+    assertThat(counts[10]).isGreaterThan(counts[500]);
+  }
+
+  @Test
+  void invalidSettings() {
+    assertThatThrownBy(() -> generator.rate(0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> generator.zipfianKeys(1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> generator.valueSize(10, 5)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> generator.weight(Operation.GET, 0).weight(Operation.SET, 0).run())
+            .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,53 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.concurrent.ExecutionException;
+
+import net.spy.memcached.ArcusClient;
+import net.spy.memcached.ArcusClientPool;
+import net.spy.memcached.ConnectionFactoryBuilder;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(ArcusResetExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ArcusResetExtensionTest extends ArcusClusterTestBase {
+
+  private static ArcusClientPool arcusClient;
+
+  @BeforeAll
+  static void setUp() {
+    arcusClient = ArcusClient.createArcusClientPool(ARCUS_CLUSTER_CONTAINER.getHostPorts(),
+            "test", new ConnectionFactoryBuilder(), 2);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    arcusClient.shutdown();
+  }
+
+  @Test
+  @Order(1)
+  void storeItem() throws ExecutionException, InterruptedException {
+    //when
+    Boolean b = arcusClient.set("reset", 60, "resetValue").get();
+
+    //then
+    assertThat(b).isTrue();
+    assertThat(arcusClient.get("reset")).isEqualTo("resetValue");
+  }
+
+  @Test
+  @Order(2)
+  void itemIsRemovedBeforeNextTest() {
+    //then
+    assertThat(arcusClient.get("reset")).isNull();
+  }
+}
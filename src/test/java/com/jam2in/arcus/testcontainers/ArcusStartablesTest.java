@@ -0,0 +1,146 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.testcontainers.lifecycle.Startable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArcusStartablesTest {
+
+  @Test
+  void startAllConcurrently() throws Exception {
+    //given
+    CountDownLatch started = new CountDownLatch(2);
+    FakeStartable first = new FakeStartable(started, false);
+    FakeStartable second = new FakeStartable(started, false);
+
+    //when
+    CompletableFuture<Void> future = ArcusStartables.startAll(first, second);
+
+    //then
+    future.get(10, TimeUnit.SECONDS);
+    assertThat(first.running).isTrue();
+    assertThat(second.running).isTrue();
+  }
+
+  @Test
+  void startAllStopsStartedOnFailure() {
+    //given
+    FakeStartable started = new FakeStartable(null, false);
+    FakeStartable failed = new FakeStartable(null, true);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    //when
+    CompletableFuture<Void> future = ArcusStartables.startAll(executor, Arrays.asList(started, failed));
+
+    //then
+    try {
+      assertThatThrownBy(future::join)
+              .isInstanceOf(CompletionException.class)
+              .hasRootCauseMessage("start failed");
+      assertThat(started.running).isFalse();
+      assertThat(started.stops).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void startAllStopsPartiallyStartedOnFailure() {
+    //given
+    FakeStartable started = new FakeStartable(null, false);
+    FakeStartable partial = new FakeStartable(null, true, true);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    //when
+    CompletableFuture<Void> future = ArcusStartables.startAll(executor, Arrays.asList(started, partial));
+
+    //then
+    try {
+      assertThatThrownBy(future::join)
+              .isInstanceOf(CompletionException.class)
+              .hasRootCauseMessage("start failed");
+      assertThat(started.running).isFalse();
+      assertThat(started.stops).isEqualTo(1);
+      assertThat(partial.running).isFalse();
+      assertThat(partial.stops).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void startAndStopOnExecutor() {
+    //given
+    FakeStartable startable = new FakeStartable(null, false);
+
+    //when
+    FakeStartable result = ArcusStartables.start(startable, Runnable::run).join();
+
+    //then
+    assertThat(result).isSameAs(startable);
+    assertThat(startable.running).isTrue();
+    ArcusStartables.stop(startable, Runnable::run).join();
+    assertThat(startable.running).isFalse();
+  }
+
+  private static final class FakeStartable implements Startable {
+    private final CountDownLatch started;
+    private final boolean fail;
+    private final boolean partial;
+    private volatile boolean running;
+    private volatile int stops;
+
+    private FakeStartable(CountDownLatch started, boolean fail) {
+      this(started, fail, false);
+    }
+
+    /**
+     * @param partial whether a failing start is running when it fails, like a cluster whose cache nodes fail to start.
+     */
+    private FakeStartable(CountDownLatch started, boolean fail, boolean partial) {
+      this.started = started;
+      this.fail = fail;
+      this.partial = partial;
+    }
+
+    /**
+     * Waits until all startables of the latch are starting, so that they only complete if started concurrently.
+     */
+    @Override
+    public void start() {
+      if (fail) {
+        running = partial;
+        throw new IllegalStateException("start failed");
+      }
+      if (started != null) {
+        started.countDown();
+        try {
+          if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("not started concurrently");
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException(e);
+        }
+      }
+      running = true;
+    }
+
+    @Override
+    public void stop() {
+      running = false;
+      stops++;
+    }
+  }
+}
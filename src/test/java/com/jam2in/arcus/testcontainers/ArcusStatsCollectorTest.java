@@ -0,0 +1,163 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ArcusStatsCollectorTest {
+
+  private ServerSocket server;
+  private Thread serverThread;
+  private ArcusStatsCollector collector;
+
+  @BeforeEach
+  void startFakeServer() throws IOException {
+    server = new ServerSocket(0);
+    serverThread = new Thread(this::serve, "fake-memcached");
+    serverThread.setDaemon(true);
+    serverThread.start();
+    collector = new ArcusStatsCollector(Collections.singletonMap("cache1:11211",
+            InetSocketAddress.createUnresolved("localhost", server.getLocalPort())));
+  }
+
+  @AfterEach
+  void stopFakeServer() throws IOException {
+    collector.close();
+    server.close();
+  }
+
+  /**
+   * Answers the stats commands, increasing the counters by 100 gets, 80 hits, 20 misses,
+   * 50 sets and 5 evictions on every {@code stats}.
+   */
+  private void serve() {
+    try (Socket socket = server.accept();
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         OutputStream out = socket.getOutputStream()) {
+      int polls = 0;
+      String line;
+      while ((line = in.readLine()) != null) {
+        String response;
+        if ("stats".equals(line.trim())) {
+          polls++;
+          response = "STAT pid 1\r\nSTAT version 1.13.4\r\n"
+                  + "STAT cmd_get " + polls * 100 + "\r\nSTAT get_hits " + polls * 80 + "\r\n"
+                  + "STAT get_misses " + polls * 20 + "\r\nSTAT cmd_set " + polls * 50 + "\r\n"
+                  + "STAT evictions " + polls * 5 + "\r\nSTAT bytes 4096\r\nSTAT curr_connections 7\r\nEND\r\n";
+        } else if ("stats slabs".equals(line.trim())) {
+          response = "STAT 1:chunk_size 96\r\nSTAT active_slabs 1\r\nEND\r\n";
+        } else {
+          response = "PREFIX <null> itm 3 kitm 3 tsz 288\r\nPREFIX user itm 1 kitm 1 tsz 96\r\nEND\r\n";
+        }
+        out.write(response.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the test is over.
+    }
+  }
+
+  @Test
+  void parseStatsAndPrefixes() {
+    //when
+    StatsSample sample = new StatsSample("cache1:11211", Instant.now(),
+            ArcusStatsCollector.parseStats(Arrays.asList("STAT cmd_get 10", "STAT version 1.13.4 arcus")),
+            Collections.emptyMap(),
+            ArcusStatsCollector.parsePrefixes(Collections.singletonList("PREFIX user itm 1 tsz 96")));
+
+    //then
+    assertThat(sample.getLong("cmd_get")).isEqualTo(10);
+    assertThat(sample.getStats()).containsEntry("version", "1.13.4 arcus");
+    assertThat(sample.getPrefixes().get("user")).containsEntry("itm", "1").containsEntry("tsz", "96");
+  }
+
+  @Test
+  void ratesBetweenPolls() throws InterruptedException {
+    //when
+    collector.poll();
+    Thread.sleep(100);
+    collector.poll();
+
+    //then
+    List<StatsSample> samples = collector.getSamples("cache1:11211");
+    assertThat(samples).hasSize(2);
+    assertThat(samples.get(1).getSlabs()).containsEntry("1:chunk_size", "96");
+    assertThat(samples.get(1).getPrefixes()).containsKeys("<null>", "user");
+
+    StatsRates rates = collector.getRates().get("cache1:11211");
+    double seconds = rates.getInterval().toNanos() / 1_000_000_000.0;
+    assertThat(rates.getOpsPerSecond()).isCloseTo(150 / seconds, within(0.01));
+    assertThat(rates.getHitRatio()).isCloseTo(0.8, within(0.0001));
+    assertThat(rates.getEvictionsPerSecond()).isCloseTo(5 / seconds, within(0.01));
+    assertThat(rates.getBytes()).isEqualTo(4096);
+    assertThat(rates.getConnections()).isEqualTo(7);
+  }
+
+  @Test
+  void ringBufferKeepsLatestSamples() {
+    //given
+    collector.capacity(3);
+
+    //when
+    for (int i = 0; i < 5; i++) {
+      collector.poll();
+    }
+
+    //then
+    List<StatsSample> samples = collector.getSamples("cache1:11211");
+    assertThat(samples).extracting(sample -> sample.getLong("cmd_get")).containsExactly(300L, 400L, 500L);
+    assertThat(collector.getRateSeries("cache1:11211")).hasSize(2);
+  }
+
+  @Test
+  void serveMetricsAndWriteJson(@TempDir Path directory) throws IOException {
+    //given
+    collector.poll();
+    collector.poll();
+
+    //when
+    InetSocketAddress address = collector.serveMetrics(0);
+    HttpURLConnection connection = (HttpURLConnection) new URL(
+            "http://127.0.0.1:" + address.getPort() + "/metrics").openConnection();
+    String metrics;
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+      metrics = reader.lines().collect(Collectors.joining("\n"));
+    }
+    Path json = directory.resolve("stats.json");
+    collector.writeJson(json);
+
+    //then
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(metrics)
+            .contains("# TYPE arcus_ops_per_second gauge")
+            .contains("arcus_hit_ratio{node=\"cache1:11211\"} 0.8")
+            .contains("arcus_stats_cmd_get{node=\"cache1:11211\"} 200")
+            .doesNotContain("arcus_stats_version");
+    assertThat(new String(Files.readAllBytes(json), StandardCharsets.UTF_8))
+            .startsWith("{\"nodes\":[{\"node\":\"cache1:11211\",\"rates\":[{")
+            .contains("\"cmd_get\":\"200\"");
+  }
+}
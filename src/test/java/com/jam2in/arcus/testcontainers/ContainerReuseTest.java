@@ -0,0 +1,46 @@
+package com.jam2in.arcus.testcontainers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerReuseTest {
+
+  @Test
+  void fingerprintOfSameConfiguration() {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder().clusterSize(2).reuse(true).build();
+
+    //when
+    String fingerprint = ContainerReuse.fingerprint("cluster", ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, props,
+            ArcusContainer.buildContainerCommand(0, true, props));
+
+    //then
+    assertThat(fingerprint).hasSize(64).matches("[0-9a-f]+");
+    assertThat(fingerprint).isEqualTo(ContainerReuse.fingerprint("cluster", ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME,
+            ArcusContainerProps.builder().clusterSize(2).reuse(true).build(),
+            ArcusContainer.buildContainerCommand(0, true, props)));
+  }
+
+  @Test
+  void fingerprintOfChangedConfiguration() {
+    //given
+    ArcusContainerProps props = ArcusContainerProps.builder().reuse(true).build();
+    ArcusContainerProps changed = ArcusContainerProps.builder().memorySize(128).reuse(true).build();
+
+    //when
+    String fingerprint = ContainerReuse.fingerprint("container", ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME, props,
+            ArcusContainer.buildContainerCommand(0, false, props));
+    String changedFingerprint = ContainerReuse.fingerprint("container", ArcusContainer.DEFAULT_ARCUS_IMAGE_NAME,
+            changed, ArcusContainer.buildContainerCommand(0, false, changed));
+
+    //then
+    assertThat(changedFingerprint).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void portOfAddress() {
+    assertThat(ContainerReuse.port("cache3:41234")).isEqualTo(41234);
+    assertThat(ContainerReuse.port("zoo1:2181")).isEqualTo(2181);
+  }
+}
@@ -0,0 +1,40 @@
+package com.jam2in.arcus.testcontainers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Ipv4SubnetTest {
+
+  @Test
+  void addressesOfSubnet() {
+    //when
+    Ipv4Subnet subnet = Ipv4Subnet.parse("172.18.0.0/16");
+
+    //then
+    assertThat(subnet).hasToString("172.18.0.0/16");
+    assertThat(subnet.address(10)).isEqualTo("172.18.0.10");
+    assertThat(subnet.address(300)).isEqualTo("172.18.1.44");
+    assertThat(subnet.upperHalf()).isEqualTo("172.18.128.0/17");
+  }
+
+  @Test
+  void parseMasksHostBits() {
+    //when
+    Ipv4Subnet subnet = Ipv4Subnet.parse("192.168.16.5/20");
+
+    //then
+    assertThat(subnet).hasToString("192.168.16.0/20");
+    assertThat(subnet.upperHalf()).isEqualTo("192.168.24.0/21");
+  }
+
+  @Test
+  void invalidSubnetOrOffset() {
+    assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.parse("172.18.0.0"));
+    assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.parse("fd00::/64"));
+    assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.parse("172.18.0.0/31"));
+    assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.parse("192.168.0.0/24").address(255));
+    assertThrows(IllegalArgumentException.class, () -> Ipv4Subnet.parse("192.168.0.0/24").address(0));
+  }
+}
@@ -0,0 +1,83 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.spy.memcached.ArcusKetamaNodeLocator;
+import net.spy.memcached.MemcachedNode;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class KetamaNodeLocatorTest {
+
+  @Test
+  void sameOwnerAsArcusClient() {
+    //given
+    List<String> addresses = Arrays.asList("127.0.0.1:11211", "127.0.0.1:11212", "127.0.0.1:11213");
+    List<MemcachedNode> nodes = new ArrayList<>();
+    for (String address : addresses) {
+      nodes.add(node(address));
+    }
+    ArcusKetamaNodeLocator clientLocator = new ArcusKetamaNodeLocator(nodes);
+
+    //when
+    KetamaNodeLocator locator = new KetamaNodeLocator(addresses);
+
+    //then
+    for (int i = 0; i < 1000; i++) {
+      String key = "key:" + i;
+      InetSocketAddress owner = (InetSocketAddress) clientLocator.getPrimary(key).getSocketAddress();
+      assertThat(locator.getPrimary(key)).isEqualTo("127.0.0.1:" + owner.getPort());
+    }
+  }
+
+  @Test
+  void movedRatioMatchesMovedKeys() {
+    //given
+    KetamaNodeLocator before = new KetamaNodeLocator(
+            Arrays.asList("127.0.0.1:11211", "127.0.0.1:11212", "127.0.0.1:11213"));
+    KetamaNodeLocator after = new KetamaNodeLocator(
+            Arrays.asList("127.0.0.1:11211", "127.0.0.1:11212", "127.0.0.1:11213", "127.0.0.1:11214"));
+
+    //when
+    double ratio = KetamaNodeLocator.movedRatio(before, after);
+
+    //then
+    int moved = 0;
+    int keys = 100_000;
+    for (int i = 0; i < keys; i++) {
+      if (!before.getPrimary("key:" + i).equals(after.getPrimary("key:" + i))) {
+        moved++;
+      }
+    }
+    assertThat(ratio).isBetween(0.15, 0.35);
+    assertThat(ratio).isCloseTo((double) moved / keys, within(0.01));
+    assertThat(KetamaNodeLocator.movedRatio(before, before)).isZero();
+  }
+
+  private static MemcachedNode node(String address) {
+    String[] hostPort = address.split(":");
+    InetSocketAddress socketAddress = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+    return (MemcachedNode) Proxy.newProxyInstance(MemcachedNode.class.getClassLoader(),
+            new Class<?>[]{MemcachedNode.class}, (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getSocketAddress":
+                  return socketAddress;
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                case "toString":
+                  return address;
+                default:
+                  return null;
+              }
+            });
+  }
+}
@@ -0,0 +1,57 @@
+package com.jam2in.arcus.testcontainers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+  @Test
+  void percentilesWithinBucketPrecision() {
+    //given
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    //when
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    //then
+    assertThat(histogram.getCount()).isEqualTo(100_000);
+    assertThat(histogram.getMax()).isEqualTo(100_000_000);
+    assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(50_000_000, within(50_000_000 / 64.0));
+    assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(99_000_000, within(99_000_000 / 64.0));
+    assertThat((double) histogram.getValueAtPercentile(99.9)).isCloseTo(99_900_000, within(99_900_000 / 64.0));
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000);
+    assertThat(histogram.getMean()).isCloseTo(50_000_500, within(1.0));
+  }
+
+  @Test
+  void addHistograms() {
+    //given
+    LatencyHistogram fast = new LatencyHistogram();
+    LatencyHistogram slow = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      fast.record(100);
+    }
+    slow.record(1_000_000);
+
+    //when
+    fast.add(slow);
+
+    //then
+    assertThat(fast.getCount()).isEqualTo(100);
+    assertThat(fast.getValueAtPercentile(99)).isEqualTo(100);
+    assertThat(fast.getValueAtPercentile(99.9)).isEqualTo(1_000_000);
+    assertThat(new LatencyHistogram().getValueAtPercentile(99)).isZero();
+  }
+
+  @Test
+  void bucketsAreContiguous() {
+    for (int index = 1; index < LatencyHistogram.index(Long.MAX_VALUE); index++) {
+      assertThat(LatencyHistogram.index(LatencyHistogram.highestValue(index - 1) + 1)).isEqualTo(index);
+      assertThat(LatencyHistogram.index(LatencyHistogram.highestValue(index))).isEqualTo(index);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.testcontainers.containers.output.OutputFrame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogCaptureTest {
+
+  @Test
+  void keepsLatestBytes() {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 16, 0);
+
+    //when
+    capture.accept(frame("0123456789\n"));
+    capture.accept(frame("abcdefghij\n"));
+
+    //then
+    assertThat(capture.getText()).isEqualTo("6789\nabcdefghij\n");
+  }
+
+  @Test
+  void dropsOutputBeyondRateLimit() {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 1024, 20);
+
+    //when
+    capture.accept(frame("first line 0123\n"));
+    capture.accept(frame("second line 0123\n"));
+
+    //then
+    assertThat(capture.getText()).isEqualTo("first line 0123\n");
+    assertThat(capture.getDroppedBytes()).isEqualTo(17);
+  }
+
+  @Test
+  void acceptsFrameLongerThanRateLimitOnceBucketIsFull() {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 1024, 10);
+
+    //when
+    capture.accept(frame("a line longer than ten bytes\n"));
+
+    //then
+    assertThat(capture.getText()).isEqualTo("a line longer than ten bytes\n");
+    assertThat(capture.getDroppedBytes()).isZero();
+  }
+
+  @Test
+  void parsesEventsOfDroppedOutput() {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 1024, 20);
+
+    //when
+    capture.accept(frame("first line 0123\n"));
+    capture.accept(frame("item allocation: out of memory\n"));
+
+    //then
+    assertThat(capture.getDroppedBytes()).isEqualTo(31);
+    assertThat(capture.getEvents()).extracting(LogEvent::getType).containsExactly(LogEvent.Type.OUT_OF_MEMORY);
+  }
+
+  @Test
+  void cutsLongLines() {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 16, 0);
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      line.append('x');
+    }
+
+    //when
+    capture.accept(frame(line.toString()));
+    capture.accept(frame(line.toString()));
+    capture.accept(frame(" out of memory\n"));
+
+    //then
+    assertThat(capture.getEvents()).hasSize(1);
+    assertThat(capture.getEvents().get(0).getLine()).hasSize(8192).endsWith("x out of memory");
+  }
+
+  @Test
+  void parsesEventsAcrossFrames() {
+    //given
+    LogCapture capture = new LogCapture(ArcusClusterContainer.ZOOKEEPER, 1024, 0);
+
+    //when
+    capture.accept(frame("2024-01-01 INFO  [SessionTracker] - Expiring session 0x1000, "));
+    capture.accept(frame("timeout of 4000ms exceeded\nnothing to see\n"));
+    capture.accept(frame("item allocation: out of memory\n"));
+
+    //then
+    assertThat(capture.getEvents()).extracting(LogEvent::getType)
+            .containsExactly(LogEvent.Type.ZK_SESSION_EXPIRED, LogEvent.Type.OUT_OF_MEMORY);
+    assertThat(capture.getEvents().get(0).getLine()).endsWith("timeout of 4000ms exceeded");
+    assertThat(capture.getEvents().get(0).getSource()).isEqualTo(ArcusClusterContainer.ZOOKEEPER);
+  }
+
+  @Test
+  void dumpWritesDiscardedBytesHeader(@TempDir Path directory) throws IOException {
+    //given
+    LogCapture capture = new LogCapture("cache1:11211", 8, 0);
+    capture.accept(frame("0123456789\n"));
+    Path file = directory.resolve("logs/cache1.log");
+
+    //when
+    capture.dump(file);
+
+    //then
+    assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+            .isEqualTo("[cache1:11211: 3 older bytes discarded, 0 bytes dropped by the rate limit]\n3456789\n");
+  }
+
+  private static OutputFrame frame(String text) {
+    return new OutputFrame(OutputFrame.OutputType.STDOUT, text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,39 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NetworkProfileTest {
+
+  @Test
+  void netemArgs() {
+    //given
+    NetworkProfile profile = NetworkProfile.builder()
+            .latency(Duration.ofMillis(20))
+            .jitter(Duration.ofMillis(5))
+            .bandwidth(100_000_000L)
+            .loss(0.5)
+            .build();
+
+    //when
+    //then
+    assertThat(profile.toNetemArgs())
+            .containsExactly("delay", "20000us", "5000us", "loss", "0.5000%", "rate", "100000000bit");
+    assertThat(NetworkProfile.builder().build().toNetemArgs()).isEmpty();
+    assertThat(NetworkProfile.builder().loss(1).build().toNetemArgs()).containsExactly("loss", "1.0000%");
+  }
+
+  @Test
+  void invalidProfiles() {
+    assertThatThrownBy(() -> NetworkProfile.builder().latency(Duration.ofMillis(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> NetworkProfile.builder().loss(101)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> NetworkProfile.builder().bandwidth(-1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> NetworkProfile.builder().jitter(Duration.ofMillis(5)).build())
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,119 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PortReservationsTest {
+
+  @Test
+  void reservedPortsAreNotHandedOutTwice() throws Exception {
+    //given
+    int threads = 8;
+    int portsPerThread = 25;
+    Set<Integer> ports = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      tasks.add(() -> {
+        for (int j = 0; j < portsPerThread; j++) {
+          assertThat(ports.add(PortReservations.reserve())).isTrue();
+        }
+        return null;
+      });
+    }
+
+    //when
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+      ports.forEach(PortReservations::release);
+    }
+
+    //then
+    assertThat(ports).hasSize(threads * portsPerThread);
+  }
+
+  @Test
+  void reserveGivenPort() {
+    //given
+    int port = PortReservations.reserve();
+
+    try {
+      //when, then
+      assertThat(PortReservations.reserve(port)).isFalse();
+      PortReservations.release(port);
+      assertThat(PortReservations.reserve(port)).isTrue();
+      assertThat(PortReservations.isReserved(port)).isTrue();
+    } finally {
+      PortReservations.release(port);
+    }
+  }
+
+  @Test
+  void reservationLocksPortInLockFile() throws Exception {
+    //given
+    int port = PortReservations.reserve();
+
+    try {
+      //then
+      assertThat(PortReservations.isReserved(port)).isTrue();
+      assertThat(lockFromChildProcess(port)).isFalse();
+    } finally {
+      //when
+      PortReservations.release(port);
+    }
+
+    //then
+    assertThat(PortReservations.isReserved(port)).isFalse();
+    assertThat(lockFromChildProcess(port)).isTrue();
+  }
+
+  /**
+   * Tries to lock the port in the lock file from another JVM, as another test JVM would.
+   * The file is never opened again in this JVM, since closing a channel of it
+   * would release every lock this process holds on it.
+   */
+  private static boolean lockFromChildProcess(int port) throws Exception {
+    Process process = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp", System.getProperty("java.class.path"),
+            LockProbe.class.getName(), Integer.toString(port))
+            .inheritIO()
+            .start();
+    assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+    assertThat(process.exitValue()).isIn(LockProbe.LOCKED, LockProbe.NOT_LOCKED);
+    return process.exitValue() == LockProbe.LOCKED;
+  }
+
+  static final class LockProbe {
+    static final int LOCKED = 0;
+    static final int NOT_LOCKED = 3;
+
+    public static void main(String[] args) throws IOException {
+      int port = Integer.parseInt(args[0]);
+      try (FileChannel channel = FileChannel.open(PortReservations.LOCK_FILE, StandardOpenOption.WRITE);
+           FileLock lock = channel.tryLock(port, 1, false)) {
+        System.exit(lock != null ? LOCKED : NOT_LOCKED);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupReportTest {
+
+  @Test
+  void phasesAreConsecutive() throws InterruptedException {
+    //given
+    StartupTimer timer = new StartupTimer();
+    timer.end(StartupReport.Phase.IMAGE_RESOLUTION);
+
+    //when
+    timer.begin();
+    timer.end(StartupReport.Phase.IMAGE_RESOLUTION);
+    Thread.sleep(50);
+    timer.end(StartupReport.Phase.CONTAINER_START);
+    Thread.sleep(20);
+    timer.end(StartupReport.Phase.IMAGE_RESOLUTION);
+    Thread.sleep(20);
+    timer.end(StartupReport.Phase.READINESS_WAIT);
+    StartupReport report = timer.finish(Collections.emptyMap());
+
+    //then
+    assertThat(report.getPhases()).containsOnlyKeys(StartupReport.Phase.IMAGE_RESOLUTION,
+            StartupReport.Phase.CONTAINER_START, StartupReport.Phase.READINESS_WAIT);
+    assertThat(report.getPhases().keySet()).containsExactly(StartupReport.Phase.IMAGE_RESOLUTION,
+            StartupReport.Phase.CONTAINER_START, StartupReport.Phase.READINESS_WAIT);
+    assertThat(report.get(StartupReport.Phase.CONTAINER_START)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+    // the repeated end of IMAGE_RESOLUTION is ignored, so READINESS_WAIT spans both sleeps after CONTAINER_START.
+    assertThat(report.get(StartupReport.Phase.READINESS_WAIT)).isGreaterThanOrEqualTo(Duration.ofMillis(20 + 20));
+    assertThat(report.get(StartupReport.Phase.CONTAINER_CREATE)).isNull();
+    assertThat(report.getTotal()).isGreaterThanOrEqualTo(report.getPhases().values().stream()
+            .reduce(Duration.ZERO, Duration::plus));
+  }
+
+  @Test
+  void writeJson(@TempDir Path directory) throws Exception {
+    //given
+    StartupReport node = new StartupReport(Duration.ofMillis(3),
+            Collections.singletonMap(StartupReport.Phase.READINESS_WAIT, Duration.ofNanos(1_500_000)),
+            Collections.emptyMap());
+    StartupReport cluster = new StartupReport(Duration.ofMillis(10),
+            Collections.singletonMap(StartupReport.Phase.ZNODE_BOOTSTRAP, Duration.ofMillis(2)),
+            Collections.singletonMap("cache1:11211", node));
+    Path file = directory.resolve("reports").resolve("startup.json");
+
+    //when
+    cluster.writeJson(file);
+
+    //then
+    assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).isEqualTo(
+            "{\"totalMillis\":10.0000,\"phases\":{\"ZNODE_BOOTSTRAP\":2.00000},"
+                    + "\"containers\":{\"cache1:11211\":{\"totalMillis\":3.00000,"
+                    + "\"phases\":{\"READINESS_WAIT\":1.50000}}}}");
+  }
+}
@@ -0,0 +1,211 @@
+package com.jam2in.arcus.testcontainers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrafficProxyTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private ServerSocket server;
+  private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+  @BeforeEach
+  void startFakeServer() throws IOException {
+    server = new ServerSocket(0);
+    Thread acceptor = new Thread(this::accept, "fake-memcached");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  @AfterEach
+  void stopFakeServer() throws IOException {
+    server.close();
+  }
+
+  private void accept() {
+    try {
+      while (true) {
+        Socket socket = server.accept();
+        Thread thread = new Thread(() -> serve(socket), "fake-memcached-connection");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    } catch (IOException e) {
+      // the test is over.
+    }
+  }
+
+  /**
+   * Answers sets with STORED and every other command with END, remembering the command lines.
+   */
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+         BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+         OutputStream out = s.getOutputStream()) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        received.add(line);
+        String response = "END\r\n";
+        if (line.startsWith("set ")) {
+          in.readLine();
+          response = "STORED\r\n";
+        }
+        out.write(response.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the test is over.
+    }
+  }
+
+  @Test
+  void recordAndReplay(@TempDir Path directory) throws IOException {
+    //given
+    Path capture = directory.resolve("cache_11211.cap");
+    TrafficProxy proxy = new TrafficProxy(0, new InetSocketAddress("localhost", server.getLocalPort()), capture);
+
+    //when
+    try (AsciiConnection connection = AsciiConnection.open("localhost", proxy.getPort(), TIMEOUT)) {
+      assertThat(connection.command("version")).isEqualTo("END");
+      proxy.setRecording(true);
+      connection.write("set key 0 0 5\r\nvalue\r\n");
+      connection.flush();
+      assertThat(connection.readLine()).isEqualTo("STORED");
+      assertThat(connection.command("get key")).isEqualTo("END");
+    }
+    try (AsciiConnection connection = AsciiConnection.open("localhost", proxy.getPort(), TIMEOUT)) {
+      assertThat(connection.command("get other")).isEqualTo("END");
+    }
+    proxy.close();
+
+    //then
+    Map<Integer, StringBuilder> sent = new LinkedHashMap<>();
+    try (TrafficCapture.Reader reader = new TrafficCapture.Reader(capture)) {
+      assertThat(reader.getStartEpochMillis()).isPositive();
+      long nanos = 0;
+      for (TrafficCapture.Record record = reader.next(); record != null; record = reader.next()) {
+        assertThat(record.getNanos()).isGreaterThanOrEqualTo(nanos);
+        nanos = record.getNanos();
+        sent.computeIfAbsent(record.getConnection(), ignored -> new StringBuilder())
+                .append(new String(record.getData(), StandardCharsets.UTF_8));
+      }
+    }
+    assertThat(sent.values()).extracting(StringBuilder::toString)
+            .containsExactly("set key 0 0 5\r\nvalue\r\nget key\r\n", "get other\r\n");
+
+    //when
+    received.clear();
+    ReplayReport report = new ArcusTrafficReplayer(Collections.singletonList(
+            InetSocketAddress.createUnresolved("localhost", server.getLocalPort())))
+            .maxSpeed()
+            .replay(capture);
+
+    //then
+    assertThat(report.getConnections()).isEqualTo(2);
+    assertThat(report.getRequestBytes()).isEqualTo(sent.values().stream().mapToInt(StringBuilder::length).sum());
+    assertThat(report.getResponseBytes()).isEqualTo("STORED\r\nEND\r\nEND\r\n".length());
+    assertThat(report.getErrors()).isZero();
+    assertThat(received).containsExactlyInAnyOrder("set key 0 0 5", "get key", "get other");
+  }
+
+  @Test
+  void recordingStartsTheClock(@TempDir Path directory) throws IOException, InterruptedException {
+    //given
+    Path capture = directory.resolve("cache_11211.cap");
+    TrafficProxy proxy = new TrafficProxy(0, new InetSocketAddress("localhost", server.getLocalPort()), capture);
+    Thread.sleep(200);
+
+    //when
+    long recordingStart = System.nanoTime();
+    proxy.setRecording(true);
+    try (AsciiConnection connection = AsciiConnection.open("localhost", proxy.getPort(), TIMEOUT)) {
+      assertThat(connection.command("get key")).isEqualTo("END");
+    }
+    long recorded = System.nanoTime() - recordingStart;
+    proxy.close();
+
+    //then
+    try (TrafficCapture.Reader reader = new TrafficCapture.Reader(capture)) {
+      assertThat(reader.next().getNanos()).isLessThanOrEqualTo(recorded);
+    }
+  }
+
+  @Test
+  void replayKeepsThePace(@TempDir Path directory) throws IOException, InterruptedException {
+    //given
+    Path capture = directory.resolve("paced.cap");
+    try (TrafficCapture.Writer writer = new TrafficCapture.Writer(capture)) {
+      writer.record(0, ByteBuffer.wrap("get first\r\n".getBytes(StandardCharsets.UTF_8)));
+      Thread.sleep(400);
+      writer.record(0, ByteBuffer.wrap("get second\r\n".getBytes(StandardCharsets.UTF_8)));
+      writer.close(0);
+    }
+    ArcusTrafficReplayer replayer = new ArcusTrafficReplayer(Collections.singletonList(
+            InetSocketAddress.createUnresolved("localhost", server.getLocalPort())));
+
+    //when
+    ReplayReport paced = replayer.speed(2).replay(capture);
+
+    //then
+    assertThat(paced.getElapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(190));
+    assertThat(paced.getResponseBytes()).isEqualTo("END\r\nEND\r\n".length());
+    assertThat(received).containsExactly("get first", "get second");
+  }
+
+  @Test
+  void captureRoundTrip(@TempDir Path directory) throws IOException {
+    //given
+    Path capture = directory.resolve("large.cap");
+    byte[] large = new byte[300 * 1024];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    ByteBuffer slice = ByteBuffer.wrap(large, 10, 1000);
+
+    //when
+    try (TrafficCapture.Writer writer = new TrafficCapture.Writer(capture)) {
+      writer.record(200, slice);
+      writer.record(1, ByteBuffer.wrap(large));
+      writer.close(200);
+    }
+
+    //then
+    List<TrafficCapture.Record> records = new ArrayList<>();
+    try (TrafficCapture.Reader reader = new TrafficCapture.Reader(capture)) {
+      for (TrafficCapture.Record record = reader.next(); record != null; record = reader.next()) {
+        records.add(record);
+      }
+    }
+    assertThat(slice.position()).isEqualTo(10);
+    assertThat(records).hasSize(3);
+    assertThat(records.get(0).getConnection()).isEqualTo(200);
+    assertThat(records.get(0).getData()).hasSize(1000).startsWith(large[10], large[11]);
+    assertThat(records.get(1).getData()).isEqualTo(large);
+    assertThat(records.get(2).isClose()).isTrue();
+    assertThat(records.get(2).getConnection()).isEqualTo(200);
+  }
+}
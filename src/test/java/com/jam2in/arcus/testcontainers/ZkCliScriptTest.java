@@ -0,0 +1,93 @@
+package com.jam2in.arcus.testcontainers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZkCliScriptTest {
+
+  @Test
+  void createParentsOnce() {
+    //when
+    ZkCliScript script = new ZkCliScript()
+            .create("/arcus/cache_list/test")
+            .create("/arcus/client_list/test");
+
+    //then
+    assertThat(script.getCommands()).containsExactly(
+            "create /arcus",
+            "create /arcus/cache_list",
+            "create /arcus/cache_list/test",
+            "create /arcus/client_list",
+            "create /arcus/client_list/test");
+  }
+
+  @Test
+  void createAfterDeleteAll() {
+    //when
+    ZkCliScript script = new ZkCliScript()
+            .create("/arcus/test")
+            .deleteAll("/arcus")
+            .create("/arcus/test");
+
+    //then
+    assertThat(script.getCommands()).containsExactly(
+            "create /arcus",
+            "create /arcus/test",
+            "deleteall /arcus",
+            "create /arcus",
+            "create /arcus/test");
+  }
+
+  @Test
+  void toShellCommand() {
+    //when
+    String[] command = new ZkCliScript().create("/arcus").toShellCommand("localhost:2181");
+
+    //then
+    assertThat(command).hasSize(3);
+    assertThat(command[2]).isEqualTo(
+            "./bin/zkCli.sh -server localhost:2181 <<'EOF'\ncreate /arcus\nquit\nEOF\n");
+  }
+
+  @Test
+  void existingAndMissingNodesAreNotErrors() {
+    //given
+    ZkCliScript script = new ZkCliScript().create("/arcus/cache_list").deleteAll("/arcus/client_list");
+
+    //when
+    String stderr = "2024-01-01 10:00:00,000 [myid:] - INFO  [main:Environment@109] - Client environment\n"
+            + "Node already exists: /arcus\n"
+            + "Node already exists: /arcus/cache_list\n"
+            + "Node does not exist: /arcus/client_list\n";
+
+    //then
+    assertThat(script.errors(1, stderr)).isEmpty();
+    assertThat(script.errors(0, "")).isEmpty();
+  }
+
+  @Test
+  void otherErrorsFailTheScript() {
+    //given
+    ZkCliScript script = new ZkCliScript().create("/arcus").ls("/arcus/cache_list/test");
+
+    //when
+    String stderr = "Node does not exist: /arcus/cache_list/test\n"
+            + "Node already exists: /arcus\n"
+            + "Node already exists: /other\n";
+
+    //then
+    assertThat(script.errors(1, stderr))
+            .containsExactly("Node does not exist: /arcus/cache_list/test", "Node already exists: /other");
+    assertThat(script.errors(127, "")).containsExactly("zkCli exited with 127.");
+  }
+
+  @Test
+  void invalidPath() {
+    assertThatThrownBy(() -> new ZkCliScript().create("arcus"))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new ZkCliScript().create("/arcus/"))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+}